@@ -0,0 +1,64 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.restaurant.Restaurant;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic catalog shared by the benchmarks: 20 restaurants with 25 dishes each.
+ */
+final class BenchmarkData {
+    static final int RESTAURANTS = 20;
+    static final int FOODS_PER_RESTAURANT = 25;
+    static final String[] CATEGORIES = {"Italian", "American", "Polish", "Asian", "Healthy"};
+
+    private BenchmarkData() {
+    }
+
+    static Customer customer() {
+        return new Customer("Jan", "Kowalski", "jan.kowalski@example.com", "ul. Nowa 5, 01-234 Warszawa", "+48 123 456 789");
+    }
+
+    static List<Restaurant> restaurants(boolean withIds) {
+        List<Restaurant> restaurants = new ArrayList<>();
+        for (int i = 1; i <= RESTAURANTS; i++) {
+            Restaurant restaurant = new Restaurant("Restaurant " + i, "Description of restaurant " + i,
+                    "ul. Mokotowska " + i + ", 01-234 Warsaw", "District " + (i % 5), "+48 222 333 " + (100 + i));
+            if (withIds) {
+                restaurant.setId(i);
+            }
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    static List<Food> foods(List<Restaurant> restaurants, boolean withIds) {
+        List<Food> foods = new ArrayList<>();
+        int id = 1;
+        for (Restaurant restaurant : restaurants) {
+            for (int i = 0; i < FOODS_PER_RESTAURANT; i++) {
+                Food food = new Food("Dish " + id, "Description of dish " + id, CATEGORIES[id % CATEGORIES.length],
+                        BigDecimal.valueOf(500 + (id * 37L) % 4500, 2), id % 3 == 0, restaurant);
+                if (withIds) {
+                    food.setId(id);
+                }
+                foods.add(food);
+                id++;
+            }
+        }
+        return foods;
+    }
+
+    // Koszyk z pozycjami z kilku restauracji, jak typowe zamówienie
+    static List<Food> cart(List<Food> foods, int size) {
+        List<Food> cart = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            cart.add(foods.get((i * 97) % foods.size()));
+        }
+        return cart;
+    }
+}
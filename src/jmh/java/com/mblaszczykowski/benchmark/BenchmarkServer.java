@@ -0,0 +1,72 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.Main;
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.customer.CustomerRepository;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodRepository;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderRepository;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the whole application on a random port, with the benchmark catalog and a set of orders, for benchmarks
+ * that go through HTTP. The database is embedded H2 (for JDBC and R2DBC alike) unless
+ * {@code -Dbenchmark.datasource.url} points the JDBC side at PostgreSQL; R2DBC then uses {@code spring.r2dbc.url}.
+ */
+final class BenchmarkServer {
+    static final int ORDERS = 200;
+
+    private BenchmarkServer() {
+    }
+
+    static ConfigurableApplicationContext start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.add("--server.port=0");
+        arguments.add("--logging.level.root=WARN");
+        String datasourceUrl = System.getProperty("benchmark.datasource.url");
+        if (datasourceUrl == null) {
+            // Ta sama baza w pamięci dla JDBC i R2DBC
+            arguments.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark-http;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.r2dbc.url=r2dbc:h2:mem:///benchmark-http",
+                    "--spring.r2dbc.username=sa",
+                    "--spring.r2dbc.password=",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+            ));
+        } else {
+            arguments.add("--spring.datasource.url=" + datasourceUrl);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class).run(arguments.toArray(String[]::new));
+
+        // Na PostgreSQL dane zostają między próbami, a e-mail klienta musi być unikalny
+        Customer customer = BenchmarkData.customer();
+        customer.setEmail("load-%d@example.com".formatted(System.nanoTime()));
+        customer = context.getBean(CustomerRepository.class).save(customer);
+        List<Restaurant> restaurants = context.getBean(RestaurantRepository.class).saveAll(BenchmarkData.restaurants(false));
+        List<Food> foods = context.getBean(FoodRepository.class).saveAll(BenchmarkData.foods(restaurants, false));
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(new Order(customer, BenchmarkData.cart(foods, 1 + i % 5), "ul. Nowa 5, 01-234 Warszawa",
+                    Order.DeliveryType.SHIPPING));
+        }
+        context.getBean(OrderRepository.class).saveAll(orders);
+        return context;
+    }
+
+    static URI uri(ConfigurableApplicationContext context, String path) {
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://localhost:" + port + path);
+    }
+}
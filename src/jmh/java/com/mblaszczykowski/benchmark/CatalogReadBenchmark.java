@@ -0,0 +1,56 @@
+package com.mblaszczykowski.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test over HTTP comparing the blocking catalog reads ({@code api/v1/food}, JPA) with the reactive ones
+ * ({@code api/v1/reactive/food}, R2DBC). 100 client threads share a server limited to 20 Tomcat threads; the
+ * price range query is not cached on either path. The H2 R2DBC driver runs queries synchronously on the
+ * subscribing thread, so only a run against PostgreSQL (see {@link BenchmarkServer}) says anything about the
+ * reactive path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(100)
+@Fork(1)
+public class CatalogReadBenchmark {
+    private static final int TOMCAT_THREADS = 20;
+
+    @Param({"api/v1/food", "api/v1/reactive/food"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest priceRange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkServer.start("--server.tomcat.threads.max=" + TOMCAT_THREADS);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        priceRange = HttpRequest.newBuilder(BenchmarkServer.uri(context,
+                "/" + path + "/price-range?minPrice=10&maxPrice=12")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getFoodByPriceRange() throws Exception {
+        HttpResponse<byte[]> response = client.send(priceRange, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.Main;
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.customer.CustomerRepository;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodRepository;
+import com.mblaszczykowski.food.FoodService;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderRegistrationRequest;
+import com.mblaszczykowski.order.OrderRepository;
+import com.mblaszczykowski.order.OrderService;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantRepository;
+import com.mblaszczykowski.review.ReviewRegistrationRequest;
+import com.mblaszczykowski.review.ReviewService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same service paths as {@link InMemoryServiceBenchmark}, running through JPA against an embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmbeddedDatabaseBenchmark {
+    @Param({"1", "5", "20"})
+    public int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private FoodService foodService;
+    private ReviewService reviewService;
+    private OrderRepository orderRepository;
+    private Customer customer;
+    private Restaurant restaurant;
+    private List<Food> cart;
+    private OrderRegistrationRequest orderRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Argumenty wiersza poleceń, bo muszą nadpisać application.yml
+        context = new SpringApplicationBuilder(Main.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--logging.level.root=WARN"
+        );
+
+        orderService = context.getBean(OrderService.class);
+        foodService = context.getBean(FoodService.class);
+        reviewService = context.getBean(ReviewService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        customer = context.getBean(CustomerRepository.class).save(BenchmarkData.customer());
+        List<Restaurant> restaurants = context.getBean(RestaurantRepository.class).saveAll(BenchmarkData.restaurants(false));
+        restaurant = restaurants.get(0);
+        List<Food> foods = context.getBean(FoodRepository.class).saveAll(BenchmarkData.foods(restaurants, false));
+
+        cart = BenchmarkData.cart(foods, cartSize);
+        orderRequest = new OrderRegistrationRequest(customer, cart, "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.SHIPPING);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Każda recenzja potrzebuje osobnego zamówienia
+    @State(Scope.Thread)
+    public static class ReviewState {
+        private ReviewRegistrationRequest request;
+
+        @Setup(Level.Invocation)
+        public void prepare(EmbeddedDatabaseBenchmark benchmark) {
+            Order order = benchmark.orderRepository.save(new Order(benchmark.customer, benchmark.cart,
+                    "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.PICKUP));
+            request = new ReviewRegistrationRequest(benchmark.customer, benchmark.restaurant, order,
+                    "Wonderful Pizza", 5, "The pizza was delicious and arrived hot.");
+        }
+    }
+
+    @Benchmark
+    public void addOrder() {
+        orderService.add(orderRequest);
+    }
+
+    @Benchmark
+    public List<Food> getFoodByPriceRange() {
+        return foodService.getFoodByPriceRange(BigDecimal.valueOf(10), BigDecimal.valueOf(25));
+    }
+
+    @Benchmark
+    public void addReview(ReviewState state) {
+        reviewService.add(state.request);
+    }
+}
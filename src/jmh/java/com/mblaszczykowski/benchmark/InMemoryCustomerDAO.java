@@ -0,0 +1,63 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.customer.CustomerDAO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+class InMemoryCustomerDAO implements CustomerDAO {
+    private final Customer customer;
+
+    InMemoryCustomerDAO(Customer customer) {
+        this.customer = customer;
+    }
+
+    @Override
+    public List<Customer> getAllCustomers() {
+        return List.of(customer);
+    }
+
+    @Override
+    public void addCustomer(Customer customer) {
+    }
+
+    @Override
+    public Optional<Customer> getCustomerById(Integer id) {
+        return Optional.of(customer);
+    }
+
+    @Override
+    public Optional<Customer> getCustomerByEmail(String email) {
+        return Optional.of(customer);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return true;
+    }
+
+    @Override
+    public void deleteCustomer(Customer customer) {
+    }
+
+    @Override
+    public void updateCustomer(Customer customer) {
+    }
+
+    @Override
+    public Optional<Customer> getById(Integer customerId) {
+        return Optional.of(customer);
+    }
+
+    @Override
+    public List<Customer> getByIds(Collection<Integer> customerIds) {
+        return List.of(customer);
+    }
+
+    @Override
+    public boolean existsById(Integer customerId) {
+        return true;
+    }
+}
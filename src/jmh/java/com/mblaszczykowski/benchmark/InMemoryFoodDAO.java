@@ -0,0 +1,141 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodDAO;
+import com.mblaszczykowski.food.FoodSearchCursor;
+import com.mblaszczykowski.food.FoodSearchRequest;
+import com.mblaszczykowski.food.FoodVersion;
+import com.mblaszczykowski.web.ETagged;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+class InMemoryFoodDAO implements FoodDAO {
+    private final List<Food> foods;
+    private final Map<Integer, Food> foodsById;
+
+    InMemoryFoodDAO(List<Food> foods) {
+        this.foods = List.copyOf(foods);
+        this.foodsById = foods.stream().collect(Collectors.toMap(Food::getId, Function.identity()));
+    }
+
+    private List<Food> filter(Predicate<Food> predicate) {
+        return foods.stream().filter(predicate).toList();
+    }
+
+    private static Predicate<Food> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return food -> food.getPrice().compareTo(minPrice) >= 0 && food.getPrice().compareTo(maxPrice) <= 0;
+    }
+
+    @Override
+    public List<Food> getAllFood() {
+        return foods;
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedAllFood(Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getAllFood());
+    }
+
+    @Override
+    public Optional<Food> getFoodById(Integer id) {
+        return Optional.ofNullable(foodsById.get(id));
+    }
+
+    @Override
+    public Optional<FoodVersion> getVersion(Integer id) {
+        return getFoodById(id).map(FoodVersion::of);
+    }
+
+    @Override
+    public List<Food> getFoodByCategory(String category) {
+        return filter(food -> Objects.equals(food.getCategory(), category));
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedFoodByCategory(String category, Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getFoodByCategory(category));
+    }
+
+    @Override
+    public List<Food> getVegetarianFood() {
+        return filter(Food::isVegetarian);
+    }
+
+    @Override
+    public List<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return filter(food -> food.isVegetarian()
+                && (category == null || Objects.equals(food.getCategory(), category))
+                && (minPrice == null || priceBetween(minPrice, maxPrice).test(food)));
+    }
+
+    @Override
+    public void addFood(Food food) {
+    }
+
+    @Override
+    public void updateFood(Food food) {
+    }
+
+    @Override
+    public void deleteFood(Food food) {
+    }
+
+    @Override
+    public List<Food> findByRestaurantID(Integer restaurantID) {
+        return getFoodByRestaurantID(restaurantID);
+    }
+
+    @Override
+    public List<Food> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return getFoodByPriceRange(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Food> findByName(String name) {
+        return getFoodByName(name);
+    }
+
+    @Override
+    public List<Food> getFoodByRestaurantID(Integer restaurantID) {
+        return filter(food -> Objects.equals(food.getRestaurant().getId(), restaurantID));
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedFoodByRestaurantID(Integer restaurantID, Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getFoodByRestaurantID(restaurantID));
+    }
+
+    @Override
+    public List<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return filter(priceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public List<Food> getFoodByName(String name) {
+        return filter(food -> Objects.equals(food.getName(), name));
+    }
+
+    @Override
+    public Optional<Food> getById(Integer foodId) {
+        return getFoodById(foodId);
+    }
+
+    @Override
+    public List<Food> getByIds(Collection<Integer> foodIds) {
+        return foodIds.stream().map(foodsById::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Food> searchFood(FoodSearchRequest request, FoodSearchCursor after, int limit) {
+        return foods.stream().limit(limit).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderDAO;
+import com.mblaszczykowski.order.OrderLineRow;
+import com.mblaszczykowski.order.OrderList;
+import com.mblaszczykowski.order.OrderRow;
+import com.mblaszczykowski.order.OrderVersion;
+import com.mblaszczykowski.restaurant.Restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+class InMemoryOrderDAO implements OrderDAO {
+    private final List<Order> orders = new ArrayList<>();
+
+    void clear() {
+        orders.clear();
+    }
+
+    @Override
+    public List<Order> getOrdersAfter(Integer afterId, int limit) {
+        return orders.stream().filter(order -> order.getId() > afterId).limit(limit).toList();
+    }
+
+    @Override
+    public void forEachOrder(Consumer<Order> action) {
+        orders.forEach(action);
+    }
+
+    @Override
+    public void add(Order order) {
+        order.setId(orders.size() + 1);
+        orders.add(order);
+    }
+
+    @Override
+    public void addAll(List<Order> orders) {
+        orders.forEach(this::add);
+    }
+
+    @Override
+    public Optional<Order> getById(Integer id) {
+        return id > 0 && id <= orders.size() ? Optional.of(orders.get(id - 1)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<OrderVersion> getVersion(Integer id) {
+        return getById(id).map(OrderVersion::of);
+    }
+
+    @Override
+    public void update(Order order) {
+    }
+
+    @Override
+    public OrderList getOrderList() {
+        return toOrderList(orders);
+    }
+
+    @Override
+    public OrderList getOrderListByCustomerId(Integer customerId) {
+        return toOrderList(orders);
+    }
+
+    @Override
+    public OrderList getOrderListByRestaurantId(Integer restaurantId) {
+        return toOrderList(orders);
+    }
+
+    private static OrderList toOrderList(List<Order> orders) {
+        List<OrderRow> rows = new ArrayList<>();
+        List<OrderLineRow> lines = new ArrayList<>();
+        for (Order order : orders) {
+            rows.add(new OrderRow(order.getId(), order.getCustomer().getId(), order.getTotalAmount(), order.getAddress(),
+                    order.getDeliveryType(), order.getOrderTime(), order.isPaid(), order.getStatus()));
+            for (Food food : order.getFoods()) {
+                Restaurant restaurant = food.getRestaurant();
+                lines.add(new OrderLineRow(order.getId(), food.getId(), food.getName(), food.getPrice(),
+                        restaurant == null ? null : restaurant.getId(), restaurant == null ? null : restaurant.getName()));
+            }
+        }
+        return OrderList.of(rows, lines);
+    }
+
+    @Override
+    public boolean existsById(Integer orderId) {
+        return true;
+    }
+
+    @Override
+    public boolean updateStatus(Integer id, Order.OrderStatus expected, Order.OrderStatus status) {
+        Optional<Order> order = getById(id).filter(existing -> existing.getStatus() == expected);
+        order.ifPresent(existing -> existing.setStatus(status));
+        return order.isPresent();
+    }
+
+    @Override
+    public void markPaid(Integer id) {
+        getById(id).ifPresent(order -> order.setPaid(true));
+    }
+
+    @Override
+    public Optional<Order.OrderStatus> getStatusById(Integer id) {
+        return getById(id).map(Order::getStatus);
+    }
+
+    @Override
+    public List<Integer> getRestaurantIds(Integer id) {
+        return List.of();
+    }
+
+    @Override
+    public int backfillTotalAmounts(int batchSize) {
+        return 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.outbox.OutboxDAO;
+import com.mblaszczykowski.outbox.OutboxDelivery;
+import com.mblaszczykowski.outbox.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class InMemoryOutboxDAO implements OutboxDAO {
+    private final List<OutboxEvent> events = new ArrayList<>();
+    private final List<OutboxDelivery> deliveries = new ArrayList<>();
+    private long nextId = 1;
+
+    void clear() {
+        events.clear();
+        deliveries.clear();
+    }
+
+    @Override
+    public void add(OutboxEvent event, Collection<String> sinks) {
+        event.setId(nextId++);
+        events.add(event);
+        sinks.forEach(sink -> deliveries.add(new OutboxDelivery(sink, event)));
+    }
+
+    @Override
+    public List<OutboxDelivery> lockPending(String sink, int limit) {
+        return deliveries.stream()
+                .filter(delivery -> delivery.getSink().equals(sink))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<OutboxEvent> getEvents(Collection<Long> ids) {
+        return events.stream().filter(event -> ids.contains(event.getId())).toList();
+    }
+
+    @Override
+    public void delivered(String sink, Collection<Long> eventIds) {
+        deliveries.removeIf(delivery -> delivery.getSink().equals(sink) && eventIds.contains(delivery.getEventId()));
+        events.removeIf(event -> eventIds.contains(event.getId()) &&
+                deliveries.stream().noneMatch(delivery -> delivery.getEventId().equals(event.getId())));
+    }
+
+    @Override
+    public void failed(String sink, Collection<Long> eventIds, String leaseId, String error,
+                       LocalDateTime nextAttemptAt) {
+        // Benchmarki nie uruchamiają dispatchera - ujścia nie zawodzą
+    }
+
+    @Override
+    public long countPending() {
+        return events.size();
+    }
+}
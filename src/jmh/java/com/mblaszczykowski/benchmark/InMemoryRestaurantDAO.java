@@ -0,0 +1,91 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.restaurant.CatalogVersion;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantDAO;
+import com.mblaszczykowski.restaurant.RestaurantPage;
+import com.mblaszczykowski.restaurant.RestaurantRatingTotals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+class InMemoryRestaurantDAO implements RestaurantDAO {
+    private final Map<Integer, Restaurant> restaurants;
+
+    InMemoryRestaurantDAO(List<Restaurant> restaurants) {
+        this.restaurants = restaurants.stream().collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+    }
+
+    @Override
+    public List<Restaurant> getAllRestaurants() {
+        return List.copyOf(restaurants.values());
+    }
+
+    @Override
+    public void addRestaurant(Restaurant restaurant) {
+    }
+
+    @Override
+    public Optional<Restaurant> getRestaurantById(Integer id) {
+        return Optional.ofNullable(restaurants.get(id));
+    }
+
+    @Override
+    public RestaurantPage getRestaurantsByDistrict(String district, int page, int size) {
+        List<Restaurant> inDistrict = restaurants.values().stream()
+                .filter(r -> Objects.equals(r.getDistrict(), district))
+                .skip((long) page * size)
+                .limit(size + 1L)
+                .toList();
+        return new RestaurantPage(inDistrict.stream().limit(size).toList(), page, size, inDistrict.size() > size);
+    }
+
+    @Override
+    public void deleteRestaurant(Restaurant restaurant) {
+    }
+
+    @Override
+    public void updateRestaurant(Restaurant restaurant) {
+    }
+
+    @Override
+    public List<Restaurant> findByName(String name) {
+        return restaurants.values().stream().filter(r -> Objects.equals(r.getName(), name)).toList();
+    }
+
+    @Override
+    public boolean existsById(Integer restaurantId) {
+        return restaurants.containsKey(restaurantId);
+    }
+
+    @Override
+    public List<RestaurantRatingTotals> getRatingTotals() {
+        return List.of();
+    }
+
+    @Override
+    public Optional<Long> getVersion(Integer id) {
+        return getRestaurantById(id).map(Restaurant::getVersion);
+    }
+
+    @Override
+    public Optional<Long> getMenuVersion(Integer id) {
+        return getRestaurantById(id).map(Restaurant::getMenuVersion);
+    }
+
+    @Override
+    public CatalogVersion getCatalogVersion() {
+        return new CatalogVersion((long) restaurants.size(),
+                restaurants.keySet().stream().max(Integer::compare).orElse(0),
+                restaurants.values().stream().mapToLong(Restaurant::getMenuVersion).sum());
+    }
+
+    @Override
+    public void incrementMenuVersions(Collection<Integer> restaurantIds) {
+    }
+}
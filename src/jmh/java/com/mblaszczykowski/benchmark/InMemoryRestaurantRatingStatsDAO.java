@@ -0,0 +1,49 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.restaurant.RestaurantRatingStats;
+import com.mblaszczykowski.restaurant.RestaurantRatingStatsDAO;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+class InMemoryRestaurantRatingStatsDAO implements RestaurantRatingStatsDAO {
+    // Indeks 0 to liczba recenzji, 1 suma ocen, 2-6 histogram
+    private final Map<Integer, long[]> statsByRestaurantId = new HashMap<>();
+
+    void clear() {
+        statsByRestaurantId.clear();
+    }
+
+    @Override
+    public Optional<RestaurantRatingStats> getByRestaurantId(Integer restaurantId) {
+        return Optional.empty();
+    }
+
+    @Override
+    public int initializeMissing() {
+        return 0;
+    }
+
+    @Override
+    public void initializeIfMissing(Integer restaurantId) {
+        statsByRestaurantId.computeIfAbsent(restaurantId, id -> new long[7]);
+    }
+
+    @Override
+    public void addRating(Integer restaurantId, int rating) {
+        adjust(restaurantId, rating, 1);
+    }
+
+    @Override
+    public void removeRating(Integer restaurantId, int rating) {
+        adjust(restaurantId, rating, -1);
+    }
+
+    private void adjust(Integer restaurantId, int rating, int delta) {
+        long[] stats = statsByRestaurantId.get(restaurantId);
+        stats[0] += delta;
+        stats[1] += (long) rating * delta;
+        stats[rating + 1] += delta;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.review.Review;
+import com.mblaszczykowski.review.ReviewDAO;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+class InMemoryReviewDAO implements ReviewDAO {
+    private final Map<Integer, Review> reviewsByOrderId = new HashMap<>();
+
+    void clear() {
+        reviewsByOrderId.clear();
+    }
+
+    @Override
+    public List<Review> getAll() {
+        return List.copyOf(reviewsByOrderId.values());
+    }
+
+    @Override
+    public List<Review> getReviewsByRestaurantId(Integer restaurantId) {
+        return reviewsByOrderId.values().stream()
+                .filter(review -> Objects.equals(review.getRestaurant().getId(), restaurantId))
+                .toList();
+    }
+
+    @Override
+    public List<Review> getReviewsByDate(LocalDateTime date) {
+        return List.of();
+    }
+
+    @Override
+    public List<Review> getReviewsByCustomerId(Integer customerId) {
+        return List.of();
+    }
+
+    @Override
+    public void add(Review review) {
+        reviewsByOrderId.put(review.getOrder().getId(), review);
+    }
+
+    @Override
+    public void update(Review review) {
+    }
+
+    @Override
+    public Optional<Review> getById(Integer id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+    }
+
+    @Override
+    public boolean existsByOrderId(Integer orderId) {
+        return reviewsByOrderId.containsKey(orderId);
+    }
+}
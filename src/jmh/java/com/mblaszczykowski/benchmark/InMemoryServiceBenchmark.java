@@ -0,0 +1,114 @@
+package com.mblaszczykowski.benchmark;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodService;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderRegistrationRequest;
+import com.mblaszczykowski.order.OrderService;
+import com.mblaszczykowski.outbox.OutboxDispatcher;
+import com.mblaszczykowski.outbox.OutboxService;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantRanking;
+import com.mblaszczykowski.review.ReviewRegistrationRequest;
+import com.mblaszczykowski.review.ReviewService;
+import com.mblaszczykowski.search.AutocompleteIndex;
+import com.mblaszczykowski.search.AutocompleteSuggestion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer hot paths with DAOs replaced by in-memory stand-ins, so only the service logic is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryServiceBenchmark {
+    @Param({"1", "5", "20"})
+    public int cartSize;
+
+    private OrderService orderService;
+    private FoodService foodService;
+    private ReviewService reviewService;
+    private AutocompleteIndex autocompleteIndex;
+    private InMemoryOrderDAO orderDAO;
+    private InMemoryReviewDAO reviewDAO;
+    private InMemoryRestaurantRatingStatsDAO ratingStatsDAO;
+    private InMemoryOutboxDAO outboxDAO;
+    private Customer customer;
+    private Restaurant restaurant;
+    private OrderRegistrationRequest orderRequest;
+    private int nextOrderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        customer = BenchmarkData.customer();
+        List<Restaurant> restaurants = BenchmarkData.restaurants(true);
+        restaurant = restaurants.get(0);
+        List<Food> foods = BenchmarkData.foods(restaurants, true);
+
+        InMemoryCustomerDAO customerDAO = new InMemoryCustomerDAO(customer);
+        InMemoryRestaurantDAO restaurantDAO = new InMemoryRestaurantDAO(restaurants);
+        InMemoryFoodDAO foodDAO = new InMemoryFoodDAO(foods);
+        orderDAO = new InMemoryOrderDAO();
+        reviewDAO = new InMemoryReviewDAO();
+        ratingStatsDAO = new InMemoryRestaurantRatingStatsDAO();
+        outboxDAO = new InMemoryOutboxDAO();
+
+        // Zdarzenia tylko zapisywane - dispatcher nie jest uruchomiony
+        OutboxDispatcher outboxDispatcher = new OutboxDispatcher(outboxDAO, List.of(), null, 100,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofMinutes(1));
+        OutboxService outboxService = new OutboxService(outboxDAO, outboxDispatcher,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        orderService = new OrderService(orderDAO, foodDAO, customerDAO, outboxService);
+        autocompleteIndex = new AutocompleteIndex(foodDAO, restaurantDAO, Duration.ZERO);
+        autocompleteIndex.rebuild();
+        foodService = new FoodService(foodDAO, restaurantDAO, autocompleteIndex);
+        reviewService = new ReviewService(reviewDAO, customerDAO, restaurantDAO, orderDAO, ratingStatsDAO,
+                new RestaurantRanking(restaurantDAO, 10, Duration.ZERO));
+
+        orderRequest = new OrderRegistrationRequest(customer, BenchmarkData.cart(foods, cartSize),
+                "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.SHIPPING);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStores() {
+        orderDAO.clear();
+        reviewDAO.clear();
+        ratingStatsDAO.clear();
+        outboxDAO.clear();
+        nextOrderId = 0;
+    }
+
+    @Benchmark
+    public void addOrder() {
+        orderService.add(orderRequest);
+    }
+
+    @Benchmark
+    public List<Food> getFoodByPriceRange() {
+        return foodService.getFoodByPriceRange(BigDecimal.valueOf(10), BigDecimal.valueOf(25));
+    }
+
+    @Benchmark
+    public void addReview() {
+        Order order = new Order();
+        order.setId(++nextOrderId);
+        reviewService.add(new ReviewRegistrationRequest(customer, restaurant, order,
+                "Wonderful Pizza", 5, "The pizza was delicious and arrived hot."));
+    }
+
+    @Benchmark
+    public List<AutocompleteSuggestion> autocomplete() {
+        return autocompleteIndex.suggest("dish 1", 10);
+    }
+}
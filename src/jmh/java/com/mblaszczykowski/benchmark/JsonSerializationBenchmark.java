@@ -0,0 +1,73 @@
+package com.mblaszczykowski.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.restaurant.Restaurant;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the entities returned by the order and menu endpoints,
+ * using an ObjectMapper configured the same way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"10", "100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private Food food;
+    private List<Food> menu;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<Restaurant> restaurants = BenchmarkData.restaurants(true);
+        List<Food> foods = BenchmarkData.foods(restaurants, true);
+        food = foods.get(0);
+        menu = foods.subList(0, listSize);
+
+        orders = new ArrayList<>();
+        for (int i = 1; i <= listSize; i++) {
+            List<Food> cart = BenchmarkData.cart(foods.subList(i, foods.size()), 5);
+            Order order = new Order(BenchmarkData.customer(), cart, "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.SHIPPING);
+            order.setId(i);
+            order.setTotalAmount(cart.stream().map(Food::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFood() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(food);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeMenu() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(menu);
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+}
@@ -0,0 +1,87 @@
+package com.mblaszczykowski.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mblaszczykowski.Main;
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.customer.CustomerRepository;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodRepository;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderRepository;
+import com.mblaszczykowski.order.OrderService;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A customer's order listing as JSON, loaded through {@code OrderService} as the compact {@code OrderList}
+ * projection the controller returns, against an embedded H2 database. The response size is printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderListingBenchmark {
+    @Param({"20", "200"})
+    public int orderCount;
+
+    @Param({"5"})
+    public int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ObjectMapper objectMapper;
+    private Integer customerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        context = new SpringApplicationBuilder(Main.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:listing;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--logging.level.root=WARN"
+        );
+
+        orderService = context.getBean(OrderService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        Customer customer = context.getBean(CustomerRepository.class).save(BenchmarkData.customer());
+        customerId = customer.getId();
+        List<Restaurant> restaurants = context.getBean(RestaurantRepository.class).saveAll(BenchmarkData.restaurants(false));
+        List<Food> foods = context.getBean(FoodRepository.class).saveAll(BenchmarkData.foods(restaurants, false));
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            List<Food> cart = BenchmarkData.cart(foods.subList(i % foods.size(), foods.size()), cartSize);
+            Order order = new Order(customer, cart, "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.SHIPPING);
+            order.setTotalAmount(cart.stream().map(Food::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+            orders.add(order);
+        }
+        context.getBean(OrderRepository.class).saveAll(orders);
+
+        System.out.printf("%n%d orders: %d bytes%n", orderCount, listing().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listing() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderService.getOrderListByCustomerId(customerId));
+    }
+}
@@ -0,0 +1,106 @@
+package com.mblaszczykowski.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderLineRow;
+import com.mblaszczykowski.order.OrderList;
+import com.mblaszczykowski.order.OrderRow;
+import com.mblaszczykowski.restaurant.Restaurant;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A menu ({@code GET api/v1/food} returns a list of {@code Food}) and a compact order listing serialized as JSON,
+ * CBOR and Smile, each with and without gzip as the server compresses it. Payload sizes are printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"25", "500"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<Food> menu;
+    private OrderList orders;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+
+        List<Restaurant> restaurants = BenchmarkData.restaurants(true);
+        List<Food> foods = BenchmarkData.foods(restaurants, true);
+        menu = foods.subList(0, listSize);
+
+        List<OrderRow> rows = new ArrayList<>();
+        List<OrderLineRow> lines = new ArrayList<>();
+        LocalDateTime orderTime = LocalDateTime.of(2023, 5, 20, 18, 30);
+        for (int i = 1; i <= listSize; i++) {
+            List<Food> cart = BenchmarkData.cart(foods.subList(i % foods.size(), foods.size()), 5);
+            rows.add(new OrderRow(i, 1, cart.stream().map(Food::getPrice).reduce(BigDecimal.ZERO,
+                    BigDecimal::add), "ul. Nowa 5, 01-234 Warszawa", Order.DeliveryType.SHIPPING,
+                    orderTime.plusMinutes(i), i % 2 == 0, Order.OrderStatus.PROCESSING));
+            for (Food food : cart) {
+                lines.add(new OrderLineRow(i, food.getId(), food.getName(), food.getPrice(),
+                        food.getRestaurant().getId(), food.getRestaurant().getName()));
+            }
+        }
+        orders = OrderList.of(rows, lines);
+
+        System.out.printf("%n%s, %d items: menu %d bytes (gzip %d), orders %d bytes (gzip %d)%n", format, listSize,
+                menu().length, menuGzip().length, orders().length, ordersGzip().length);
+    }
+
+    @Benchmark
+    public byte[] menu() throws IOException {
+        return objectMapper.writeValueAsBytes(menu);
+    }
+
+    @Benchmark
+    public byte[] menuGzip() throws IOException {
+        return gzip(menu);
+    }
+
+    @Benchmark
+    public byte[] orders() throws IOException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] ordersGzip() throws IOException {
+        return gzip(orders);
+    }
+
+    // Tak jak Tomcat - strumień z domyślnym poziomem kompresji, bez pośredniej tablicy
+    private byte[] gzip(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, value);
+        }
+        return bytes.toByteArray();
+    }
+}
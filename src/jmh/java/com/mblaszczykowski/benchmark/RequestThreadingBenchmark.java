@@ -0,0 +1,59 @@
+package com.mblaszczykowski.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test over HTTP comparing {@code threading.mode=platform} with {@code threading.mode=virtual}.
+ * <p>
+ * 100 client threads request a page of orders from a server limited to 20 Tomcat threads, so in platform mode
+ * requests queue for a thread while in virtual mode they queue for a database connection. Against PostgreSQL
+ * (see {@link BenchmarkServer}) requests actually wait on I/O. The virtual mode needs a Java 21 runtime; on 17
+ * run it with {@code -p mode=platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(100)
+@Fork(1)
+public class RequestThreadingBenchmark {
+    private static final int TOMCAT_THREADS = 20;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest ordersPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkServer.start(
+                "--threading.mode=" + mode,
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS
+        );
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ordersPage = HttpRequest.newBuilder(BenchmarkServer.uri(context, "/api/v1/orders/page?size=20")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getOrdersPage() throws Exception {
+        HttpResponse<byte[]> response = client.send(ordersPage, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
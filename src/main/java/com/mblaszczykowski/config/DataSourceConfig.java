@@ -0,0 +1,103 @@
+package com.mblaszczykowski.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declares the JDBC data sources explicitly. Spring Boot skips its own as soon as an R2DBC connection factory
+ * exists, and the application needs both: JPA for writes and most reads, R2DBC for the reactive catalog reads.
+ * <p>
+ * {@code dataSource} is the pool of the primary database. JPA and everything else that asks for a
+ * {@link DataSource} get {@code routingDataSource}, which sends read-only transactions to the replicas listed
+ * in {@code replicas.urls} (see {@link ReplicaRoutingDataSource}); without replicas it only ever uses the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource dataSource, Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = binder.bind("replicas.urls", Bindable.listOf(String.class)).orElse(List.of());
+        List<ReplicaRoute> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.add(new ReplicaRoute(name, replicaPool(dataSource, name, urls.get(i), binder)));
+        }
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(dataSource, replicas,
+                binder.bind("replicas.max-lag", Duration.class).orElse(Duration.ofSeconds(5)),
+                binder.bind("replicas.lag-query", String.class).orElse(ReplicaRoutingDataSource.DEFAULT_LAG_QUERY));
+        routingDataSource.start(binder.bind("replicas.health-check-interval", Duration.class).orElse(Duration.ofSeconds(5)));
+        return routingDataSource;
+    }
+
+    // Połączenie pobierane dopiero przy pierwszym zapytaniu, gdy wiadomo już, czy transakcja jest tylko do odczytu
+    @Bean
+    @Primary
+    public DataSource routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return () -> {
+            // Odczyty wracają do primary, więc niedostępna replika nie wyłącza aplikacji
+            Health.Builder health = Health.up();
+            for (ReplicaRoute replica : replicaRoutingDataSource.getReplicas()) {
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("state", replica.getState());
+                details.put("lagSeconds", replica.getLagSeconds());
+                if (replica.getLastError() != null) {
+                    details.put("error", replica.getLastError());
+                }
+                health.withDetail(replica.getName(), details);
+            }
+            return health.build();
+        };
+    }
+
+    // Ustawienia puli jak dla primary (już po DatabasePoolSizing), inny adres i nazwa
+    private static HikariDataSource replicaPool(HikariDataSource primary, String name, String url, Binder binder) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        binder.bind("replicas.username", String.class).ifBound(config::setUsername);
+        binder.bind("replicas.password", String.class).ifBound(config::setPassword);
+        // Niedostępna replika nie blokuje startu, tylko nie wchodzi do rotacji
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
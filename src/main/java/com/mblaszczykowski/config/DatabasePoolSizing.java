@@ -0,0 +1,89 @@
+package com.mblaszczykowski.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Sizes the Hikari pool to match {@code threading.mode}; explicit {@code spring.datasource.hikari.*} settings win.
+ * <p>
+ * The pool gets {@code threading.db-pool.size} connections, in the virtual mode by default {@code 2 * cores + 1} -
+ * past that the database mostly switches between connections instead of doing more work - but never fewer than
+ * Hikari's default of 10, because order streams and the outbox dispatcher hold connections for long and on a small
+ * machine would leave almost none for requests. With platform threads and no {@code threading.db-pool.size}
+ * Hikari keeps that default; a configured size is capped at Tomcat's thread pool, because no more requests than
+ * that can ask for a connection at once.
+ * With virtual threads any number of requests can queue for a connection, so the wait is cut to
+ * {@code threading.db-pool.acquire-timeout} and a burst fails fast instead of piling up for Hikari's 30 seconds.
+ */
+public class DatabasePoolSizing implements BeanPostProcessor {
+    private static final String POOL_SIZE_PROPERTY = "threading.db-pool.size";
+    private static final String HIKARI_POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+    private static final String HIKARI_TIMEOUT_PROPERTY = "spring.datasource.hikari.connection-timeout";
+    private static final int DEFAULT_TOMCAT_MAX_THREADS = 200;
+    private static final int MIN_DEFAULT_POOL_SIZE = 10;
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Integer maximumPoolSize;
+    private final Duration connectionTimeout;
+
+    DatabasePoolSizing(Integer maximumPoolSize, Duration connectionTimeout) {
+        this.maximumPoolSize = maximumPoolSize;
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    static DatabasePoolSizing from(Environment environment) {
+        String mode = environment.getProperty(ThreadingConfig.MODE_PROPERTY, "platform");
+        if (!mode.equalsIgnoreCase("platform") && !mode.equalsIgnoreCase(ThreadingConfig.VIRTUAL)) {
+            throw new IllegalArgumentException("%s must be platform or virtual, got [%s]"
+                    .formatted(ThreadingConfig.MODE_PROPERTY, mode));
+        }
+        boolean virtual = mode.equalsIgnoreCase(ThreadingConfig.VIRTUAL);
+
+        Integer maximumPoolSize = null;
+        boolean sizeConfigured = environment.containsProperty(POOL_SIZE_PROPERTY);
+        if (!environment.containsProperty(HIKARI_POOL_SIZE_PROPERTY) && (virtual || sizeConfigured)) {
+            maximumPoolSize = poolSize(virtual,
+                    Runtime.getRuntime().availableProcessors(),
+                    environment.getProperty("server.tomcat.threads.max", Integer.class, DEFAULT_TOMCAT_MAX_THREADS),
+                    environment.getProperty(POOL_SIZE_PROPERTY, Integer.class, 0));
+        }
+
+        Duration connectionTimeout = null;
+        if (virtual && !environment.containsProperty(HIKARI_TIMEOUT_PROPERTY)) {
+            String acquireTimeout = environment.getProperty("threading.db-pool.acquire-timeout");
+            connectionTimeout = acquireTimeout == null ? DEFAULT_ACQUIRE_TIMEOUT : DurationStyle.detectAndParse(acquireTimeout);
+        }
+        return new DatabasePoolSizing(maximumPoolSize, connectionTimeout);
+    }
+
+    static int poolSize(boolean virtual, int cores, int tomcatMaxThreads, int configuredSize) {
+        int size = configuredSize > 0 ? configuredSize : Math.max(MIN_DEFAULT_POOL_SIZE, 2 * cores + 1);
+        return virtual ? size : Math.min(size, tomcatMaxThreads);
+    }
+
+    Integer getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    // Po związaniu spring.datasource.hikari.*, ale zanim pula otworzy pierwsze połączenie
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            if (maximumPoolSize != null) {
+                dataSource.setMaximumPoolSize(maximumPoolSize);
+            }
+            if (connectionTimeout != null) {
+                dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+            }
+        }
+        return bean;
+    }
+}
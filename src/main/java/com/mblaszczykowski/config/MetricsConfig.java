@@ -0,0 +1,120 @@
+package com.mblaszczykowski.config;
+
+import com.mblaszczykowski.food.MenuCache;
+import com.mblaszczykowski.order.OrderEventStream;
+import com.mblaszczykowski.order.OrderService;
+import com.mblaszczykowski.outbox.OutboxDAO;
+import com.mblaszczykowski.outbox.OutboxDispatcher;
+import com.mblaszczykowski.payment.PaymentIdempotencyService;
+import com.mblaszczykowski.restaurant.DistrictCache;
+import com.mblaszczykowski.search.AutocompleteIndex;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    // Obsługuje @Timed na klasach *JPADataAccessService
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder menuCacheMetrics(MenuCache menuCache) {
+        return registry -> {
+            FunctionCounter.builder("menu.cache.hits", menuCache, cache -> cache.stats().hits()).register(registry);
+            FunctionCounter.builder("menu.cache.misses", menuCache, cache -> cache.stats().misses()).register(registry);
+            FunctionCounter.builder("menu.cache.evictions", menuCache, cache -> cache.stats().evictions()).register(registry);
+            Gauge.builder("menu.cache.size", menuCache, cache -> cache.stats().size()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder districtCacheMetrics(DistrictCache districtCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, districtCache.nativeCache(), "restaurant.district");
+    }
+
+    // Rozmiar liczony przejściem po drzewie - tylko przy odczycie metryk
+    @Bean
+    public MeterBinder autocompleteIndexMetrics(AutocompleteIndex autocompleteIndex) {
+        return registry -> {
+            Gauge.builder("autocomplete.index.entries", autocompleteIndex, index -> index.stats().entries()).register(registry);
+            Gauge.builder("autocomplete.index.size", autocompleteIndex, index -> index.stats().estimatedBytes())
+                    .baseUnit("bytes").register(registry);
+            Gauge.builder("autocomplete.index.entry.size", autocompleteIndex, index -> index.stats().estimatedBytesPerEntry())
+                    .baseUnit("bytes").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRoutingDataSource routingDataSource) {
+        return registry -> {
+            FunctionCounter.builder("datasource.route.connections", routingDataSource,
+                    ReplicaRoutingDataSource::getPrimaryConnections).tag("route", "primary").register(registry);
+            FunctionCounter.builder("datasource.route.fallbacks", routingDataSource,
+                    ReplicaRoutingDataSource::getPrimaryFallbacks).register(registry);
+            for (ReplicaRoute replica : routingDataSource.getReplicas()) {
+                FunctionCounter.builder("datasource.route.connections", replica, ReplicaRoute::getConnections)
+                        .tag("route", replica.getName()).register(registry);
+                Gauge.builder("datasource.replica.up", replica, route -> route.isUp() ? 1 : 0)
+                        .tag("route", replica.getName()).register(registry);
+                Gauge.builder("datasource.replica.lag", replica, ReplicaRoute::getLagSeconds)
+                        .tag("route", replica.getName()).baseUnit("seconds").register(registry);
+            }
+        };
+    }
+
+    // Zaległe zdarzenia liczone zapytaniem przy każdym odczycie metryk
+    @Bean
+    public MeterBinder outboxMetrics(OutboxDispatcher outboxDispatcher, @Qualifier("outbox-jpa") OutboxDAO outboxDAO) {
+        return registry -> {
+            FunctionCounter.builder("outbox.published", outboxDispatcher, OutboxDispatcher::getPublished).register(registry);
+            FunctionCounter.builder("outbox.failed.batches", outboxDispatcher, OutboxDispatcher::getFailedBatches)
+                    .register(registry);
+            Gauge.builder("outbox.pending", outboxDAO, OutboxDAO::countPending).register(registry);
+        };
+    }
+
+    // Konflikty = warunkowe UPDATE-y statusu, które nie trafiły, bo status zmienił się w międzyczasie
+    @Bean
+    public MeterBinder orderStatusMetrics(OrderService orderService) {
+        return registry -> {
+            FunctionCounter.builder("orders.status.changes", orderService, OrderService::getStatusChanges)
+                    .register(registry);
+            FunctionCounter.builder("orders.status.conflicts", orderService, OrderService::getStatusConflicts)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder orderStreamMetrics(OrderEventStream orderEventStream) {
+        return registry -> {
+            Gauge.builder("orders.stream.subscribers", orderEventStream, OrderEventStream::getSubscribers).register(registry);
+            FunctionCounter.builder("orders.stream.events.sent", orderEventStream, OrderEventStream::getSent)
+                    .register(registry);
+            FunctionCounter.builder("orders.stream.events.dropped", orderEventStream, OrderEventStream::getDropped)
+                    .register(registry);
+            FunctionCounter.builder("orders.stream.evicted", orderEventStream, OrderEventStream::getEvicted)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder paymentIdempotencyMetrics(PaymentIdempotencyService idempotencyService) {
+        return registry -> {
+            FunctionCounter.builder("payments.idempotency.replays", idempotencyService,
+                    PaymentIdempotencyService::getMemoryReplays).tag("source", "memory").register(registry);
+            FunctionCounter.builder("payments.idempotency.replays", idempotencyService,
+                    PaymentIdempotencyService::getDatabaseReplays).tag("source", "database").register(registry);
+            Gauge.builder("payments.idempotency.keys", idempotencyService, PaymentIdempotencyService::getKeys)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.mblaszczykowski.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One read replica together with its last known health, as seen by {@link ReplicaRoutingDataSource}.
+ */
+public class ReplicaRoute {
+    public enum State {
+        UP, LAGGING, DOWN
+    }
+
+    private final String name;
+    private final DataSource dataSource;
+    private final LongAdder connections = new LongAdder();
+
+    // Do pierwszego sprawdzenia replika nie dostaje odczytów
+    private volatile State state = State.DOWN;
+    private volatile double lagSeconds;
+    private volatile String lastError = "not checked yet";
+
+    public ReplicaRoute(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    Connection getConnection(ReplicaRoutingDataSource.ConnectionOpener opener) throws SQLException {
+        Connection connection = opener.open(dataSource);
+        connections.increment();
+        return connection;
+    }
+
+    void markUp(double lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.lastError = null;
+        this.state = State.UP;
+    }
+
+    void markLagging(double lagSeconds, String reason) {
+        this.lagSeconds = lagSeconds;
+        this.lastError = reason;
+        this.state = State.LAGGING;
+    }
+
+    void markDown(Exception cause) {
+        this.lastError = cause.getMessage();
+        this.state = State.DOWN;
+    }
+
+    public boolean isUp() {
+        return state == State.UP;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getConnections() {
+        return connections.sum();
+    }
+}
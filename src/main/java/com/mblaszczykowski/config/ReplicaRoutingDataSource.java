@@ -0,0 +1,179 @@
+package com.mblaszczykowski.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections for read-only transactions from the read replicas, round robin, and every other
+ * connection from the primary.
+ * <p>
+ * A replica takes reads only while its last health check passed and its replay lag was within {@code maxLag};
+ * a replica that refuses a connection leaves the rotation until the next check. Once a request has used the
+ * primary in a read-write transaction, its later reads stay on the primary too, so it sees its own writes. With
+ * no replica up all reads go to the primary. The decision needs the transaction's read-only flag, so the data
+ * source has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    // 0, gdy replika odtworzyła już wszystko, co otrzymała - bezczynny primary nie wygląda wtedy na opóźnienie
+    public static final String DEFAULT_LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END""";
+    static final String WROTE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".WROTE";
+
+    private final DataSource primary;
+    private final List<ReplicaRoute> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaRoute> replicas, Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    // Jak DataSource::getConnection, tylko dla trasy wybranej dla bieżącej transakcji
+    @FunctionalInterface
+    interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!replicas.isEmpty() && !wroteInCurrentRequest()) {
+                Connection connection = replicaConnection(opener);
+                if (connection != null) {
+                    return connection;
+                }
+                primaryFallbacks.increment();
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            markWriteInCurrentRequest();
+        }
+        primaryConnections.increment();
+        return opener.open(primary);
+    }
+
+    private Connection replicaConnection(ConnectionOpener opener) {
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaRoute replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isUp()) {
+                continue;
+            }
+            try {
+                return replica.getConnection(opener);
+            } catch (SQLException e) {
+                // Wraca do rotacji dopiero po udanym sprawdzeniu
+                replica.markDown(e);
+            }
+        }
+        return null;
+    }
+
+    private static boolean wroteInCurrentRequest() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null && request.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private static void markWriteInCurrentRequest() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public void checkHealth() {
+        for (ReplicaRoute replica : replicas) {
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, maxLag.toSeconds()));
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    resultSet.next();
+                    double lagSeconds = resultSet.getDouble(1);
+                    if (lagSeconds * 1000 > maxLag.toMillis()) {
+                        replica.markLagging(lagSeconds, "Replay lag %.1fs is over %s".formatted(lagSeconds, maxLag));
+                    } else {
+                        replica.markUp(lagSeconds);
+                    }
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    public synchronized void start(Duration interval) {
+        checkHealth();
+        if (replicas.isEmpty() || healthChecks != null) {
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+            healthChecks = null;
+        }
+        for (ReplicaRoute replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close replica " + replica.getName(), e);
+                }
+            }
+        }
+    }
+
+    public List<ReplicaRoute> getReplicas() {
+        return replicas;
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public long getPrimaryFallbacks() {
+        return primaryFallbacks.sum();
+    }
+}
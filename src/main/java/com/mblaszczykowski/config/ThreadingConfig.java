@@ -0,0 +1,75 @@
+package com.mblaszczykowski.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Chooses the threads that serve HTTP requests and run application tasks.
+ * <p>
+ * With {@code threading.mode=platform} (the default) Tomcat keeps its pool of {@code server.tomcat.threads.max}
+ * threads. With {@code threading.mode=virtual} every request and task gets its own virtual thread, so a burst
+ * of requests waiting on the database no longer exhausts the pool; the Hikari pool, sized by
+ * {@link DatabasePoolSizing}, becomes the limit on concurrent database work instead. Virtual threads need
+ * Java 21 at runtime, the application still builds on 17.
+ */
+@Configuration
+public class ThreadingConfig {
+    static final String MODE_PROPERTY = "threading.mode";
+    static final String VIRTUAL = "virtual";
+
+    // Statyczny, bo BeanPostProcessor musi powstać przed pozostałymi beanami
+    @Bean
+    public static DatabasePoolSizing databasePoolSizing(Environment environment) {
+        return DatabasePoolSizing.from(environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    // Zastępuje domyślny ThreadPoolTaskExecutor (zadania asynchroniczne, asynchroniczne żądania MVC)
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Przez refleksję, bo projekt kompiluje się na Javie 17
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualThreadSupported()) {
+            throw new IllegalStateException("%s=%s requires Java 21 or newer, running on %s"
+                    .formatted(MODE_PROPERTY, VIRTUAL, Runtime.version()));
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.mblaszczykowski.customer;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.util.Objects;
 
 @Entity
@@ -31,6 +34,11 @@ public class Customer {
     @Column(name = "phoneNumber", nullable = false)
     private String phoneNumber;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Customer() {
     }
 
@@ -86,6 +94,11 @@ public class Customer {
         this.phoneNumber = phoneNumber;
     }
 
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
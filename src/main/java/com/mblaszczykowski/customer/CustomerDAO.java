@@ -1,5 +1,6 @@
 package com.mblaszczykowski.customer;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,5 +21,7 @@ public interface CustomerDAO {
 
     Optional<Customer> getById(Integer customerId);
 
+    List<Customer> getByIds(Collection<Integer> customerIds);
+
     boolean existsById(Integer customerId);
 }
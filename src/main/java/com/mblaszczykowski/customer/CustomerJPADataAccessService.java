@@ -1,10 +1,14 @@
 package com.mblaszczykowski.customer;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository
 public class CustomerJPADataAccessService implements CustomerDAO {
     private final CustomerRepository customerRepository;
@@ -14,6 +18,7 @@ public class CustomerJPADataAccessService implements CustomerDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll();
     }
@@ -24,16 +29,19 @@ public class CustomerJPADataAccessService implements CustomerDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> getCustomerById(Integer id) {
         return customerRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> getCustomerByEmail(String email) {
         return customerRepository.findByEmail(email);
     }
 
     @Override
+    @Transactional
     public boolean existsCustomerWithEmail(String email) {
         return customerRepository.existsByEmail(email);
     }
@@ -45,15 +53,24 @@ public class CustomerJPADataAccessService implements CustomerDAO {
 
     @Override
     public void updateCustomer(Customer customer) {
-        customerRepository.save(customer);
+        // Od razu, żeby konflikt wersji wyszedł w serwisie, a nie dopiero przy commicie
+        customerRepository.saveAndFlush(customer);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> getById(Integer customerId) {
         return customerRepository.findById(customerId);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Customer> getByIds(Collection<Integer> customerIds) {
+        return customerRepository.findAllById(customerIds);
+    }
+
+    @Override
+    @Transactional
     public boolean existsById(Integer customerId) {
         return customerRepository.existsById(customerId);
     }
@@ -2,9 +2,12 @@ package com.mblaszczykowski.customer;
 
 import com.mblaszczykowski.exception.DuplicateResourceException;
 import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.regex.Pattern;
@@ -42,6 +45,7 @@ public class CustomerService {
         }
     }
 
+    @Transactional
     public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
         if (customerRegistrationRequest.firstname() == null || customerRegistrationRequest.lastname() == null || customerRegistrationRequest.email() == null) {
             throw new NotValidResourceException("Missing data");
@@ -58,6 +62,7 @@ public class CustomerService {
         customerDAO.addCustomer(customer);
     }
 
+    @Transactional
     public void deleteCustomer(Integer id) {
         Customer customer = customerDAO.getCustomerById(id)
                 .orElseThrow(() ->
@@ -73,6 +78,7 @@ public class CustomerService {
                 .matches();
     }
 
+    @Transactional
     public void updateCustomer(Integer id, CustomerUpdateRequest customerUpdateRequest) {
         Customer customer = customerDAO.getCustomerById(id)
                 .orElseThrow(() ->
@@ -108,6 +114,10 @@ public class CustomerService {
             customer.setPhoneNumber(phoneNumber);
         }
 
-        customerDAO.updateCustomer(customer);
+        try {
+            customerDAO.updateCustomer(customer);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResourceConflictException("Customer with id [%s] was changed by another request".formatted(id));
+        }
     }
 }
@@ -1,13 +1,19 @@
 package com.mblaszczykowski.food;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mblaszczykowski.restaurant.Restaurant;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
-@Table(name = "food")
+@Table(name = "food", indexes = {
+        @Index(name = "food_vegetarian_category_idx", columnList = "is_vegetarian, category"),
+        @Index(name = "food_vegetarian_price_idx", columnList = "is_vegetarian, price"),
+        @Index(name = "food_restaurant_category_price_idx", columnList = "restaurant_id, category, price")
+})
 public class Food {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +39,11 @@ public class Food {
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Food() {
     }
 
@@ -101,6 +112,11 @@ public class Food {
         this.restaurant = restaurant;
     }
 
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "Food{" +
@@ -0,0 +1,148 @@
+package com.mblaszczykowski.food;
+
+import com.mblaszczykowski.web.ETagged;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Repository("food-cache")
+public class FoodCachingDataAccessService implements FoodDAO {
+    private final FoodDAO foodDAO;
+    private final MenuCache menuCache;
+
+    public FoodCachingDataAccessService(@Qualifier("food-jpa") FoodDAO foodDAO, MenuCache menuCache) {
+        this.foodDAO = foodDAO;
+        this.menuCache = menuCache;
+    }
+
+    @Override
+    public List<Food> getAllFood() {
+        return menuCache.get(MenuCache.Key.ALL, foodDAO::getAllFood);
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedAllFood(Supplier<String> eTag) {
+        return menuCache.getETagged(MenuCache.Key.ALL, () -> foodDAO.getETaggedAllFood(eTag));
+    }
+
+    @Override
+    public Optional<Food> getFoodById(Integer id) {
+        return foodDAO.getFoodById(id);
+    }
+
+    @Override
+    public Optional<FoodVersion> getVersion(Integer id) {
+        return foodDAO.getVersion(id);
+    }
+
+    @Override
+    public List<Food> getFoodByCategory(String category) {
+        return menuCache.get(MenuCache.Key.category(category), () -> foodDAO.getFoodByCategory(category));
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedFoodByCategory(String category, Supplier<String> eTag) {
+        return menuCache.getETagged(MenuCache.Key.category(category),
+                () -> foodDAO.getETaggedFoodByCategory(category, eTag));
+    }
+
+    @Override
+    public List<Food> getVegetarianFood() {
+        return foodDAO.getVegetarianFood();
+    }
+
+    @Override
+    public List<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return foodDAO.getVegetarianFood(category, minPrice, maxPrice);
+    }
+
+    @Override
+    public void addFood(Food food) {
+        foodDAO.addFood(food);
+        invalidateAfterCommit(food);
+    }
+
+    @Override
+    public void updateFood(Food food) {
+        foodDAO.updateFood(food);
+        invalidateAfterCommit(food);
+    }
+
+    @Override
+    public void deleteFood(Food food) {
+        foodDAO.deleteFood(food);
+        invalidateAfterCommit(food);
+    }
+
+    @Override
+    public List<Food> findByRestaurantID(Integer restaurantID) {
+        return getFoodByRestaurantID(restaurantID);
+    }
+
+    @Override
+    public List<Food> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return foodDAO.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Food> findByName(String name) {
+        return foodDAO.findByName(name);
+    }
+
+    @Override
+    public List<Food> getFoodByRestaurantID(Integer restaurantID) {
+        return menuCache.get(MenuCache.Key.restaurant(restaurantID), () -> foodDAO.getFoodByRestaurantID(restaurantID));
+    }
+
+    @Override
+    public ETagged<List<Food>> getETaggedFoodByRestaurantID(Integer restaurantID, Supplier<String> eTag) {
+        return menuCache.getETagged(MenuCache.Key.restaurant(restaurantID),
+                () -> foodDAO.getETaggedFoodByRestaurantID(restaurantID, eTag));
+    }
+
+    @Override
+    public List<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return foodDAO.getFoodByPriceRange(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Food> getFoodByName(String name) {
+        return foodDAO.getFoodByName(name);
+    }
+
+    @Override
+    public Optional<Food> getById(Integer foodId) {
+        return foodDAO.getById(foodId);
+    }
+
+    @Override
+    public List<Food> getByIds(Collection<Integer> foodIds) {
+        return foodDAO.getByIds(foodIds);
+    }
+
+    @Override
+    public List<Food> searchFood(FoodSearchRequest request, FoodSearchCursor after, int limit) {
+        return foodDAO.searchFood(request, after, limit);
+    }
+
+    // Po commicie - wyczyszczona wcześniej lista mogłaby od razu wypełnić się menu sprzed zmiany na całe TTL
+    private void invalidateAfterCommit(Food food) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            menuCache.invalidate(food);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                menuCache.invalidate(food);
+            }
+        });
+    }
+}
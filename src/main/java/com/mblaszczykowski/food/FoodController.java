@@ -1,5 +1,9 @@
 package com.mblaszczykowski.food;
 
+import com.mblaszczykowski.web.ETags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -15,13 +19,31 @@ public class FoodController {
     }
 
     @GetMapping
-    public List<Food> getAllFood() {
-        return foodService.getAllFood();
+    public ResponseEntity<List<Food>> getAllFood(HttpServletRequest request) {
+        return ETags.get(request, foodService::getCatalogETag, foodService::getETaggedAllFood);
+    }
+
+    @GetMapping("search")
+    public FoodPage searchFood(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "restaurantId", required = false) Integer restaurantId,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "vegetarian", required = false) Boolean vegetarian,
+            @RequestParam(value = "sortBy", defaultValue = "ID") FoodSearchRequest.SortBy sortBy,
+            @RequestParam(value = "direction", defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return foodService.searchFood(new FoodSearchRequest(
+                name, category, restaurantId, minPrice, maxPrice, vegetarian, sortBy, direction, cursor, size
+        ));
     }
 
     @GetMapping("{id}")
-    public Food getFood(@PathVariable("id") Integer id) {
-        return foodService.getFoodById(id);
+    public ResponseEntity<Food> getFood(@PathVariable("id") Integer id, HttpServletRequest request) {
+        return ETags.get(request, () -> foodService.getFoodETag(id), () -> foodService.getETaggedFood(id));
     }
 
     @GetMapping("name/{name}")
@@ -30,8 +52,10 @@ public class FoodController {
     }
 
     @GetMapping("restaurant/{restaurantID}")
-    public List<Food> getFoodByRestaurant(@PathVariable("restaurantID") Integer restaurantID) {
-        return foodService.getFoodByRestaurantID(restaurantID);
+    public ResponseEntity<List<Food>> getFoodByRestaurant(@PathVariable("restaurantID") Integer restaurantID,
+                                                          HttpServletRequest request) {
+        return ETags.get(request, () -> foodService.getMenuETag(restaurantID),
+                () -> foodService.getETaggedFoodByRestaurantID(restaurantID));
     }
 
     @GetMapping("price-range")
@@ -43,13 +67,18 @@ public class FoodController {
     }
 
     @GetMapping("category/{category}")
-    public List<Food> getFoodByCategory(@PathVariable("category") String category) {
-        return foodService.getFoodByCategory(category);
+    public ResponseEntity<List<Food>> getFoodByCategory(@PathVariable("category") String category,
+                                                        HttpServletRequest request) {
+        return ETags.get(request, foodService::getCatalogETag, () -> foodService.getETaggedFoodByCategory(category));
     }
 
     @GetMapping("type/vegetarian")
-    public List<Food> getVegetarianFood() {
-        return foodService.getVegetarianFood();
+    public List<Food> getVegetarianFood(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice
+    ) {
+        return foodService.getVegetarianFood(category, minPrice, maxPrice);
     }
 
     @PostMapping
@@ -1,18 +1,30 @@
 package com.mblaszczykowski.food;
 
+import com.mblaszczykowski.web.ETagged;
+
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public interface FoodDAO {
     List<Food> getAllFood();
 
+    ETagged<List<Food>> getETaggedAllFood(Supplier<String> eTag);
+
     Optional<Food> getFoodById(Integer id);
 
+    Optional<FoodVersion> getVersion(Integer id);
+
     List<Food> getFoodByCategory(String category);
 
+    ETagged<List<Food>> getETaggedFoodByCategory(String category, Supplier<String> eTag);
+
     List<Food> getVegetarianFood();
 
+    List<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice);
+
     void addFood(Food food);
 
     void updateFood(Food food);
@@ -27,10 +39,16 @@ public interface FoodDAO {
 
     List<Food> getFoodByRestaurantID(Integer restaurantID);
 
+    ETagged<List<Food>> getETaggedFoodByRestaurantID(Integer restaurantID, Supplier<String> eTag);
+
     List<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
 
     List<Food> getFoodByName(String name);
 
     Optional<Food> getById(Integer foodId);
 
+    List<Food> getByIds(Collection<Integer> foodIds);
+
+    List<Food> searchFood(FoodSearchRequest request, FoodSearchCursor after, int limit);
+
 }
\ No newline at end of file
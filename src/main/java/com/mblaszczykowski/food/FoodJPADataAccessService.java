@@ -1,12 +1,18 @@
 package com.mblaszczykowski.food;
 
+import com.mblaszczykowski.web.ETagged;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository("food-jpa")
 public class FoodJPADataAccessService implements FoodDAO {
     private final FoodRepository foodRepository;
@@ -16,25 +22,62 @@ public class FoodJPADataAccessService implements FoodDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> getAllFood() {
         return foodRepository.findAll();
     }
 
+    // Wersja przed listą i w tej samej transakcji - lista nie jest starsza od wersji
     @Override
+    @Transactional(readOnly = true)
+    public ETagged<List<Food>> getETaggedAllFood(Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getAllFood());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Food> getFoodById(Integer id) {
         return foodRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<FoodVersion> getVersion(Integer id) {
+        return foodRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Food> getFoodByCategory(String category) {
         return foodRepository.findByCategory(category);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ETagged<List<Food>> getETaggedFoodByCategory(String category, Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getFoodByCategory(category));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Food> getVegetarianFood() {
-        return foodRepository.findAll().stream()
-                .filter(Food::isVegetarian)
-                .collect(Collectors.toList());
+        return foodRepository.findByIsVegetarianTrue();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        boolean byPrice = minPrice != null && maxPrice != null;
+        if (category != null && byPrice) {
+            return foodRepository.findByIsVegetarianTrueAndCategoryAndPriceBetween(category, minPrice, maxPrice);
+        }
+        if (category != null) {
+            return foodRepository.findByIsVegetarianTrueAndCategory(category);
+        }
+        if (byPrice) {
+            return foodRepository.findByIsVegetarianTrueAndPriceBetween(minPrice, maxPrice);
+        }
+        return foodRepository.findByIsVegetarianTrue();
     }
 
     @Override
@@ -44,7 +87,8 @@ public class FoodJPADataAccessService implements FoodDAO {
 
     @Override
     public void updateFood(Food food) {
-        foodRepository.save(food);
+        // Od razu, żeby konflikt wersji wyszedł w serwisie, a nie dopiero przy commicie
+        foodRepository.saveAndFlush(food);
     }
 
     @Override
@@ -53,40 +97,65 @@ public class FoodJPADataAccessService implements FoodDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> findByRestaurantID(Integer restaurantID) {
         return foodRepository.findByRestaurantId(restaurantID);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
         return foodRepository.findByPriceBetween(minPrice, maxPrice);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> findByName(String name) {
         return foodRepository.findByName(name);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> getFoodByRestaurantID(Integer restaurantID) {
         return foodRepository.findByRestaurantId(restaurantID);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ETagged<List<Food>> getETaggedFoodByRestaurantID(Integer restaurantID, Supplier<String> eTag) {
+        return new ETagged<>(eTag.get(), getFoodByRestaurantID(restaurantID));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         return foodRepository.findByPriceBetween(minPrice, maxPrice);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Food> getFoodByName(String name) {
         return foodRepository.findByName(name);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Food> getById(Integer foodId) {
         return foodRepository.findById(foodId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Food> getByIds(Collection<Integer> foodIds) {
+        return foodRepository.findByIdIn(foodIds);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Food> searchFood(FoodSearchRequest request, FoodSearchCursor after, int limit) {
+        Specification<Food> specification = FoodSpecifications.matching(request)
+                .and(FoodSpecifications.after(after, request.sortBy(), request.direction()));
+        return foodRepository.search(specification, request.sortBy(), request.direction(), limit);
+    }
 }
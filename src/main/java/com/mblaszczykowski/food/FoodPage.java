@@ -0,0 +1,8 @@
+package com.mblaszczykowski.food;
+
+import java.util.List;
+
+public record FoodPage(
+        List<Food> foods, String nextCursor
+) {
+}
@@ -0,0 +1,107 @@
+package com.mblaszczykowski.food;
+
+import com.mblaszczykowski.restaurant.RestaurantR2dbcDataAccessService;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking reads of food over R2DBC. Each row carries its restaurant through a join, so the response has
+ * the same shape as the JPA endpoints without a query per restaurant.
+ */
+@Repository("food-r2dbc")
+public class FoodR2dbcDataAccessService implements FoodReactiveDAO {
+    private static final String SELECT_FOOD = """
+            SELECT f.id, f.name, f.description, f.category, f.price, f.is_vegetarian,
+            """ + RestaurantR2dbcDataAccessService.RESTAURANT_COLUMNS + """
+
+            FROM food f
+            JOIN restaurant r ON r.id = f.restaurant_id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public FoodR2dbcDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Food> getAllFood() {
+        return query(databaseClient.sql(SELECT_FOOD + "ORDER BY f.id"));
+    }
+
+    @Override
+    public Mono<Food> getFoodById(Integer id) {
+        return databaseClient.sql(SELECT_FOOD + "WHERE f.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> mapFood(row))
+                .one();
+    }
+
+    @Override
+    public Flux<Food> getFoodByName(String name) {
+        return query(databaseClient.sql(SELECT_FOOD + "WHERE f.name = :name ORDER BY f.id")
+                .bind("name", name));
+    }
+
+    @Override
+    public Flux<Food> getFoodByRestaurantID(Integer restaurantID) {
+        return query(databaseClient.sql(SELECT_FOOD + "WHERE f.restaurant_id = :restaurantId ORDER BY f.id")
+                .bind("restaurantId", restaurantID));
+    }
+
+    @Override
+    public Flux<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return query(databaseClient.sql(SELECT_FOOD + "WHERE f.price BETWEEN :minPrice AND :maxPrice ORDER BY f.id")
+                .bind("minPrice", minPrice)
+                .bind("maxPrice", maxPrice));
+    }
+
+    @Override
+    public Flux<Food> getFoodByCategory(String category) {
+        return query(databaseClient.sql(SELECT_FOOD + "WHERE f.category = :category ORDER BY f.id")
+                .bind("category", category));
+    }
+
+    @Override
+    public Flux<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        // Warunki w kolejności kolumn indeksów food_vegetarian_category_idx / food_vegetarian_price_idx
+        StringBuilder sql = new StringBuilder(SELECT_FOOD).append("WHERE f.is_vegetarian = TRUE ");
+        if (category != null) {
+            sql.append("AND f.category = :category ");
+        }
+        boolean byPrice = minPrice != null && maxPrice != null;
+        if (byPrice) {
+            sql.append("AND f.price BETWEEN :minPrice AND :maxPrice ");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.append("ORDER BY f.id").toString());
+        if (category != null) {
+            spec = spec.bind("category", category);
+        }
+        if (byPrice) {
+            spec = spec.bind("minPrice", minPrice).bind("maxPrice", maxPrice);
+        }
+        return query(spec);
+    }
+
+    private static Flux<Food> query(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map((row, metadata) -> mapFood(row)).all();
+    }
+
+    static Food mapFood(Readable row) {
+        Food food = new Food(
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("category", String.class),
+                row.get("price", BigDecimal.class),
+                Boolean.TRUE.equals(row.get("is_vegetarian", Boolean.class)),
+                RestaurantR2dbcDataAccessService.mapRestaurant(row)
+        );
+        food.setId(row.get("id", Integer.class));
+        return food;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mblaszczykowski.food;
+
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("api/v1/reactive/food")
+public class FoodReactiveController {
+    private final FoodReactiveService foodReactiveService;
+
+    public FoodReactiveController(FoodReactiveService foodReactiveService) {
+        this.foodReactiveService = foodReactiveService;
+    }
+
+    @GetMapping
+    public Flux<Food> getAllFood() {
+        return foodReactiveService.getAllFood();
+    }
+
+    @GetMapping("{id}")
+    public Mono<Food> getFood(@PathVariable("id") Integer id) {
+        return foodReactiveService.getFoodById(id);
+    }
+
+    @GetMapping("name/{name}")
+    public Flux<Food> getFoodByName(@PathVariable("name") String name) {
+        return foodReactiveService.getFoodByName(name);
+    }
+
+    @GetMapping("restaurant/{restaurantID}")
+    public Flux<Food> getFoodByRestaurant(@PathVariable("restaurantID") Integer restaurantID) {
+        return foodReactiveService.getFoodByRestaurantID(restaurantID);
+    }
+
+    @GetMapping("price-range")
+    public Flux<Food> getFoodByPriceRange(
+            @RequestParam("minPrice") BigDecimal minPrice,
+            @RequestParam("maxPrice") BigDecimal maxPrice
+    ) {
+        return foodReactiveService.getFoodByPriceRange(minPrice, maxPrice);
+    }
+
+    @GetMapping("category/{category}")
+    public Flux<Food> getFoodByCategory(@PathVariable("category") String category) {
+        return foodReactiveService.getFoodByCategory(category);
+    }
+
+    @GetMapping("type/vegetarian")
+    public Flux<Food> getVegetarianFood(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice
+    ) {
+        return foodReactiveService.getVegetarianFood(category, minPrice, maxPrice);
+    }
+}
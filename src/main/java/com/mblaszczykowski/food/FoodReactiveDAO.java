@@ -0,0 +1,22 @@
+package com.mblaszczykowski.food;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+public interface FoodReactiveDAO {
+    Flux<Food> getAllFood();
+
+    Mono<Food> getFoodById(Integer id);
+
+    Flux<Food> getFoodByName(String name);
+
+    Flux<Food> getFoodByRestaurantID(Integer restaurantID);
+
+    Flux<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+
+    Flux<Food> getFoodByCategory(String category);
+
+    Flux<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice);
+}
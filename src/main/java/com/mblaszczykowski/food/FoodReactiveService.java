@@ -0,0 +1,52 @@
+package com.mblaszczykowski.food;
+
+import com.mblaszczykowski.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@Service
+public class FoodReactiveService {
+    private final FoodReactiveDAO foodReactiveDAO;
+
+    public FoodReactiveService(@Qualifier("food-r2dbc") FoodReactiveDAO foodReactiveDAO) {
+        this.foodReactiveDAO = foodReactiveDAO;
+    }
+
+    public Flux<Food> getAllFood() {
+        return foodReactiveDAO.getAllFood();
+    }
+
+    public Mono<Food> getFoodById(Integer id) {
+        return foodReactiveDAO.getFoodById(id)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("Food with id [%s] not found".formatted(id))
+                ));
+    }
+
+    public Flux<Food> getFoodByName(String name) {
+        return foodReactiveDAO.getFoodByName(name);
+    }
+
+    public Flux<Food> getFoodByRestaurantID(Integer restaurantID) {
+        return foodReactiveDAO.getFoodByRestaurantID(restaurantID);
+    }
+
+    public Flux<Food> getFoodByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return foodReactiveDAO.getFoodByPriceRange(minPrice, maxPrice);
+    }
+
+    public Flux<Food> getFoodByCategory(String category) {
+        return foodReactiveDAO.getFoodByCategory(category);
+    }
+
+    public Flux<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        return Flux.defer(() -> {
+            FoodService.validateVegetarianPriceFilter(minPrice, maxPrice);
+            return foodReactiveDAO.getVegetarianFood(category, minPrice, maxPrice);
+        });
+    }
+}
@@ -1,12 +1,16 @@
 package com.mblaszczykowski.food;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface FoodRepository extends JpaRepository<Food, Integer> {
+public interface FoodRepository extends JpaRepository<Food, Integer>, FoodSearchRepository {
     List<Food> findByCategory(String category);
 
     List<Food> findByRestaurantId(Integer restaurantID);
@@ -15,4 +19,22 @@ public interface FoodRepository extends JpaRepository<Food, Integer> {
 
     List<Food> findByName(String name);
 
+    @EntityGraph(attributePaths = "restaurant")
+    List<Food> findByIdIn(Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = "restaurant")
+    List<Food> findByIsVegetarianTrue();
+
+    @EntityGraph(attributePaths = "restaurant")
+    List<Food> findByIsVegetarianTrueAndCategory(String category);
+
+    @EntityGraph(attributePaths = "restaurant")
+    List<Food> findByIsVegetarianTrueAndPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
+    @EntityGraph(attributePaths = "restaurant")
+    List<Food> findByIsVegetarianTrueAndCategoryAndPriceBetween(String category, BigDecimal minPrice, BigDecimal maxPrice);
+
+    @Query("SELECT new com.mblaszczykowski.food.FoodVersion(f.version, r.version) FROM Food f JOIN f.restaurant r WHERE f.id = :id")
+    Optional<FoodVersion> findVersionById(@Param("id") Integer id);
+
 }
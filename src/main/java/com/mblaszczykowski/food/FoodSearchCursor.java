@@ -0,0 +1,47 @@
+package com.mblaszczykowski.food;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last returned row: the value of the sort column and the id that breaks ties.
+ * Sent to clients as an opaque Base64 string.
+ */
+public record FoodSearchCursor(String value, Integer id) {
+    private static final String SEPARATOR = "\n";
+
+    public static FoodSearchCursor of(Food food, FoodSearchRequest.SortBy sortBy) {
+        String value = switch (sortBy) {
+            case ID -> "";
+            case PRICE -> food.getPrice().toPlainString();
+            case NAME -> food.getName();
+        };
+        return new FoodSearchCursor(value, food.getId());
+    }
+
+    public static FoodSearchCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new FoodSearchCursor(decoded.substring(0, separator), Integer.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new NotValidResourceException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((value + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BigDecimal priceValue() {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new NotValidResourceException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.mblaszczykowski.food;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface FoodSearchRepository {
+    List<Food> search(Specification<Food> specification, FoodSearchRequest.SortBy sortBy, Sort.Direction direction, int limit);
+}
@@ -0,0 +1,49 @@
+package com.mblaszczykowski.food;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class FoodSearchRepositoryImpl implements FoodSearchRepository {
+    private final EntityManager entityManager;
+
+    public FoodSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Food> search(Specification<Food> specification, FoodSearchRequest.SortBy sortBy, Sort.Direction direction, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Food> query = cb.createQuery(Food.class);
+        Root<Food> food = query.from(Food.class);
+        food.fetch("restaurant");
+
+        Predicate predicate = specification.toPredicate(food, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Path<Object> id = food.get("id");
+        query.orderBy(switch (sortBy) {
+            case ID -> List.of(order(cb, id, direction));
+            case PRICE -> List.of(order(cb, food.get("price"), direction), order(cb, id, direction));
+            case NAME -> List.of(order(cb, food.get("name"), direction), order(cb, id, direction));
+        });
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<Object> path, Sort.Direction direction) {
+        return direction.isAscending() ? cb.asc(path) : cb.desc(path);
+    }
+}
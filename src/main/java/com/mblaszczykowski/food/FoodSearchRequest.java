@@ -0,0 +1,24 @@
+package com.mblaszczykowski.food;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+public record FoodSearchRequest(
+        String name,
+        String category,
+        Integer restaurantId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean vegetarian,
+        SortBy sortBy,
+        Sort.Direction direction,
+        String cursor,
+        Integer size
+) {
+    public enum SortBy {
+        ID,
+        PRICE,
+        NAME
+    }
+}
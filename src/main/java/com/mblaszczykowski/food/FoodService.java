@@ -1,23 +1,37 @@
 package com.mblaszczykowski.food;
 
 import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.restaurant.Restaurant;
 import com.mblaszczykowski.restaurant.RestaurantDAO;
+import com.mblaszczykowski.search.AutocompleteIndex;
+import com.mblaszczykowski.web.ETagged;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 public class FoodService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final FoodDAO foodDAO;
     private final RestaurantDAO restaurantDAO;
+    private final AutocompleteIndex autocompleteIndex;
 
-    public FoodService(@Qualifier("food-jpa") FoodDAO foodDAO, RestaurantDAO restaurantDAO) {
+    public FoodService(@Qualifier("food-cache") FoodDAO foodDAO,
+                       @Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                       AutocompleteIndex autocompleteIndex) {
         this.foodDAO = foodDAO;
         this.restaurantDAO = restaurantDAO;
+        this.autocompleteIndex = autocompleteIndex;
     }
 
     public List<Food> getAllFood() {
@@ -31,6 +45,41 @@ public class FoodService {
                 );
     }
 
+    public String getFoodETag(Integer id) {
+        return foodDAO.getVersion(id)
+                .map(FoodVersion::eTag)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Food with id [%s] not found".formatted(id))
+                );
+    }
+
+    public ETagged<Food> getETaggedFood(Integer id) {
+        Food food = getFoodById(id);
+        return new ETagged<>(FoodVersion.of(food).eTag(), food);
+    }
+
+    // Wszystkie listy dań spoza jednej restauracji mają wersję całego katalogu
+    public String getCatalogETag() {
+        return restaurantDAO.getCatalogVersion().eTag();
+    }
+
+    // Lista z cache ma ETag, przy którym ją wczytano - wersję czytamy tylko, gdy listy w cache nie ma
+    public ETagged<List<Food>> getETaggedAllFood() {
+        return foodDAO.getETaggedAllFood(this::getCatalogETag);
+    }
+
+    public ETagged<List<Food>> getETaggedFoodByCategory(String category) {
+        return foodDAO.getETaggedFoodByCategory(category, this::getCatalogETag);
+    }
+
+    public String getMenuETag(Integer restaurantID) {
+        return restaurantDAO.getMenuVersion(restaurantID).map(String::valueOf).orElse(null);
+    }
+
+    public ETagged<List<Food>> getETaggedFoodByRestaurantID(Integer restaurantID) {
+        return foodDAO.getETaggedFoodByRestaurantID(restaurantID, () -> getMenuETag(restaurantID));
+    }
+
     public List<Food> getFoodByRestaurantID(Integer restaurantID) {
         return foodDAO.getFoodByRestaurantID(restaurantID);
     }
@@ -47,6 +96,43 @@ public class FoodService {
         return foodDAO.getVegetarianFood();
     }
 
+    public List<Food> getVegetarianFood(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (category == null && minPrice == null && maxPrice == null) {
+            return getVegetarianFood();
+        }
+        validateVegetarianPriceFilter(minPrice, maxPrice);
+        return foodDAO.getVegetarianFood(category, minPrice, maxPrice);
+    }
+
+    // Wspólne ze ścieżką reaktywną
+    static void validateVegetarianPriceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+        if ((minPrice == null) != (maxPrice == null)) {
+            throw new NotValidResourceException("Both minPrice and maxPrice are required to filter by price");
+        }
+        if (minPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new NotValidResourceException("minPrice must not be greater than maxPrice");
+        }
+    }
+
+    public FoodPage searchFood(FoodSearchRequest request) {
+        int pageSize = request.size() == null ? DEFAULT_PAGE_SIZE : request.size();
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new NotValidResourceException("Page size must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+        if (request.minPrice() != null && request.maxPrice() != null && request.minPrice().compareTo(request.maxPrice()) > 0) {
+            throw new NotValidResourceException("minPrice must not be greater than maxPrice");
+        }
+
+        FoodSearchCursor after = request.cursor() == null ? null : FoodSearchCursor.decode(request.cursor());
+        List<Food> foods = foodDAO.searchFood(request, after, pageSize);
+
+        String nextCursor = foods.size() == pageSize
+                ? FoodSearchCursor.of(foods.get(foods.size() - 1), request.sortBy()).encode()
+                : null;
+        return new FoodPage(foods, nextCursor);
+    }
+
+    @Transactional
     public void addFood(FoodRegistrationRequest foodRegistrationRequest) {
         String name = foodRegistrationRequest.name();
         String description = foodRegistrationRequest.description();
@@ -67,8 +153,11 @@ public class FoodService {
 
         Food food = new Food(name, description, category, price, isVegetarian, restaurant);
         foodDAO.addFood(food);
+        menuChanged(restaurant);
+        autocompleteIndex.foodChanged(food);
     }
 
+    @Transactional
     public void deleteFood(Integer id) {
         Food food = foodDAO.getFoodById(id)
                 .orElseThrow(() ->
@@ -76,17 +165,21 @@ public class FoodService {
                 );
 
         foodDAO.deleteFood(food);
+        menuChanged(food.getRestaurant());
+        autocompleteIndex.foodRemoved(id);
     }
 
     public List<Food> getFoodByName(String name) {
         return foodDAO.getFoodByName(name);
     }
 
+    @Transactional
     public void updateFood(Integer id, FoodUpdateRequest foodUpdateRequest) {
         Food food = foodDAO.getFoodById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Food with id [%s] not found".formatted(id))
                 );
+        Restaurant previousRestaurant = food.getRestaurant();
 
         if (foodUpdateRequest.price() != 0) {
             BigDecimal price = BigDecimal.valueOf(foodUpdateRequest.price());
@@ -114,6 +207,26 @@ public class FoodService {
             food.setRestaurant(foodUpdateRequest.restaurant());
         }
 
-        foodDAO.updateFood(food);
+        try {
+            foodDAO.updateFood(food);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResourceConflictException("Food with id [%s] was changed by another request".formatted(id));
+        }
+        // Danie mogło przejść do innej restauracji - zmienia się menu obu
+        menuChanged(previousRestaurant, food.getRestaurant());
+        autocompleteIndex.foodChanged(food);
+    }
+
+    // Wersja menu jest też w ETag-ach list dań, więc podbijamy ją w tej samej transakcji co zmianę dania
+    private void menuChanged(Restaurant... restaurants) {
+        List<Integer> restaurantIds = Stream.of(restaurants)
+                .filter(Objects::nonNull)
+                .map(Restaurant::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (!restaurantIds.isEmpty()) {
+            restaurantDAO.incrementMenuVersions(restaurantIds);
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.mblaszczykowski.food;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+public final class FoodSpecifications {
+    private FoodSpecifications() {
+    }
+
+    public static Specification<Food> matching(FoodSearchRequest request) {
+        return Specification.where(hasName(request.name()))
+                .and(hasCategory(request.category()))
+                .and(hasRestaurantId(request.restaurantId()))
+                .and(priceFrom(request.minPrice()))
+                .and(priceTo(request.maxPrice()))
+                .and(isVegetarian(request.vegetarian()));
+    }
+
+    public static Specification<Food> hasName(String name) {
+        return name == null ? null : (food, query, cb) -> cb.equal(food.get("name"), name);
+    }
+
+    public static Specification<Food> hasCategory(String category) {
+        return category == null ? null : (food, query, cb) -> cb.equal(food.get("category"), category);
+    }
+
+    public static Specification<Food> hasRestaurantId(Integer restaurantId) {
+        return restaurantId == null ? null : (food, query, cb) -> cb.equal(food.get("restaurant").get("id"), restaurantId);
+    }
+
+    public static Specification<Food> priceFrom(BigDecimal minPrice) {
+        return minPrice == null ? null : (food, query, cb) -> cb.greaterThanOrEqualTo(food.get("price"), minPrice);
+    }
+
+    public static Specification<Food> priceTo(BigDecimal maxPrice) {
+        return maxPrice == null ? null : (food, query, cb) -> cb.lessThanOrEqualTo(food.get("price"), maxPrice);
+    }
+
+    public static Specification<Food> isVegetarian(Boolean vegetarian) {
+        return vegetarian == null ? null : (food, query, cb) -> cb.equal(food.get("isVegetarian"), vegetarian);
+    }
+
+    // Warunek keyset: (kolumna sortowania, id) za ostatnim zwróconym wierszem
+    public static Specification<Food> after(FoodSearchCursor cursor, FoodSearchRequest.SortBy sortBy, Sort.Direction direction) {
+        if (cursor == null) {
+            return null;
+        }
+        return (food, query, cb) -> switch (sortBy) {
+            case ID -> beyond(cb, food.<Integer>get("id"), cursor.id(), direction);
+            case PRICE -> cb.or(
+                    beyond(cb, food.<BigDecimal>get("price"), cursor.priceValue(), direction),
+                    cb.and(cb.equal(food.get("price"), cursor.priceValue()), beyond(cb, food.<Integer>get("id"), cursor.id(), direction))
+            );
+            case NAME -> cb.or(
+                    beyond(cb, food.<String>get("name"), cursor.value(), direction),
+                    cb.and(cb.equal(food.get("name"), cursor.value()), beyond(cb, food.<Integer>get("id"), cursor.id(), direction))
+            );
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate beyond(CriteriaBuilder cb, Expression<Y> expression, Y value, Sort.Direction direction) {
+        return direction.isAscending() ? cb.greaterThan(expression, value) : cb.lessThan(expression, value);
+    }
+}
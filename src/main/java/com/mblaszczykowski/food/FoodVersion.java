@@ -0,0 +1,14 @@
+package com.mblaszczykowski.food;
+
+/**
+ * Versions of a food and of the restaurant embedded in its JSON.
+ */
+public record FoodVersion(Long food, Long restaurant) {
+    public static FoodVersion of(Food food) {
+        return new FoodVersion(food.getVersion(), food.getRestaurant().getVersion());
+    }
+
+    public String eTag() {
+        return "%d-%d".formatted(food, restaurant);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mblaszczykowski.food;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mblaszczykowski.web.ETagged;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of menu listings (all food, food per restaurant, food per category).
+ * Entries expire after {@code food.menu-cache.ttl} and the least used ones are evicted above
+ * {@code food.menu-cache.maximum-size}; once a write commits, every listing the changed food belongs to is
+ * invalidated. A change made through another instance is seen after the ttl.
+ * <p>
+ * A listing read for a response with an ETag is stored with the tag of the version it was loaded at, and a hit
+ * returns that tag without reading the current version.
+ */
+@Component
+public class MenuCache {
+    public record Key(Kind kind, Object value) {
+        static final Key ALL = new Key(Kind.ALL, null);
+
+        static Key restaurant(Integer restaurantId) {
+            return new Key(Kind.RESTAURANT, restaurantId);
+        }
+
+        static Key category(String category) {
+            return new Key(Kind.CATEGORY, category);
+        }
+    }
+
+    public enum Kind {
+        ALL,
+        RESTAURANT,
+        CATEGORY
+    }
+
+    private final Cache<Key, ETagged<List<Food>>> cache;
+
+    public MenuCache(@Value("${food.menu-cache.ttl:5m}") Duration ttl,
+                     @Value("${food.menu-cache.maximum-size:1000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public List<Food> get(Key key, Supplier<List<Food>> loader) {
+        return cache.get(key, k -> new ETagged<>(null, List.copyOf(loader.get()))).body();
+    }
+
+    public ETagged<List<Food>> getETagged(Key key, Supplier<ETagged<List<Food>>> loader) {
+        ETagged<List<Food>> entry = cache.get(key, k -> copyOf(loader.get()));
+        if (entry.eTag() == null) {
+            // Lista wczytana bez wersji - wczytujemy ją jeszcze raz razem z wersją
+            entry = cache.asMap().compute(key, (k, current) -> current != null && current.eTag() != null
+                    ? current
+                    : copyOf(loader.get()));
+        }
+        return entry;
+    }
+
+    public void invalidate(Food food) {
+        cache.invalidate(Key.ALL);
+        if (food.getRestaurant() != null) {
+            cache.invalidate(Key.restaurant(food.getRestaurant().getId()));
+        }
+        if (food.getCategory() != null) {
+            cache.invalidate(Key.category(food.getCategory()));
+        }
+        // Jedzenie mogło zmienić restaurację lub kategorię - usuwamy też listy, w których było wcześniej
+        if (food.getId() != null) {
+            cache.asMap().values().removeIf(entry ->
+                    entry.body().stream().anyMatch(f -> Objects.equals(f.getId(), food.getId())));
+        }
+    }
+
+    private static ETagged<List<Food>> copyOf(ETagged<List<Food>> tagged) {
+        return new ETagged<>(tagged.eTag(), List.copyOf(tagged.body()));
+    }
+
+    public MenuCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new MenuCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
@@ -0,0 +1,20 @@
+package com.mblaszczykowski.food;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("api/v1/food/cache")
+public class MenuCacheController {
+    private final MenuCache menuCache;
+
+    public MenuCacheController(MenuCache menuCache) {
+        this.menuCache = menuCache;
+    }
+
+    @GetMapping("stats")
+    public MenuCacheStats getStats() {
+        return menuCache.stats();
+    }
+}
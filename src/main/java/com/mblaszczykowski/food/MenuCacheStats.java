@@ -0,0 +1,6 @@
+package com.mblaszczykowski.food;
+
+public record MenuCacheStats(
+        long hits, long misses, long evictions, long size
+) {
+}
@@ -3,8 +3,10 @@ package com.mblaszczykowski.order;
 import com.mblaszczykowski.customer.Customer;
 import com.mblaszczykowski.food.Food;
 import com.mblaszczykowski.restaurant.Restaurant;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,7 +16,23 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(
+        name = Order.WITH_DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode(value = "foods", subgraph = "foods")
+        },
+        subgraphs = @NamedSubgraph(name = "foods", attributeNodes = @NamedAttributeNode("restaurant"))
+)
+@NamedEntityGraph(
+        name = Order.WITH_CUSTOMER_GRAPH,
+        attributeNodes = @NamedAttributeNode("customer")
+)
 public class Order {
+    public static final String WITH_DETAILS_GRAPH = "Order.withDetails";
+    public static final String WITH_CUSTOMER_GRAPH = "Order.withCustomer";
+    public static final String ID_SEQUENCE = "orders_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
 
 
 
@@ -27,7 +45,20 @@ public class Order {
         AWAITING_PICKUP,
         READY_FOR_SHIPPING,
         SHIPPED,
-        DELIVERED
+        DELIVERED;
+
+        // Tabela dozwolonych przejść - COMPLETED i CANCELLED są końcowe
+        public boolean canChangeTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == CANCELLED;
+                case PROCESSING -> next == AWAITING_PICKUP || next == READY_FOR_SHIPPING || next == CANCELLED;
+                case AWAITING_PICKUP -> next == COMPLETED || next == CANCELLED;
+                case READY_FOR_SHIPPING -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED -> next == COMPLETED;
+                case COMPLETED, CANCELLED -> false;
+            };
+        }
     }
 
     public enum DeliveryType {
@@ -37,7 +68,9 @@ public class Order {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sekwencja zamiast IDENTITY - Hibernate zna id przed INSERT-em i może wysyłać je paczkami
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
     @Column(name = "id", updatable = false)
     private Integer id;
 
@@ -46,6 +79,7 @@ public class Order {
     private Customer customer;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "order_food",
             joinColumns = @JoinColumn(name = "order_id"),
@@ -53,7 +87,7 @@ public class Order {
     )
     private List<Food> foods = new ArrayList<>();
 
-    @Formula("(SELECT COALESCE(SUM(f.price), 0) FROM food f JOIN order_food of ON f.id = of.food_id WHERE of.order_id = id)")
+    @Column(name = "total_amount")
     private BigDecimal totalAmount;
 
     @Column(name = "address", nullable = false)
@@ -66,13 +100,20 @@ public class Order {
     @Column(name = "order_time", nullable = false)
     private LocalDateTime orderTime;
 
-    @Column(name = "is_paid", nullable = false)
+    // Ustawiany tylko przez OrderRepository.markPaid, z tego samego powodu co status
+    @Column(name = "is_paid", nullable = false, updatable = false)
     private boolean isPaid;
 
-    @Column(name = "status", nullable = false)
+    // Zmieniany tylko warunkowym UPDATE-em (OrderRepository.updateStatus) - zapis encji nie nadpisze
+    // statusu zmienionego w międzyczasie przez inne żądanie
+    @Column(name = "status", nullable = false, updatable = false)
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    // Podbija ją baza przy każdej zmianie (OrderRepository) - zapis nieaktualnej encji nie ma jej cofać ani odrzucać
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false, updatable = false)
+    private long version;
 
     public Order() {
     }
@@ -126,6 +167,11 @@ public class Order {
         return totalAmount;
     }
 
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
     public void setFoods(List<Food> foods) {
         this.foods = foods;
     }
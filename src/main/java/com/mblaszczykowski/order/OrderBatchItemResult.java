@@ -0,0 +1,11 @@
+package com.mblaszczykowski.order;
+
+public record OrderBatchItemResult(int index, Integer orderId, String error) {
+    public static OrderBatchItemResult created(int index, Integer orderId) {
+        return new OrderBatchItemResult(index, orderId, null);
+    }
+
+    public static OrderBatchItemResult rejected(int index, String error) {
+        return new OrderBatchItemResult(index, null, error);
+    }
+}
@@ -0,0 +1,6 @@
+package com.mblaszczykowski.order;
+
+import java.util.List;
+
+public record OrderBatchResponse(int created, int rejected, List<OrderBatchItemResult> results) {
+}
@@ -1,36 +1,80 @@
 package com.mblaszczykowski.order;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mblaszczykowski.web.ETags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/orders")
 public class OrderController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final OrderService orderService;
+    private final OrderEventStream orderEventStream;
+    private final ObjectMapper objectMapper;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderEventStream orderEventStream, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderEventStream = orderEventStream;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Order> getOrders() {
-        return orderService.getAll();
+    public OrderList getOrders() {
+        return orderService.getOrderList();
+    }
+
+    @GetMapping("page")
+    public OrderPage getOrdersPage(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return orderService.getOrdersPage(after, size);
+    }
+
+    @GetMapping(value = "stream", produces = NDJSON)
+    public void streamOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        OutputStream outputStream = response.getOutputStream();
+        orderService.forEachOrder(order -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(order));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        outputStream.flush();
     }
 
     @GetMapping("{id}")
-    public Order getOrder(@PathVariable("id") Integer id) {
-        return orderService.getById(id);
+    public ResponseEntity<Order> getOrder(@PathVariable("id") Integer id, HttpServletRequest request) {
+        return ETags.get(request, () -> orderService.getOrderETag(id), () -> orderService.getETaggedOrder(id));
     }
 
     @GetMapping("customer/{customerId}")
-    public List<Order> getOrdersByCustomerId(@PathVariable("customerId") Integer customerId) {
-        return orderService.getOrdersByCustomerId(customerId);
+    public OrderList getOrdersByCustomerId(@PathVariable("customerId") Integer customerId) {
+        return orderService.getOrderListByCustomerId(customerId);
     }
 
     @GetMapping("restaurant/{restaurantId}")
-    public List<Order> getOrdersByRestaurantId(@PathVariable("restaurantId") Integer restaurantId) {
-        return orderService.getOrdersByRestaurantId(restaurantId);
+    public OrderList getOrdersByRestaurantId(@PathVariable("restaurantId") Integer restaurantId) {
+        return orderService.getOrderListByRestaurantId(restaurantId);
+    }
+
+    @GetMapping(value = "restaurant/{restaurantId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrdersByRestaurantId(@PathVariable("restaurantId") Integer restaurantId) {
+        return orderEventStream.subscribe(restaurantId);
     }
 
     @PostMapping
@@ -38,8 +82,18 @@ public class OrderController {
         orderService.add(request);
     }
 
+    @PostMapping("batch")
+    public OrderBatchResponse addOrders(@RequestBody List<OrderRegistrationRequest> requests) {
+        return orderService.addBatch(requests);
+    }
+
     @PutMapping("{id}")
     public void updateOrder(@PathVariable("id") Integer id, @RequestBody OrderUpdateRequest request) {
         orderService.updateOrder(id, request);
     }
+
+    @PatchMapping("{id}/status")
+    public void updateOrderStatus(@PathVariable("id") Integer id, @RequestBody OrderStatusUpdateRequest request) {
+        orderService.updateStatus(id, request);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.mblaszczykowski.order;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.outbox.OutboxPayload;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OrderCreated(Integer orderId, Integer customerId, List<Integer> restaurantIds, List<Integer> foodIds,
+                           BigDecimal totalAmount, Order.DeliveryType deliveryType, Order.OrderStatus status,
+                           LocalDateTime orderTime) implements OutboxPayload {
+    public static OrderCreated of(Order order) {
+        return new OrderCreated(order.getId(), order.getCustomer().getId(), restaurantIds(order),
+                order.getFoods().stream().map(Food::getId).toList(), order.getTotalAmount(),
+                order.getDeliveryType(), order.getStatus(), order.getOrderTime());
+    }
+
+    // Restauracje, które muszą przygotować zamówienie - po nich konsumenci filtrują zdarzenia
+    static List<Integer> restaurantIds(Order order) {
+        return order.getFoods().stream()
+                .filter(food -> food.getRestaurant() != null)
+                .map(food -> food.getRestaurant().getId())
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
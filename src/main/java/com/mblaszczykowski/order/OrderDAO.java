@@ -2,19 +2,38 @@ package com.mblaszczykowski.order;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderDAO {
-    List<Order> getAll();
+    List<Order> getOrdersAfter(Integer afterId, int limit);
+
+    void forEachOrder(Consumer<Order> action);
 
     void add(Order order);
 
+    void addAll(List<Order> orders);
+
     Optional<Order> getById(Integer id);
 
+    Optional<OrderVersion> getVersion(Integer id);
+
     void update(Order order);
 
-    List<Order> getOrdersByCustomerId(Integer customerId);
+    OrderList getOrderList();
 
-    List<Order> getOrdersByRestaurantId(Integer restaurantId);
+    OrderList getOrderListByCustomerId(Integer customerId);
+
+    OrderList getOrderListByRestaurantId(Integer restaurantId);
 
     boolean existsById(Integer orderId);
+
+    boolean updateStatus(Integer id, Order.OrderStatus expected, Order.OrderStatus status);
+
+    void markPaid(Integer id);
+
+    Optional<Order.OrderStatus> getStatusById(Integer id);
+
+    List<Integer> getRestaurantIds(Integer id);
+
+    int backfillTotalAmounts(int batchSize);
 }
\ No newline at end of file
@@ -0,0 +1,280 @@
+package com.mblaszczykowski.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mblaszczykowski.outbox.OutboxFeed;
+import com.mblaszczykowski.outbox.OutboxMessage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes {@link OrderCreated} and {@link OrderStatusChanged} events to server-sent event streams of the
+ * restaurants the order contains food from.
+ * <p>
+ * Events come from the outbox through {@link OutboxFeed}, so a stream only sees committed changes, and sees them
+ * whichever instance dispatched them. An idle stream holds no request thread,
+ * only its connection and a buffer of at most {@code orders.stream.buffer-size} events. Sender threads write the
+ * buffers out, one per stream that has something to send ({@code orders.stream.sender-threads} stay when idle);
+ * when a client reads slower than events arrive, its oldest buffered events are dropped. A write is blocking,
+ * so a stream whose write takes longer than {@code orders.stream.send-timeout} - a full TCP window, a dead
+ * mobile connection - is evicted: it gets no more events and is closed once the write gives up, while the
+ * other streams go on with their own threads. Every {@code orders.stream.heartbeat-interval} each stream gets
+ * a comment line, which also closes streams of clients that went away.
+ */
+@Component
+public class OrderEventStream {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderEventStream.class);
+    private static final Set<String> EVENT_TYPES =
+            Set.of(OrderCreated.class.getSimpleName(), OrderStatusChanged.class.getSimpleName());
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-stream-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final AutoCloseable subscription;
+
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @Autowired
+    public OrderEventStream(OutboxFeed outboxFeed, ObjectMapper objectMapper,
+                            @Value("${orders.stream.buffer-size:64}") int bufferSize,
+                            @Value("${orders.stream.sender-threads:2}") int senderThreads,
+                            @Value("${orders.stream.heartbeat-interval:30s}") Duration heartbeatInterval,
+                            @Value("${orders.stream.send-timeout:10s}") Duration sendTimeout,
+                            @Value("${orders.stream.timeout:30m}") Duration timeout) {
+        this(outboxFeed, objectMapper, bufferSize, timeout, sendTimeout, newSenders(senderThreads));
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    OrderEventStream(OutboxFeed outboxFeed, ObjectMapper objectMapper, int bufferSize, Duration timeout,
+                     Duration sendTimeout, ExecutorService senders) {
+        this.objectMapper = objectMapper;
+        this.senders = senders;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        long checkInterval = Math.max(1, sendTimeout.toMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::evictStalled, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        this.subscription = outboxFeed.subscribe(this::onEvent);
+    }
+
+    // Wątek na każdy strumień, który ma co wysłać - zablokowany zapis jednego klienta nie wstrzymuje pozostałych
+    static ExecutorService newSenders(int idleThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(idleThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-stream-sender-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribe(Integer restaurantId) {
+        return subscribe(restaurantId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Integer restaurantId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(restaurantId, emitter);
+        subscribers.compute(restaurantId, (id, restaurantSubscribers) -> {
+            Set<Subscriber> result = restaurantSubscribers == null ? ConcurrentHashMap.newKeySet() : restaurantSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    // Wątek dispatchera outboxa tylko wrzuca zdarzenie do buforów - wysyłką zajmuje się pula nadawców
+    void onEvent(OutboxMessage message) {
+        if (!EVENT_TYPES.contains(message.eventType())) {
+            return;
+        }
+        JsonNode restaurantIds;
+        try {
+            restaurantIds = objectMapper.readTree(message.payload()).path("restaurantIds");
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Could not read restaurants of outbox event {}", message.id(), e);
+            return;
+        }
+        for (JsonNode restaurantId : restaurantIds) {
+            Set<Subscriber> restaurantSubscribers = subscribers.get(restaurantId.asInt());
+            if (restaurantSubscribers != null) {
+                restaurantSubscribers.forEach(subscriber -> subscriber.offer(message));
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(restaurantSubscribers -> restaurantSubscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(restaurantSubscribers ->
+                restaurantSubscribers.forEach(subscriber -> subscriber.evictIfStalled(now)));
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        subscription.close();
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(restaurantSubscribers ->
+                restaurantSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public int getSubscribers() {
+        return subscriberCount.get();
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    private final class Subscriber {
+        private final Integer restaurantId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<OutboxMessage> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean evictedForStall = new AtomicBoolean();
+        private volatile boolean sending;
+        private volatile long sendDeadline;
+
+        private Subscriber(Integer restaurantId, SseEmitter emitter) {
+            this.restaurantId = restaurantId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(OutboxMessage message) {
+            if (closed.get()) {
+                return;
+            }
+            // Wolny klient traci najstarsze zdarzenia zamiast blokować pozostałych
+            while (!buffer.offer(message)) {
+                if (buffer.poll() != null) {
+                    dropped.increment();
+                }
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        // Najwyżej jeden wątek naraz pisze do danego strumienia
+        private void drain() {
+            try {
+                OutboxMessage message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    send(SseEmitter.event()
+                            .id(String.valueOf(message.id()))
+                            .name(message.eventType())
+                            .data(message.payload(), MediaType.APPLICATION_JSON));
+                    sent.increment();
+                }
+                if (!closed.get() && heartbeatDue.getAndSet(false)) {
+                    send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Klient się rozłączył albo strumień już się zakończył
+                close();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (evictedForStall.get()) {
+                // Zaległy zapis wreszcie się skończył - zamykamy strumień usunięty za wolne czytanie
+                emitter.complete();
+            } else if (!buffer.isEmpty() || heartbeatDue.get()) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendDeadline = System.nanoTime() + sendTimeout.toNanos();
+            sending = true;
+            try {
+                emitter.send(event);
+            } finally {
+                sending = false;
+            }
+        }
+
+        // Nie zamykamy emitera stąd - czekałby na zablokowany zapis; zrobi to wątek nadawcy, gdy zapis się skończy
+        private void evictIfStalled(long now) {
+            if (sending && now - sendDeadline > 0 && evictedForStall.compareAndSet(false, true)) {
+                evicted.increment();
+                LOGGER.info("Evicting order stream of restaurant {}, a write took longer than {}", restaurantId,
+                        sendTimeout);
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.computeIfPresent(restaurantId, (id, restaurantSubscribers) -> {
+                restaurantSubscribers.remove(this);
+                return restaurantSubscribers.isEmpty() ? null : restaurantSubscribers;
+            });
+            subscriberCount.decrementAndGet();
+            buffer.clear();
+        }
+    }
+}
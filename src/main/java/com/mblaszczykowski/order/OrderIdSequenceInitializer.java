@@ -0,0 +1,35 @@
+package com.mblaszczykowski.order;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves {@code orders_seq} past the ids handed out while orders still used an IDENTITY column.
+ * Runs after Hibernate has updated the schema and before the application accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderIdSequenceInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderIdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        // Nigdy nie cofamy sekwencji - tylko przesuwamy ją za największe istniejące id
+        jdbcTemplate.queryForObject("""
+                SELECT setval('%1$s', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders), (SELECT last_value FROM %1$s)))
+                """.formatted(Order.ID_SEQUENCE), Long.class);
+    }
+}
@@ -1,21 +1,46 @@
 package com.mblaszczykowski.order;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository("order-jpa")
 public class OrderJPADataAccessService implements OrderDAO {
     private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
 
-    public OrderJPADataAccessService(OrderRepository orderRepository) {
+    public OrderJPADataAccessService(OrderRepository orderRepository, EntityManager entityManager) {
         this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
     }
 
     @Override
-    public List<Order> getAll() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersAfter(Integer afterId, int limit) {
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachOrder(Consumer<Order> action) {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            int count = 0;
+            for (Order order : (Iterable<Order>) orders::iterator) {
+                action.accept(order);
+                // Czyścimy kontekst co paczkę, żeby przeczytane encje nie zostawały w pamięci
+                if (++count % OrderRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
@@ -24,27 +49,82 @@ public class OrderJPADataAccessService implements OrderDAO {
     }
 
     @Override
+    public void addAll(List<Order> orders) {
+        orderRepository.saveAll(orders);
+    }
+
+    @Override
+    @Transactional
     public void update(Order order) {
         orderRepository.save(order);
+        orderRepository.incrementVersion(order.getId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderList getOrderList() {
+        return OrderList.of(orderRepository.findOrderRows(), orderRepository.findOrderLineRows());
     }
 
     @Override
-    public List<Order> getOrdersByCustomerId(Integer customerId) {
-        return orderRepository.findByCustomer_Id(customerId);
+    @Transactional(readOnly = true)
+    public OrderList getOrderListByCustomerId(Integer customerId) {
+        return OrderList.of(orderRepository.findOrderRowsByCustomerId(customerId),
+                orderRepository.findOrderLineRowsByCustomerId(customerId));
     }
 
     @Override
-    public List<Order> getOrdersByRestaurantId(Integer restaurantId) {
-        return orderRepository.findByFoodsRestaurant_Id(restaurantId);
+    @Transactional(readOnly = true)
+    public OrderList getOrderListByRestaurantId(Integer restaurantId) {
+        return OrderList.of(orderRepository.findOrderRowsByRestaurantId(restaurantId),
+                orderRepository.findOrderLineRowsByRestaurantId(restaurantId));
     }
 
     @Override
+    @Transactional
     public boolean existsById(Integer orderId) {
         return orderRepository.existsById(orderId);
     }
 
     @Override
+    @Transactional
+    public boolean updateStatus(Integer id, Order.OrderStatus expected, Order.OrderStatus status) {
+        return orderRepository.updateStatus(id, expected, status) > 0;
+    }
+
+    @Override
+    @Transactional
+    public void markPaid(Integer id) {
+        orderRepository.markPaid(id);
+    }
+
+    // Z primary - status z repliki mógłby być nieaktualny i tylko mnożyć nieudane warunkowe zmiany
+    @Override
+    @Transactional
+    public Optional<Order.OrderStatus> getStatusById(Integer id) {
+        return orderRepository.findStatusById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> getRestaurantIds(Integer id) {
+        return orderRepository.findRestaurantIdsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Order> getById(Integer id) {
         return orderRepository.findById(id);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderVersion> getVersion(Integer id) {
+        return orderRepository.findVersionById(id);
+    }
+
+    @Override
+    public int backfillTotalAmounts(int batchSize) {
+        return orderRepository.backfillTotalAmounts(batchSize);
+    }
 }
@@ -0,0 +1,8 @@
+package com.mblaszczykowski.order;
+
+import java.math.BigDecimal;
+
+// Jeden wiersz order_food z nazwą i ceną dania oraz jego restauracją
+public record OrderLineRow(Integer orderId, Integer foodId, String foodName, BigDecimal price,
+                           Integer restaurantId, String restaurantName) {
+}
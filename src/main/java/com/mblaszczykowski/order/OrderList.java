@@ -0,0 +1,46 @@
+package com.mblaszczykowski.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact order listing: orders refer to food by id, and every food and restaurant appears once
+ * in the {@code foods} and {@code restaurants} side tables, however many orders contain it.
+ */
+public record OrderList(List<Entry> orders, List<FoodEntry> foods, List<RestaurantEntry> restaurants) {
+    public record Entry(Integer id, Integer customerId, List<Integer> foodIds, BigDecimal totalAmount, String address,
+                        Order.DeliveryType deliveryType, LocalDateTime orderTime, boolean paid,
+                        Order.OrderStatus status) {
+    }
+
+    public record FoodEntry(Integer id, String name, BigDecimal price, Integer restaurantId) {
+    }
+
+    public record RestaurantEntry(Integer id, String name) {
+    }
+
+    public static OrderList of(List<OrderRow> rows, List<OrderLineRow> lines) {
+        Map<Integer, List<Integer>> foodIds = new HashMap<>();
+        Map<Integer, FoodEntry> foods = new LinkedHashMap<>();
+        Map<Integer, RestaurantEntry> restaurants = new LinkedHashMap<>();
+        for (OrderLineRow line : lines) {
+            foodIds.computeIfAbsent(line.orderId(), id -> new ArrayList<>()).add(line.foodId());
+            foods.computeIfAbsent(line.foodId(),
+                    id -> new FoodEntry(id, line.foodName(), line.price(), line.restaurantId()));
+            if (line.restaurantId() != null) {
+                restaurants.computeIfAbsent(line.restaurantId(), id -> new RestaurantEntry(id, line.restaurantName()));
+            }
+        }
+
+        List<Entry> orders = rows.stream()
+                .map(row -> new Entry(row.id(), row.customerId(), foodIds.getOrDefault(row.id(), List.of()),
+                        row.totalAmount(), row.address(), row.deliveryType(), row.orderTime(), row.paid(), row.status()))
+                .toList();
+        return new OrderList(orders, List.copyOf(foods.values()), List.copyOf(restaurants.values()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.mblaszczykowski.order;
+
+import java.util.List;
+
+public record OrderPage(
+        List<Order> orders, Integer nextCursor
+) {
+}
@@ -2,18 +2,120 @@ package com.mblaszczykowski.order;
 
 import com.mblaszczykowski.customer.Customer;
 import com.mblaszczykowski.restaurant.Restaurant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
+    int STREAM_FETCH_SIZE = 500;
 
-    List<Order> findAll();
-
+    @Override
+    @EntityGraph(Order.WITH_DETAILS_GRAPH)
     Optional<Order> findById(Integer id);
 
-    List<Order> findByCustomer_Id(Integer customerId);
+    // Projekcje list zamówień - tylko potrzebne kolumny, bez encji klienta, dań i restauracji
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderRow(
+                o.id, o.customer.id, o.totalAmount, o.address, o.deliveryType, o.orderTime, o.isPaid, o.status)
+            FROM Order o ORDER BY o.id
+            """)
+    List<OrderRow> findOrderRows();
+
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderLineRow(o.id, f.id, f.name, f.price, r.id, r.name)
+            FROM Order o JOIN o.foods f LEFT JOIN f.restaurant r ORDER BY o.id
+            """)
+    List<OrderLineRow> findOrderLineRows();
+
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderRow(
+                o.id, o.customer.id, o.totalAmount, o.address, o.deliveryType, o.orderTime, o.isPaid, o.status)
+            FROM Order o WHERE o.customer.id = :customerId ORDER BY o.id
+            """)
+    List<OrderRow> findOrderRowsByCustomerId(@Param("customerId") Integer customerId);
+
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderLineRow(o.id, f.id, f.name, f.price, r.id, r.name)
+            FROM Order o JOIN o.foods f LEFT JOIN f.restaurant r WHERE o.customer.id = :customerId ORDER BY o.id
+            """)
+    List<OrderLineRow> findOrderLineRowsByCustomerId(@Param("customerId") Integer customerId);
+
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderRow(
+                o.id, o.customer.id, o.totalAmount, o.address, o.deliveryType, o.orderTime, o.isPaid, o.status)
+            FROM Order o
+            WHERE o.id IN (SELECT fo.id FROM Order fo JOIN fo.foods f WHERE f.restaurant.id = :restaurantId)
+            ORDER BY o.id
+            """)
+    List<OrderRow> findOrderRowsByRestaurantId(@Param("restaurantId") Integer restaurantId);
+
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderLineRow(o.id, f.id, f.name, f.price, r.id, r.name)
+            FROM Order o JOIN o.foods f LEFT JOIN f.restaurant r
+            WHERE o.id IN (SELECT fo.id FROM Order fo JOIN fo.foods rf WHERE rf.restaurant.id = :restaurantId)
+            ORDER BY o.id
+            """)
+    List<OrderLineRow> findOrderLineRowsByRestaurantId(@Param("restaurantId") Integer restaurantId);
+
+    // Przy stronicowaniu nie dociągamy kolekcji joinem (Hibernate stronicowałby w pamięci) - foods ładuje @BatchSize.
+    // Kolejność id to nie kolejność order_time: każda instancja bierze z orders_seq pulę 50 id naraz
+    @EntityGraph(Order.WITH_CUSTOMER_GRAPH)
+    List<Order> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    @EntityGraph(Order.WITH_CUSTOMER_GRAPH)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + OrderRepository.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAll();
+
+    // Jedno zapytanie bez blokowania wiersza z góry; 0 = zamówienie ma już inny status
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.version = o.version + 1 WHERE o.id = :id AND o.status = :expected")
+    int updateStatus(@Param("id") Integer id, @Param("expected") Order.OrderStatus expected,
+                     @Param("status") Order.OrderStatus status);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.version = o.version + 1 WHERE o.id = :id")
+    int incrementVersion(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.isPaid = true, o.version = o.version + 1 WHERE o.id = :id")
+    int markPaid(@Param("id") Integer id);
+
+    // Wersje wszystkiego, co jest w JSON-ie zamówienia - sumy tylko rosną, a skład zamówienia zmienia jego wersję
+    @Query("""
+            SELECT new com.mblaszczykowski.order.OrderVersion(o.version, c.version, COALESCE(SUM(f.version + r.version), 0L))
+            FROM Order o JOIN o.customer c LEFT JOIN o.foods f LEFT JOIN f.restaurant r
+            WHERE o.id = :id GROUP BY o.id, o.version, c.version
+            """)
+    Optional<OrderVersion> findVersionById(@Param("id") Integer id);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Integer id);
+
+    @Query("SELECT DISTINCT f.restaurant.id FROM Order o JOIN o.foods f WHERE o.id = :id")
+    List<Integer> findRestaurantIdsById(@Param("id") Integer id);
 
-    List<Order> findByFoodsRestaurant_Id(Integer restaurantId);
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE orders o SET total_amount = (
+                SELECT COALESCE(SUM(f.price), 0) FROM food f JOIN order_food of ON f.id = of.food_id WHERE of.order_id = o.id
+            ), version = o.version + 1
+            WHERE o.id IN (SELECT id FROM orders WHERE total_amount IS NULL ORDER BY id LIMIT :batchSize)
+            """, nativeQuery = true)
+    int backfillTotalAmounts(@Param("batchSize") int batchSize);
 }
@@ -0,0 +1,9 @@
+package com.mblaszczykowski.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Kolumny zamówienia bez złączeń - klient tylko przez id
+public record OrderRow(Integer id, Integer customerId, BigDecimal totalAmount, String address,
+                       Order.DeliveryType deliveryType, LocalDateTime orderTime, boolean paid, Order.OrderStatus status) {
+}
@@ -3,26 +3,49 @@ package com.mblaszczykowski.order;
 import com.mblaszczykowski.customer.Customer;
 import com.mblaszczykowski.customer.CustomerDAO;
 import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.food.Food;
 import com.mblaszczykowski.food.FoodDAO;
+import com.mblaszczykowski.outbox.OutboxService;
+import com.mblaszczykowski.web.ETagged;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int STATUS_CHANGE_ATTEMPTS = 3;
+
     private final OrderDAO orderDAO;
     private final FoodDAO foodDAO;
     private final CustomerDAO customerDAO;
+    private final OutboxService outboxService;
+    private final LongAdder statusChanges = new LongAdder();
+    private final LongAdder statusConflicts = new LongAdder();
 
-
-    public OrderService(@Qualifier("order-jpa") OrderDAO orderDAO, FoodDAO foodDAO, CustomerDAO customerDAO) {
+    public OrderService(@Qualifier("order-jpa") OrderDAO orderDAO, @Qualifier("food-jpa") FoodDAO foodDAO, CustomerDAO customerDAO,
+                        OutboxService outboxService) {
         this.orderDAO = orderDAO;
         this.foodDAO = foodDAO;
         this.customerDAO = customerDAO;
+        this.outboxService = outboxService;
     }
 
     public Order getById(Integer id) {
@@ -32,49 +55,126 @@ public class OrderService {
                 );
     }
 
-    public List<Order> getAll() {
-        return orderDAO.getAll();
+    public String getOrderETag(Integer id) {
+        return orderDAO.getVersion(id)
+                .map(OrderVersion::eTag)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Order with id [%s] not found".formatted(id))
+                );
+    }
+
+    public ETagged<Order> getETaggedOrder(Integer id) {
+        Order order = getById(id);
+        return new ETagged<>(OrderVersion.of(order).eTag(), order);
+    }
+
+    public OrderPage getOrdersPage(Integer afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new NotValidResourceException("Page size must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+
+        List<Order> orders = orderDAO.getOrdersAfter(afterId == null ? 0 : afterId, pageSize);
+        Integer nextCursor = orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+        return new OrderPage(orders, nextCursor);
+    }
+
+    public void forEachOrder(Consumer<Order> action) {
+        orderDAO.forEachOrder(action);
+    }
+
+    public OrderList getOrderList() {
+        return orderDAO.getOrderList();
     }
 
-    public List<Order> getOrdersByCustomerId(Integer customerId) {
-        return orderDAO.getOrdersByCustomerId(customerId);
+    public OrderList getOrderListByCustomerId(Integer customerId) {
+        return orderDAO.getOrderListByCustomerId(customerId);
     }
 
-    public List<Order> getOrdersByRestaurantId(Integer restaurantId) {
-        return orderDAO.getOrdersByRestaurantId(restaurantId);
+    public OrderList getOrderListByRestaurantId(Integer restaurantId) {
+        return orderDAO.getOrderListByRestaurantId(restaurantId);
     }
 
+    @Transactional
     public void add(OrderRegistrationRequest orderRegistrationRequest) {
-        if (orderRegistrationRequest.customer() == null || orderRegistrationRequest.foods() == null ||
-                orderRegistrationRequest.address() == null || orderRegistrationRequest.deliveryType() == null) {
-            throw new NotValidResourceException("Missing data");
-        }
+        validateRegistrationRequest(orderRegistrationRequest);
 
         Integer customerId = orderRegistrationRequest.customer().getId();
         Customer customer = customerDAO.getById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId)));
 
-        List<Food> foods = new ArrayList<>();
-        for (Food food : orderRegistrationRequest.foods()) {
-            Integer foodId = food.getId();
-            Food foodFromDb = foodDAO.getById(foodId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Food with id [%s] not found".formatted(foodId)));
-            foods.add(foodFromDb);
+        List<Food> foods = getFoodsFromDb(orderRegistrationRequest.foods());
+
+        Order order = createOrder(orderRegistrationRequest, customer, foods);
+        orderDAO.add(order);
+        outboxService.record(OrderCreated.of(order));
+    }
+
+    @Transactional
+    public OrderBatchResponse addBatch(List<OrderRegistrationRequest> orderRegistrationRequests) {
+        if (orderRegistrationRequests == null || orderRegistrationRequests.isEmpty()
+                || orderRegistrationRequests.size() > MAX_BATCH_SIZE) {
+            throw new NotValidResourceException("Batch size must be between 1 and %s".formatted(MAX_BATCH_SIZE));
         }
 
-        var address = orderRegistrationRequest.address();
-        var deliveryType = orderRegistrationRequest.deliveryType();
+        // Jedno zapytanie o klientów i jedno o dania dla całej paczki
+        Set<Integer> customerIds = orderRegistrationRequests.stream()
+                .filter(request -> request != null && request.customer() != null)
+                .map(request -> request.customer().getId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Customer> customersById = customerDAO.getByIds(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
 
-        Order order = new Order(customer, foods, address, deliveryType);
-        orderDAO.add(order);
+        List<Food> requestedFoods = orderRegistrationRequests.stream()
+                .filter(request -> request != null && request.foods() != null)
+                .flatMap(request -> request.foods().stream())
+                .toList();
+        Map<Integer, Food> foodsById = getFoodsById(requestedFoods);
+
+        OrderBatchItemResult[] results = new OrderBatchItemResult[orderRegistrationRequests.size()];
+        List<Order> orders = new ArrayList<>();
+        List<Integer> orderIndexes = new ArrayList<>();
+        for (int i = 0; i < orderRegistrationRequests.size(); i++) {
+            OrderRegistrationRequest request = orderRegistrationRequests.get(i);
+            try {
+                validateRegistrationRequest(request);
+
+                Integer customerId = request.customer().getId();
+                Customer customer = customersById.get(customerId);
+                if (customer == null) {
+                    throw new ResourceNotFoundException("Customer with id [%s] not found".formatted(customerId));
+                }
+
+                orders.add(createOrder(request, customer, resolveFoods(request.foods(), foodsById)));
+                orderIndexes.add(i);
+            } catch (NotValidResourceException | ResourceNotFoundException e) {
+                results[i] = OrderBatchItemResult.rejected(i, e.getMessage());
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            orderDAO.addAll(orders);
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            int index = orderIndexes.get(i);
+            results[index] = OrderBatchItemResult.created(index, orders.get(i).getId());
+            outboxService.record(OrderCreated.of(orders.get(i)));
+        }
+
+        return new OrderBatchResponse(orders.size(), results.length - orders.size(), List.of(results));
     }
 
 
+    @Transactional
     public void updateOrder(Integer id, OrderUpdateRequest orderUpdateRequest) {
         Order order = getById(id);
+        Order.OrderStatus previousStatus = order.getStatus();
 
         if (orderUpdateRequest.foods() != null) {
-            order.setFoods(orderUpdateRequest.foods());
+            List<Food> foods = getFoodsFromDb(orderUpdateRequest.foods());
+            order.setFoods(foods);
+            order.setTotalAmount(calculateTotalAmount(foods));
         }
 
         if (orderUpdateRequest.address() != null) {
@@ -85,10 +185,125 @@ public class OrderService {
             order.setDeliveryType(orderUpdateRequest.deliveryType());
         }
 
-        if (orderUpdateRequest.status() != null) {
-            order.setStatus(orderUpdateRequest.status());
+        orderDAO.update(order);
+        if (orderUpdateRequest.status() != null && orderUpdateRequest.status() != previousStatus) {
+            // Status przeczytany w tej transakcji jest oczekiwanym - równoległa zmiana kończy się konfliktem
+            changeStatus(id, previousStatus, orderUpdateRequest.status(), false);
         }
+    }
 
-        orderDAO.update(order);
+    @Transactional
+    public void updateStatus(Integer id, OrderStatusUpdateRequest orderStatusUpdateRequest) {
+        if (orderStatusUpdateRequest == null || orderStatusUpdateRequest.status() == null) {
+            throw new NotValidResourceException("Missing data");
+        }
+
+        if (orderStatusUpdateRequest.expectedStatus() != null) {
+            changeStatus(id, orderStatusUpdateRequest.expectedStatus(), orderStatusUpdateRequest.status(), false);
+        } else {
+            changeStatus(id, getStatus(id), orderStatusUpdateRequest.status(), true);
+        }
+    }
+
+    // Bez blokad: warunkowy UPDATE, a gdy status zmienił się w międzyczasie - ponowna próba od aktualnego
+    private void changeStatus(Integer id, Order.OrderStatus expected, Order.OrderStatus status, boolean retry) {
+        Order.OrderStatus current = expected;
+        for (int attempt = 1; ; attempt++) {
+            if (retry && current == status) {
+                return;
+            }
+            if (current == null || !current.canChangeTo(status)) {
+                throw new NotValidResourceException(
+                        "Order status cannot change from [%s] to [%s]".formatted(current, status));
+            }
+
+            if (orderDAO.updateStatus(id, current, status)) {
+                statusChanges.increment();
+                outboxService.record(new OrderStatusChanged(id, orderDAO.getRestaurantIds(id), current, status,
+                        LocalDateTime.now()));
+                return;
+            }
+
+            statusConflicts.increment();
+            Order.OrderStatus actual = getStatus(id);
+            if (!retry || attempt == STATUS_CHANGE_ATTEMPTS) {
+                throw new ResourceConflictException(
+                        "Order with id [%s] is in status [%s], not [%s]".formatted(id, actual, current));
+            }
+            current = actual;
+        }
+    }
+
+    private Order.OrderStatus getStatus(Integer id) {
+        return orderDAO.getStatusById(id)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Order with id [%s] not found".formatted(id))
+                );
+    }
+
+    public long getStatusChanges() {
+        return statusChanges.sum();
+    }
+
+    public long getStatusConflicts() {
+        return statusConflicts.sum();
+    }
+
+    private void validateRegistrationRequest(OrderRegistrationRequest orderRegistrationRequest) {
+        if (orderRegistrationRequest == null || orderRegistrationRequest.customer() == null ||
+                orderRegistrationRequest.foods() == null || orderRegistrationRequest.address() == null ||
+                orderRegistrationRequest.deliveryType() == null) {
+            throw new NotValidResourceException("Missing data");
+        }
+    }
+
+    private Order createOrder(OrderRegistrationRequest orderRegistrationRequest, Customer customer, List<Food> foods) {
+        var address = orderRegistrationRequest.address();
+        var deliveryType = orderRegistrationRequest.deliveryType();
+
+        Order order = new Order(customer, foods, address, deliveryType);
+        order.setTotalAmount(calculateTotalAmount(foods));
+        return order;
+    }
+
+    private List<Food> getFoodsFromDb(List<Food> requestedFoods) {
+        return resolveFoods(requestedFoods, getFoodsById(requestedFoods));
+    }
+
+    private Map<Integer, Food> getFoodsById(List<Food> requestedFoods) {
+        Set<Integer> foodIds = requestedFoods.stream()
+                .filter(Objects::nonNull)
+                .map(Food::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return foodDAO.getByIds(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+    }
+
+    private List<Food> resolveFoods(List<Food> requestedFoods, Map<Integer, Food> foodsById) {
+        // Zachowujemy kolejność i powtórzenia z koszyka
+        List<Food> foods = new ArrayList<>();
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Food food : requestedFoods) {
+            Integer foodId = food == null ? null : food.getId();
+            Food foodFromDb = foodsById.get(foodId);
+            if (foodFromDb == null) {
+                missingIds.add(foodId);
+            } else {
+                foods.add(foodFromDb);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Food with id %s not found".formatted(missingIds));
+        }
+        return foods;
+    }
+
+    // Suma liczona raz przy zapisie - cena z chwili zamówienia zostaje w zamówieniu
+    private BigDecimal calculateTotalAmount(List<Food> foods) {
+        return foods.stream()
+                .map(Food::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.mblaszczykowski.order;
+
+import com.mblaszczykowski.outbox.OutboxPayload;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OrderStatusChanged(Integer orderId, List<Integer> restaurantIds, Order.OrderStatus previousStatus,
+                                 Order.OrderStatus status, LocalDateTime changedAt) implements OutboxPayload {
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
@@ -0,0 +1,4 @@
+package com.mblaszczykowski.order;
+
+public record OrderStatusUpdateRequest(Order.OrderStatus expectedStatus, Order.OrderStatus status) {
+}
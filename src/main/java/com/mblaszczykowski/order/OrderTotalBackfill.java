@@ -0,0 +1,41 @@
+package com.mblaszczykowski.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code orders.total_amount} for orders created before the total was stored as a column.
+ * Runs once on startup in small batches, so it never locks the whole orders table.
+ */
+@Component
+public class OrderTotalBackfill {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderTotalBackfill.class);
+
+    private final OrderDAO orderDAO;
+    private final int batchSize;
+
+    public OrderTotalBackfill(@Qualifier("order-jpa") OrderDAO orderDAO,
+                              @Value("${orders.total-backfill.batch-size:500}") int batchSize) {
+        this.orderDAO = orderDAO;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        int updated;
+        do {
+            updated = orderDAO.backfillTotalAmounts(batchSize);
+            total += updated;
+        } while (updated == batchSize);
+
+        if (total > 0) {
+            LOGGER.info("Backfilled total amount for {} orders", total);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mblaszczykowski.order;
+
+/**
+ * Versions behind the JSON of one order: the order itself, its customer, and the sum of the versions of its food
+ * and their restaurants. Any change to what {@code GET api/v1/orders/{id}} returns changes the {@link #eTag()}.
+ */
+public record OrderVersion(Long order, Long customer, Long foods) {
+    public static OrderVersion of(Order order) {
+        long foods = order.getFoods().stream()
+                .mapToLong(food -> food.getVersion() + food.getRestaurant().getVersion())
+                .sum();
+        return new OrderVersion(order.getVersion(), order.getCustomer().getVersion(), foods);
+    }
+
+    public String eTag() {
+        return "%d-%d-%d".formatted(order, customer, foods);
+    }
+}
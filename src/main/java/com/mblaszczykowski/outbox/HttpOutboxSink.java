@@ -0,0 +1,53 @@
+package com.mblaszczykowski.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts each batch as a JSON array to {@code outbox.http-sink.url}; anything but a 2xx response fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.http-sink.url")
+public class HttpOutboxSink implements OutboxSink {
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+
+    public HttpOutboxSink(ObjectMapper objectMapper,
+                          @Value("${outbox.http-sink.url}") URI url,
+                          @Value("${outbox.http-sink.timeout:5s}") Duration timeout) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(messages)))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("%s answered %s".formatted(url, response.statusCode()));
+        }
+    }
+}
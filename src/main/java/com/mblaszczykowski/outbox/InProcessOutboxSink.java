@@ -0,0 +1,45 @@
+package com.mblaszczykowski.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers events published by this instance to subscribers inside the application, e.g. tests or push endpoints.
+ * Events dispatched by another instance never reach it - see {@link PostgresNotifyOutboxSink} for a feed of all of them.
+ */
+@Component
+public class InProcessOutboxSink implements OutboxSink, OutboxFeed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InProcessOutboxSink.class);
+
+    private final List<Consumer<OutboxMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public AutoCloseable subscribe(Consumer<OutboxMessage> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            for (Consumer<OutboxMessage> subscriber : subscribers) {
+                // Błąd jednego subskrybenta nie cofa paczki dla pozostałych ujść
+                try {
+                    subscriber.accept(message);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Outbox subscriber failed on event {}", message.id(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.mblaszczykowski.outbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxDAO {
+    void add(OutboxEvent event, Collection<String> sinks);
+
+    List<OutboxDelivery> lockPending(String sink, int limit);
+
+    List<OutboxEvent> getEvents(Collection<Long> ids);
+
+    void delivered(String sink, Collection<Long> eventIds);
+
+    void failed(String sink, Collection<Long> eventIds, String leaseId, String error, LocalDateTime nextAttemptAt);
+
+    long countPending();
+}
@@ -0,0 +1,123 @@
+package com.mblaszczykowski.outbox;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * An outbox event still waiting for one sink. While a dispatcher publishes it, the delivery is leased, so no other
+ * instance takes it until {@code leasedUntil}.
+ */
+@Entity
+@Table(name = "outbox_delivery",
+        uniqueConstraints = @UniqueConstraint(name = "outbox_delivery_sink_event_key", columnNames = {"sink", "event_id"}))
+public class OutboxDelivery {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", updatable = false)
+    private Long id;
+
+    @Column(name = "sink", nullable = false, updatable = false, length = 32)
+    private String sink;
+
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private Long eventId;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    @Column(name = "lease_id", length = 36)
+    private String leaseId;
+
+    @Column(name = "leased_until")
+    private LocalDateTime leasedUntil;
+
+    public OutboxDelivery() {
+    }
+
+    public OutboxDelivery(String sink, OutboxEvent event) {
+        this.sink = sink;
+        this.eventId = event.getId();
+        this.nextAttemptAt = event.getCreatedAt();
+    }
+
+    static String truncateError(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    boolean isDue(LocalDateTime now) {
+        return !nextAttemptAt.isAfter(now) && (leasedUntil == null || leasedUntil.isBefore(now));
+    }
+
+    void lease(String leaseId, LocalDateTime leasedUntil) {
+        this.leaseId = leaseId;
+        this.leasedUntil = leasedUntil;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSink() {
+        return sink;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public String getLeaseId() {
+        return leaseId;
+    }
+
+    public LocalDateTime getLeasedUntil() {
+        return leasedUntil;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxDelivery{" +
+                "sink='" + sink + '\'' +
+                ", eventId=" + eventId +
+                ", attempts=" + attempts +
+                ", leasedUntil=" + leasedUntil +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OutboxDelivery that)) return false;
+        return Objects.equals(sink, that.sink) && Objects.equals(eventId, that.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sink, eventId);
+    }
+}
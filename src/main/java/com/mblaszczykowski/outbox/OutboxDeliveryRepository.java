@@ -0,0 +1,36 @@
+package com.mblaszczykowski.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxDeliveryRepository extends JpaRepository<OutboxDelivery, Long> {
+    // Bez SKIP LOCKED - paczka ujścia zawsze zaczyna się od najstarszego zdarzenia, więc druga instancja czeka
+    // na krótki commit pierwszej i widzi już jej dzierżawę zamiast brać kolejne zdarzenia
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM OutboxDelivery d WHERE d.sink = :sink ORDER BY d.eventId")
+    List<OutboxDelivery> lockPending(@Param("sink") String sink, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxDelivery d WHERE d.sink = :sink AND d.eventId IN :eventIds")
+    int deleteBySinkAndEventIds(@Param("sink") String sink, @Param("eventIds") Collection<Long> eventIds);
+
+    // Tylko nasza dzierżawa - po jej wygaśnięciu zdarzenia mogła już wziąć inna instancja
+    @Modifying
+    @Query("""
+            UPDATE OutboxDelivery d SET d.attempts = d.attempts + 1, d.lastError = :error,
+                    d.nextAttemptAt = :nextAttemptAt, d.leaseId = NULL, d.leasedUntil = NULL
+            WHERE d.sink = :sink AND d.eventId IN :eventIds AND d.leaseId = :leaseId
+            """)
+    int failed(@Param("sink") String sink, @Param("eventIds") Collection<Long> eventIds,
+               @Param("leaseId") String leaseId, @Param("error") String error,
+               @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+}
@@ -0,0 +1,200 @@
+package com.mblaszczykowski.outbox;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes recorded outbox events to every {@link OutboxSink} in batches of {@code outbox.batch-size}.
+ * <p>
+ * Every event waits in a delivery row per sink, and each sink is served on its own. A short transaction leases
+ * the sink's oldest pending deliveries for {@code outbox.lease}, the sink gets them with no transaction or row
+ * lock held, and a second transaction deletes the deliveries - and an event once no sink waits for it. When a
+ * sink fails, only its deliveries are retried, after {@code outbox.retry-backoff} doubled with every failed
+ * attempt, and its later events wait behind them: each sink gets the events in id order, except one whose
+ * transaction committed after a higher id was published. Several instances share the work sink by sink.
+ * It runs right after a commit that recorded events and otherwise every {@code outbox.poll-interval}.
+ * Delivery is at least once - an expired lease or a crash before the second transaction repeats a batch.
+ */
+@Component
+public class OutboxDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(10);
+
+    private final OutboxDAO outboxDAO;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryBackoff;
+    private final Duration lease;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile boolean running;
+    private Thread thread;
+
+    public OutboxDispatcher(@Qualifier("outbox-jpa") OutboxDAO outboxDAO, List<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${outbox.batch-size:100}") int batchSize,
+                            @Value("${outbox.poll-interval:1s}") Duration pollInterval,
+                            @Value("${outbox.retry-backoff:5s}") Duration retryBackoff,
+                            @Value("${outbox.lease:1m}") Duration lease) {
+        this.outboxDAO = outboxDAO;
+        this.sinks = List.copyOf(sinks);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryBackoff = retryBackoff;
+        this.lease = lease;
+        if (new HashSet<>(getSinkNames()).size() != this.sinks.size()) {
+            throw new IllegalStateException("Outbox sink names must be unique, got " + getSinkNames());
+        }
+    }
+
+    public List<String> getSinkNames() {
+        return sinks.stream().map(OutboxSink::name).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "outbox-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(pollInterval.toMillis());
+            thread = null;
+        }
+    }
+
+    public void wakeUp() {
+        // Jedno zezwolenie wystarczy - kolejna paczka i tak zabierze wszystkie zaległe zdarzenia
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // Pełna paczka - w tabeli może czekać więcej, od razu następna
+                if (publishBatch() < batchSize) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not read outbox events", e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public int publishBatch() {
+        int largest = 0;
+        for (OutboxSink sink : sinks) {
+            largest = Math.max(largest, publishBatch(sink));
+        }
+        return largest;
+    }
+
+    private int publishBatch(OutboxSink sink) {
+        String leaseId = UUID.randomUUID().toString();
+        Claim claim = transactionTemplate.execute(status -> claim(sink.name(), leaseId));
+        if (claim == null) {
+            return 0;
+        }
+
+        // Poza transakcją - wolne ujście nie trzyma połączenia ani blokad na czas wysyłki
+        List<Long> eventIds = claim.messages().stream().map(OutboxMessage::id).toList();
+        try {
+            sink.publish(claim.messages());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failedBatches.increment();
+            LOGGER.warn("Outbox sink {} failed on {} events starting at {}", sink.name(), eventIds.size(),
+                    eventIds.get(0), e);
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(claim.attempts() + 1));
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxDAO.failed(sink.name(), eventIds, leaseId, e.getMessage(), nextAttemptAt));
+            return eventIds.size();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outboxDAO.delivered(sink.name(), eventIds));
+        published.add(eventIds.size());
+        return eventIds.size();
+    }
+
+    private Claim claim(String sink, String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxDelivery> claimed = new ArrayList<>();
+        // Dzierżawione albo czekające na ponowienie zatrzymują kolejne zdarzenia ujścia - kolejność się nie zmienia
+        for (OutboxDelivery delivery : outboxDAO.lockPending(sink, batchSize)) {
+            if (!delivery.isDue(now)) {
+                break;
+            }
+            delivery.lease(leaseId, now.plus(lease));
+            claimed.add(delivery);
+        }
+        if (claimed.isEmpty()) {
+            return null;
+        }
+
+        List<OutboxMessage> messages = outboxDAO.getEvents(claimed.stream().map(OutboxDelivery::getEventId).toList())
+                .stream().map(OutboxEvent::toMessage).toList();
+        return new Claim(messages, claimed.get(0).getAttempts());
+    }
+
+    Duration backoff(int attempt) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return backoff.compareTo(MAX_RETRY_BACKOFF) > 0 ? MAX_RETRY_BACKOFF : backoff;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    private record Claim(List<OutboxMessage> messages, int attempts) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.mblaszczykowski.outbox;
+
+import java.util.function.Consumer;
+
+/**
+ * Published outbox events for consumers inside the application, e.g. push endpoints.
+ */
+public interface OutboxFeed {
+    AutoCloseable subscribe(Consumer<OutboxMessage> subscriber);
+}
@@ -0,0 +1,57 @@
+package com.mblaszczykowski.outbox;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Timed(value = "dao.calls", histogram = true)
+@Repository("outbox-jpa")
+public class OutboxJPADataAccessService implements OutboxDAO {
+    private final OutboxRepository outboxRepository;
+    private final OutboxDeliveryRepository deliveryRepository;
+
+    public OutboxJPADataAccessService(OutboxRepository outboxRepository, OutboxDeliveryRepository deliveryRepository) {
+        this.outboxRepository = outboxRepository;
+        this.deliveryRepository = deliveryRepository;
+    }
+
+    @Override
+    public void add(OutboxEvent event, Collection<String> sinks) {
+        // IDENTITY - id zdarzenia jest znane zaraz po zapisie
+        outboxRepository.save(event);
+        deliveryRepository.saveAll(sinks.stream().map(sink -> new OutboxDelivery(sink, event)).toList());
+    }
+
+    @Override
+    public List<OutboxDelivery> lockPending(String sink, int limit) {
+        return deliveryRepository.lockPending(sink, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<OutboxEvent> getEvents(Collection<Long> ids) {
+        return outboxRepository.findByIdInOrderById(ids);
+    }
+
+    @Override
+    public void delivered(String sink, Collection<Long> eventIds) {
+        // Ujścia kończące te same zdarzenia czekają na siebie - ostatnie widzi, że żadne już na nie nie czeka
+        outboxRepository.lockByIds(eventIds);
+        deliveryRepository.deleteBySinkAndEventIds(sink, eventIds);
+        outboxRepository.deleteDeliveredToAllSinks(eventIds);
+    }
+
+    @Override
+    public void failed(String sink, Collection<Long> eventIds, String leaseId, String error,
+                       LocalDateTime nextAttemptAt) {
+        deliveryRepository.failed(sink, eventIds, leaseId, OutboxDelivery.truncateError(error), nextAttemptAt);
+    }
+
+    @Override
+    public long countPending() {
+        return outboxRepository.count();
+    }
+}
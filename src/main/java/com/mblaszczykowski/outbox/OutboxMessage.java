@@ -0,0 +1,13 @@
+package com.mblaszczykowski.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event as handed to the sinks. {@code id} grows with every recorded event, so consumers can use it to drop
+ * the duplicates that at-least-once delivery allows.
+ */
+public record OutboxMessage(Long id, String eventType, Integer aggregateId, LocalDateTime createdAt,
+                            @JsonRawValue String payload) {
+}
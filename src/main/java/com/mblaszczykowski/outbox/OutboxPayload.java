@@ -0,0 +1,13 @@
+package com.mblaszczykowski.outbox;
+
+/**
+ * Event body stored in the outbox as JSON. The simple class name becomes the event type.
+ */
+public interface OutboxPayload {
+    // Zdarzenia jednego agregatu (zamówienia) trafiają do ujść w kolejności zapisu
+    Integer aggregateId();
+
+    default String eventType() {
+        return getClass().getSimpleName();
+    }
+}
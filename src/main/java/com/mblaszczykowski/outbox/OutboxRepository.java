@@ -0,0 +1,27 @@
+package com.mblaszczykowski.outbox;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByIdInOrderById(Collection<Long> ids);
+
+    // W kolejności id - ujścia kończące te same zdarzenia nie zakleszczą się na nich
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id IN :ids ORDER BY e.id")
+    List<OutboxEvent> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            DELETE FROM OutboxEvent e WHERE e.id IN :ids
+            AND NOT EXISTS (SELECT d FROM OutboxDelivery d WHERE d.eventId = e.id)
+            """)
+    int deleteDeliveredToAllSinks(@Param("ids") Collection<Long> ids);
+}
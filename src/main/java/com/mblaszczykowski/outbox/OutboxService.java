@@ -0,0 +1,55 @@
+package com.mblaszczykowski.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records events in the outbox table, in the transaction that makes the change they describe: the event is
+ * stored exactly when the change is committed. {@link OutboxDispatcher} delivers it afterwards.
+ */
+@Service
+public class OutboxService {
+    private final OutboxDAO outboxDAO;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(@Qualifier("outbox-jpa") OutboxDAO outboxDAO, OutboxDispatcher outboxDispatcher,
+                         ObjectMapper objectMapper) {
+        this.outboxDAO = outboxDAO;
+        this.outboxDispatcher = outboxDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxPayload payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + payload.eventType(), e);
+        }
+        outboxDAO.add(new OutboxEvent(payload.eventType(), payload.aggregateId(), json), outboxDispatcher.getSinkNames());
+
+        // Dispatcher nie czeka do następnego odpytania tabeli
+        afterCommit(outboxDispatcher::wakeUp);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
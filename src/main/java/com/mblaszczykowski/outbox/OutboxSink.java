@@ -0,0 +1,14 @@
+package com.mblaszczykowski.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of outbox events. Every {@code OutboxSink} bean gets every event, in id order; a batch that fails
+ * is retried in that sink only, before its later events, and a sink may see the same event more than once.
+ * {@link #name()} identifies the sink's pending deliveries, so it must be unique and stay the same across restarts.
+ */
+public interface OutboxSink {
+    String name();
+
+    void publish(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,215 @@
+package com.mblaszczykowski.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fans outbox events out to every instance through PostgreSQL {@code NOTIFY}, so a push endpoint sees the events
+ * dispatched by any instance, not only by its own.
+ * <p>
+ * As a sink it sends each event as a notification on the {@code outbox_events} channel in one statement, so
+ * PostgreSQL delivers the batch only once it commits. Every instance keeps one connection to
+ * the primary, outside the pool, listening on the channel and hands the notifications to its subscribers.
+ * A lost connection is reopened every {@code outbox.notifications.reconnect-interval}; events sent meanwhile
+ * do not reach that instance. An event longer than a notification can carry (8000 bytes) is skipped.
+ * <p>
+ * On a database other than PostgreSQL, or with {@code outbox.notifications.enabled=false}, subscribers only get
+ * the events dispatched by their own instance, which is enough for a single instance.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "outbox.notifications.enabled", havingValue = "true", matchIfMissing = true)
+public class PostgresNotifyOutboxSink implements OutboxSink, OutboxFeed, SmartInitializingSingleton {
+    static final String CHANNEL = "outbox_events";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresNotifyOutboxSink.class);
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    private static final Duration LISTEN_TIMEOUT = Duration.ofMillis(500);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource listenerDataSource;
+    private final ObjectMapper objectMapper;
+    private final Duration reconnectInterval;
+    private final InProcessOutboxSink subscribers = new InProcessOutboxSink();
+
+    private volatile boolean notifying;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    @Autowired
+    public PostgresNotifyOutboxSink(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                    ObjectMapper objectMapper,
+                                    @Value("${outbox.notifications.reconnect-interval:5s}") Duration reconnectInterval) {
+        // Połączenie spoza puli - LISTEN zajmuje je na cały czas działania aplikacji
+        this(jdbcTemplate, dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build(),
+                objectMapper, reconnectInterval);
+    }
+
+    PostgresNotifyOutboxSink(JdbcTemplate jdbcTemplate, DataSource listenerDataSource, ObjectMapper objectMapper,
+                             Duration reconnectInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listenerDataSource = listenerDataSource;
+        this.objectMapper = objectMapper;
+        this.reconnectInterval = reconnectInterval;
+    }
+
+    @Override
+    public String name() {
+        return "pg-notify";
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) throws JsonProcessingException {
+        // Bez NOTIFY zdarzenia trafiają tylko do subskrybentów tej instancji
+        if (!notifying) {
+            subscribers.publish(messages);
+            return;
+        }
+
+        List<String> notifications = new ArrayList<>();
+        for (OutboxMessage message : messages) {
+            String notification = objectMapper.writeValueAsString(message);
+            // Za długi NOTIFY wycofałby całą paczkę, i tak przy każdej kolejnej próbie
+            if (notification.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                LOGGER.warn("Outbox event {} does not fit in a notification, other instances will not see it",
+                        message.id());
+                continue;
+            }
+            notifications.add(notification);
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        // Jedno zapytanie na paczkę, powiadomienia w kolejności zdarzeń
+        jdbcTemplate.execute("""
+                SELECT pg_notify(?, notification.payload)
+                FROM unnest(?) WITH ORDINALITY AS notification(payload, position)
+                ORDER BY notification.position
+                """, (PreparedStatementCallback<Void>) statement -> {
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, statement.getConnection().createArrayOf("text", notifications.toArray()));
+            statement.executeQuery().close();
+            return null;
+        });
+    }
+
+    @Override
+    public AutoCloseable subscribe(Consumer<OutboxMessage> subscriber) {
+        return subscribers.subscribe(subscriber);
+    }
+
+    // Przed startem serwera - strumienie otwarte zaraz po nim nie tracą pierwszych zdarzeń
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            LOGGER.info("{} has no LISTEN/NOTIFY, outbox events only reach subscribers of this instance", database);
+            return;
+        }
+        start();
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        notifying = true;
+        running = true;
+        thread = new Thread(this::run, "outbox-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(LISTEN_TIMEOUT.multipliedBy(2).toMillis());
+            thread = null;
+        }
+    }
+
+    boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) LISTEN_TIMEOUT.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("Lost outbox notifications connection, reconnecting in {}", reconnectInterval, e);
+                try {
+                    Thread.sleep(reconnectInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listening = false;
+            }
+        }
+    }
+
+    private void deliver(String notification) {
+        OutboxMessage message;
+        try {
+            JsonNode node = objectMapper.readTree(notification);
+            // Treść zdarzenia jest zapisana jako surowy JSON - wraca do wiadomości jako tekst
+            message = new OutboxMessage(node.path("id").asLong(), node.path("eventType").asText(),
+                    node.hasNonNull("aggregateId") ? node.get("aggregateId").asInt() : null,
+                    objectMapper.treeToValue(node.get("createdAt"), LocalDateTime.class),
+                    node.path("payload").toString());
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Could not read outbox notification {}", notification, e);
+            return;
+        }
+        subscribers.publish(List.of(message));
+    }
+}
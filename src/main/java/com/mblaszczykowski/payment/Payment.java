@@ -4,10 +4,16 @@ import com.mblaszczykowski.order.Order;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 @Entity
-@Table(name = "payment")
+@Table(name = "payment", uniqueConstraints = {
+        @UniqueConstraint(
+                name = "payment_order_id_unique",
+                columnNames = "order_id"
+        )
+})
 public class Payment {
     public void setId(Integer paymentId) {
         this.id = paymentId;
@@ -47,14 +53,24 @@ public class Payment {
     @Enumerated(EnumType.STRING)
     private PaymentStatus paymentStatus;
 
+    // Klucz z nagłówka Idempotency-Key żądania, które utworzyło płatność
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
     public Payment() {
     }
 
     public Payment(Order order, PaymentMethod paymentMethod) {
+        this(order, paymentMethod, null);
+    }
+
+    public Payment(Order order, PaymentMethod paymentMethod, String idempotencyKey) {
         this.order = order;
-        this.paymentTime = LocalDateTime.now();
+        // Dokładność kolumny timestamp - powtórzona odpowiedź z bazy jest identyczna z pierwszą
+        this.paymentTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         this.paymentMethod = paymentMethod;
         this.paymentStatus = PaymentStatus.IN_PROGRESS;
+        this.idempotencyKey = idempotencyKey;
     }
 
     public Integer getId() {
@@ -77,6 +93,10 @@ public class Payment {
         this.paymentTime = paymentTime;
     }
 
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
     public PaymentStatus getPaymentStatus() {
         return paymentStatus;
     }
@@ -85,6 +105,10 @@ public class Payment {
         this.paymentStatus = paymentStatus;
     }
 
+    public boolean hasIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey != null && idempotencyKey.equals(this.idempotencyKey);
+    }
+
     @Override
     public String toString() {
         return "Payment{" +
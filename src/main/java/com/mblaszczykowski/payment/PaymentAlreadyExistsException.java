@@ -0,0 +1,20 @@
+package com.mblaszczykowski.payment;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+
+/**
+ * The order already has a payment, found before the insert or reported by the unique constraint on
+ * {@code payment.order_id}.
+ */
+public class PaymentAlreadyExistsException extends NotValidResourceException {
+    private final Integer orderId;
+
+    public PaymentAlreadyExistsException(Integer orderId) {
+        super("Payment for order with id [%s] already exists".formatted(orderId));
+        this.orderId = orderId;
+    }
+
+    public Integer getOrderId() {
+        return orderId;
+    }
+}
@@ -11,9 +11,11 @@ import java.util.List;
 @Validated
 public class PaymentController {
     private final PaymentService paymentService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PaymentIdempotencyService paymentIdempotencyService) {
         this.paymentService = paymentService;
+        this.paymentIdempotencyService = paymentIdempotencyService;
     }
 
     @GetMapping
@@ -27,8 +29,9 @@ public class PaymentController {
     }
 
     @PostMapping
-    public void addPayment(@RequestBody @Valid PaymentRegistrationRequest request) {
-        paymentService.add(request);
+    public PaymentResponse addPayment(@RequestBody @Valid PaymentRegistrationRequest request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return paymentIdempotencyService.add(request, idempotencyKey);
     }
 
     @PutMapping("{id}")
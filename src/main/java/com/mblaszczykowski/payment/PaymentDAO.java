@@ -13,4 +13,6 @@ public interface PaymentDAO {
     void update(Payment payment);
 
     boolean existsByOrderId(Integer orderId);
+
+    Optional<Payment> getByOrderId(Integer orderId);
 }
@@ -0,0 +1,119 @@
+package com.mblaszczykowski.payment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mblaszczykowski.exception.NotValidResourceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes {@code POST api/v1/payments} with an {@code Idempotency-Key} header safe to retry: every request with
+ * the same key gets the result of the first one instead of a new payment or an error.
+ * <p>
+ * Results are kept in memory for {@code payments.idempotency.ttl}, at most {@code payments.idempotency.maximum-size}
+ * keys; a request that arrives while the first one with its key is still running waits for its result. The key is
+ * also stored with the payment, so a retry that reaches another instance or comes after the entry expired still
+ * gets the original payment back from the database. Failed requests are not remembered and may be retried.
+ */
+@Service
+public class PaymentIdempotencyService {
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(Integer orderId, Payment.PaymentMethod paymentMethod, CompletableFuture<PaymentResponse> result) {
+        boolean matches(PaymentRegistrationRequest request) {
+            return orderId.equals(request.order().getId()) && paymentMethod == request.paymentMethod();
+        }
+    }
+
+    private final PaymentService paymentService;
+    private final Cache<String, Entry> results;
+    private final LongAdder memoryReplays = new LongAdder();
+    private final LongAdder databaseReplays = new LongAdder();
+
+    public PaymentIdempotencyService(PaymentService paymentService,
+                                     @Value("${payments.idempotency.ttl:24h}") Duration ttl,
+                                     @Value("${payments.idempotency.maximum-size:100000}") long maximumSize) {
+        this.paymentService = paymentService;
+        this.results = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public PaymentResponse add(PaymentRegistrationRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return paymentService.add(request);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new NotValidResourceException("Idempotency-Key must have 1 to %s characters".formatted(MAX_KEY_LENGTH));
+        }
+        if (request == null || request.order() == null || request.order().getId() == null) {
+            throw new NotValidResourceException("Missing data");
+        }
+
+        Entry entry = new Entry(request.order().getId(), request.paymentMethod(), new CompletableFuture<>());
+        Entry previous = results.asMap().putIfAbsent(idempotencyKey, entry);
+        if (previous != null) {
+            if (!previous.matches(request)) {
+                throw new NotValidResourceException(
+                        "Idempotency-Key [%s] was already used for a different payment".formatted(idempotencyKey));
+            }
+            PaymentResponse response = await(previous.result());
+            memoryReplays.increment();
+            return response;
+        }
+
+        try {
+            PaymentResponse response = addOrReplay(request, idempotencyKey);
+            entry.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Oczekujący dostają ten sam błąd, kolejna próba z tym kluczem wykona się od nowa
+            results.asMap().remove(idempotencyKey, entry);
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private PaymentResponse addOrReplay(PaymentRegistrationRequest request, String idempotencyKey) {
+        try {
+            return paymentService.add(request, idempotencyKey);
+        } catch (PaymentAlreadyExistsException e) {
+            // Pierwsze żądanie z tym kluczem trafiło na inną instancję albo jego wynik wygasł z pamięci
+            Payment payment = paymentService.getByOrderId(e.getOrderId())
+                    .filter(existing -> existing.hasIdempotencyKey(idempotencyKey))
+                    .orElseThrow(() -> e);
+            databaseReplays.increment();
+            return PaymentResponse.of(payment);
+        }
+    }
+
+    private static PaymentResponse await(CompletableFuture<PaymentResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getMemoryReplays() {
+        return memoryReplays.sum();
+    }
+
+    public long getDatabaseReplays() {
+        return databaseReplays.sum();
+    }
+
+    public long getKeys() {
+        return results.estimatedSize();
+    }
+}
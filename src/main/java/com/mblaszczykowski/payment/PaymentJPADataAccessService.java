@@ -1,10 +1,13 @@
 package com.mblaszczykowski.payment;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository("payment-jpa")
 public class PaymentJPADataAccessService implements PaymentDAO {
     private final PaymentRepository paymentRepository;
@@ -14,6 +17,7 @@ public class PaymentJPADataAccessService implements PaymentDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Payment> getAll() {
         return paymentRepository.findAll();
     }
@@ -24,6 +28,7 @@ public class PaymentJPADataAccessService implements PaymentDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Payment> getById(Integer id) {
         return paymentRepository.findById(id);
     }
@@ -34,7 +39,15 @@ public class PaymentJPADataAccessService implements PaymentDAO {
     }
 
     @Override
+    @Transactional
     public boolean existsByOrderId(Integer orderId) {
         return paymentRepository.existsByOrderId(orderId);
     }
+
+    // Czytane po konflikcie zapisu, więc z primary - replika może jeszcze nie mieć zwycięskiej płatności
+    @Override
+    @Transactional
+    public Optional<Payment> getByOrderId(Integer orderId) {
+        return paymentRepository.findByOrderId(orderId);
+    }
 }
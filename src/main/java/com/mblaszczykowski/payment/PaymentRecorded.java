@@ -0,0 +1,19 @@
+package com.mblaszczykowski.payment;
+
+import com.mblaszczykowski.outbox.OutboxPayload;
+
+import java.time.LocalDateTime;
+
+public record PaymentRecorded(Integer paymentId, Integer orderId, Payment.PaymentMethod paymentMethod,
+                              Payment.PaymentStatus paymentStatus, LocalDateTime paymentTime) implements OutboxPayload {
+    public static PaymentRecorded of(Payment payment, Payment.PaymentMethod paymentMethod) {
+        return new PaymentRecorded(payment.getId(), payment.getOrder().getId(), paymentMethod,
+                payment.getPaymentStatus(), payment.getPaymentTime());
+    }
+
+    // Płatność należy do historii zamówienia - ta sama kolejność co zdarzenia zamówienia
+    @Override
+    public Integer aggregateId() {
+        return orderId;
+    }
+}
@@ -2,6 +2,10 @@ package com.mblaszczykowski.payment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     boolean existsByOrderId(Integer orderId);
+
+    Optional<Payment> findByOrderId(Integer orderId);
 }
@@ -0,0 +1,11 @@
+package com.mblaszczykowski.payment;
+
+import java.time.LocalDateTime;
+
+public record PaymentResponse(Integer paymentId, Integer orderId, Payment.PaymentMethod paymentMethod,
+                              Payment.PaymentStatus paymentStatus, LocalDateTime paymentTime) {
+    public static PaymentResponse of(Payment payment) {
+        return new PaymentResponse(payment.getId(), payment.getOrder().getId(), payment.getPaymentMethod(),
+                payment.getPaymentStatus(), payment.getPaymentTime());
+    }
+}
@@ -3,26 +3,33 @@ package com.mblaszczykowski.payment;
 import com.mblaszczykowski.exception.NotValidResourceException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.order.OrderDAO;
+import com.mblaszczykowski.outbox.OutboxService;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Validated
 public class PaymentService {
     private final PaymentDAO paymentDAO;
     private final OrderDAO orderDAO;
+    private final OutboxService outboxService;
 
     public PaymentService(
             @Qualifier("order-jpa") OrderDAO orderDAO,
-            @Qualifier("payment-jpa") PaymentDAO paymentDAO
+            @Qualifier("payment-jpa") PaymentDAO paymentDAO,
+            OutboxService outboxService
     ) {
         this.paymentDAO = paymentDAO;
         this.orderDAO = orderDAO;
+        this.outboxService = outboxService;
     }
 
     public Payment getById(Integer id) {
@@ -36,7 +43,13 @@ public class PaymentService {
         return paymentDAO.getAll();
     }
 
-    public void add(@NotNull @Valid PaymentRegistrationRequest paymentRegistrationRequest) {
+    @Transactional
+    public PaymentResponse add(@NotNull @Valid PaymentRegistrationRequest paymentRegistrationRequest) {
+        return add(paymentRegistrationRequest, null);
+    }
+
+    @Transactional
+    public PaymentResponse add(@NotNull @Valid PaymentRegistrationRequest paymentRegistrationRequest, String idempotencyKey) {
         if (paymentRegistrationRequest.order() == null || paymentRegistrationRequest.order().getId() == null) {
             throw new NotValidResourceException("Missing data");
         }
@@ -47,18 +60,30 @@ public class PaymentService {
 
         // Sprawdź czy płatność dla zamówienia już istnieje
         if (paymentDAO.existsByOrderId(orderId)) {
-            throw new NotValidResourceException("Payment for order with id [%s] already exists".formatted(orderId));
+            throw new PaymentAlreadyExistsException(orderId);
+        }
+
+        // Add payment record - przed zmianą zamówienia, żeby przegrany wyścig niczego nie ruszył
+        Payment payment = new Payment(order, paymentRegistrationRequest.paymentMethod(), idempotencyKey);
+        try {
+            paymentDAO.add(payment);
+        } catch (DataIntegrityViolationException e) {
+            // Równoległe żądanie zdążyło zapisać płatność między sprawdzeniem a zapisem
+            throw new PaymentAlreadyExistsException(orderId);
         }
 
-        // Update order status
-        order.setPaid(true);
-        orderDAO.update(order);
+        // Update order status - jednym UPDATE-em, bez nadpisywania równoległej zmiany statusu zamówienia
+        orderDAO.markPaid(orderId);
+
+        outboxService.record(PaymentRecorded.of(payment, paymentRegistrationRequest.paymentMethod()));
+        return PaymentResponse.of(payment);
+    }
 
-        // Add payment record
-        Payment payment = new Payment(order, paymentRegistrationRequest.paymentMethod());
-        paymentDAO.add(payment);
+    public Optional<Payment> getByOrderId(Integer orderId) {
+        return paymentDAO.getByOrderId(orderId);
     }
 
+    @Transactional
     public void updatePayment(Integer id, @NotNull @Valid PaymentUpdateRequest paymentUpdateRequest) {
         var payment = paymentDAO.getById(id)
                 .orElseThrow(() ->
@@ -0,0 +1,11 @@
+package com.mblaszczykowski.restaurant;
+
+/**
+ * Version of the whole catalog, taken from the per-restaurant menu versions. Adding or removing a restaurant
+ * changes the count or the highest id, and every change to a restaurant or its food raises the sum.
+ */
+public record CatalogVersion(Long restaurants, Integer lastRestaurantId, Long menuVersions) {
+    public String eTag() {
+        return "%d-%d-%d".formatted(restaurants, lastRestaurantId, menuVersions);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mblaszczykowski.restaurant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of restaurant pages per district, which back the home page.
+ * Entries expire after {@code restaurants.district-cache.ttl}; any restaurant write clears the whole cache,
+ * because an update may move a restaurant out of a district the cache no longer knows it was in.
+ */
+@Component
+public class DistrictCache {
+    public record Key(String district, int page, int size) {
+    }
+
+    private final Cache<Key, RestaurantPage> cache;
+
+    public DistrictCache(@Value("${restaurants.district-cache.ttl:5m}") Duration ttl,
+                         @Value("${restaurants.district-cache.maximum-size:500}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public RestaurantPage get(Key key, Supplier<RestaurantPage> loader) {
+        return cache.get(key, k -> {
+            RestaurantPage page = loader.get();
+            return new RestaurantPage(List.copyOf(page.restaurants()), page.page(), page.size(), page.hasNext());
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Cache<Key, RestaurantPage> nativeCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,7 @@
+package com.mblaszczykowski.restaurant;
+
+import java.math.BigDecimal;
+
+public record RankedRestaurant(Integer restaurantId, String name, String district, long reviewCount,
+                               BigDecimal average, BigDecimal score) {
+}
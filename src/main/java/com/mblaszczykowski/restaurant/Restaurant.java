@@ -1,13 +1,15 @@
 package com.mblaszczykowski.restaurant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.util.Objects;
 
 @Entity
-@Table(name = "restaurant")
+@Table(name = "restaurant", indexes = @Index(name = "restaurant_district_name_idx", columnList = "district, name"))
 public class Restaurant {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -49,6 +51,17 @@ public class Restaurant {
     )
     private String phoneNumber;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Podbijana przy każdej zmianie dań restauracji i jej samej (RestaurantRepository.incrementMenuVersions);
+    // zapis encji jej nie nadpisuje
+    @ColumnDefault("0")
+    @Column(name = "menu_version", nullable = false, updatable = false)
+    private long menuVersion;
+
     public Restaurant() {
     }
 
@@ -108,6 +121,16 @@ public class Restaurant {
         this.phoneNumber = phoneNumber;
     }
 
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonIgnore
+    public long getMenuVersion() {
+        return menuVersion;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
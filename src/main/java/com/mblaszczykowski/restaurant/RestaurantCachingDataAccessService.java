@@ -0,0 +1,105 @@
+package com.mblaszczykowski.restaurant;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository("restaurant-cache")
+public class RestaurantCachingDataAccessService implements RestaurantDAO {
+    private final RestaurantDAO restaurantDAO;
+    private final DistrictCache districtCache;
+
+    public RestaurantCachingDataAccessService(@Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                                              DistrictCache districtCache) {
+        this.restaurantDAO = restaurantDAO;
+        this.districtCache = districtCache;
+    }
+
+    @Override
+    public List<Restaurant> getAllRestaurants() {
+        return restaurantDAO.getAllRestaurants();
+    }
+
+    @Override
+    public void addRestaurant(Restaurant restaurant) {
+        restaurantDAO.addRestaurant(restaurant);
+        invalidateAfterCommit();
+    }
+
+    @Override
+    public Optional<Restaurant> getRestaurantById(Integer id) {
+        return restaurantDAO.getRestaurantById(id);
+    }
+
+    @Override
+    public RestaurantPage getRestaurantsByDistrict(String district, int page, int size) {
+        return districtCache.get(new DistrictCache.Key(district, page, size),
+                () -> restaurantDAO.getRestaurantsByDistrict(district, page, size));
+    }
+
+    @Override
+    public void deleteRestaurant(Restaurant restaurant) {
+        restaurantDAO.deleteRestaurant(restaurant);
+        invalidateAfterCommit();
+    }
+
+    @Override
+    public void updateRestaurant(Restaurant restaurant) {
+        restaurantDAO.updateRestaurant(restaurant);
+        invalidateAfterCommit();
+    }
+
+    @Override
+    public List<Restaurant> findByName(String name) {
+        return restaurantDAO.findByName(name);
+    }
+
+    @Override
+    public boolean existsById(Integer restaurantId) {
+        return restaurantDAO.existsById(restaurantId);
+    }
+
+    @Override
+    public List<RestaurantRatingTotals> getRatingTotals() {
+        return restaurantDAO.getRatingTotals();
+    }
+
+    @Override
+    public Optional<Long> getVersion(Integer id) {
+        return restaurantDAO.getVersion(id);
+    }
+
+    @Override
+    public Optional<Long> getMenuVersion(Integer id) {
+        return restaurantDAO.getMenuVersion(id);
+    }
+
+    @Override
+    public CatalogVersion getCatalogVersion() {
+        return restaurantDAO.getCatalogVersion();
+    }
+
+    @Override
+    public void incrementMenuVersions(Collection<Integer> restaurantIds) {
+        restaurantDAO.incrementMenuVersions(restaurantIds);
+    }
+
+    // Po commicie - wyczyszczony wcześniej cache mógłby od razu wypełnić się danymi sprzed zmiany na całe TTL
+    private void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            districtCache.invalidateAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                districtCache.invalidateAll();
+            }
+        });
+    }
+}
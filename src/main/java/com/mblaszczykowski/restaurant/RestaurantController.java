@@ -1,6 +1,9 @@
 package com.mblaszczykowski.restaurant;
 
+import com.mblaszczykowski.web.ETags;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -10,19 +13,35 @@ import java.util.List;
 @RequestMapping("api/v1/restaurants")
 public class RestaurantController {
     private final RestaurantService restaurantService;
+    private final RestaurantRatingService restaurantRatingService;
 
-    public RestaurantController(RestaurantService restaurantService) {
+    public RestaurantController(RestaurantService restaurantService, RestaurantRatingService restaurantRatingService) {
         this.restaurantService = restaurantService;
+        this.restaurantRatingService = restaurantRatingService;
     }
 
     @GetMapping
-    public List<Restaurant> getRestaurants() {
-        return restaurantService.getAllRestaurants();
+    public ResponseEntity<List<Restaurant>> getRestaurants(HttpServletRequest request) {
+        return ETags.get(request, restaurantService::getCatalogETag, restaurantService::getETaggedRestaurants);
+    }
+
+    @GetMapping("top")
+    public List<RankedRestaurant> getTopRestaurants(
+            @RequestParam("district") String district,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return restaurantRatingService.getTopRestaurants(district, limit);
     }
 
     @GetMapping("{id}")
-    public Restaurant getRestaurant(@PathVariable("id") Integer id) {
-        return restaurantService.getRestaurantById(id);
+    public ResponseEntity<Restaurant> getRestaurant(@PathVariable("id") Integer id, HttpServletRequest request) {
+        return ETags.get(request, () -> restaurantService.getRestaurantETag(id),
+                () -> restaurantService.getETaggedRestaurant(id));
+    }
+
+    @GetMapping("{id}/rating")
+    public RestaurantRating getRestaurantRating(@PathVariable("id") Integer id) {
+        return restaurantRatingService.getRating(id);
     }
 
     @GetMapping("name/{name}")
@@ -31,8 +50,12 @@ public class RestaurantController {
     }
 
     @GetMapping("district/{district}")
-    public Restaurant getRestaurantByDistrict(@PathVariable("district") String district) {
-        return restaurantService.getRestaurantsByDistrict(district);
+    public RestaurantPage getRestaurantsByDistrict(
+            @PathVariable("district") String district,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return restaurantService.getRestaurantsByDistrict(district, page, size);
     }
 
     @PostMapping
@@ -1,5 +1,6 @@
 package com.mblaszczykowski.restaurant;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,7 +10,8 @@ public interface RestaurantDAO {
     void addRestaurant(Restaurant user);
 
     Optional<Restaurant> getRestaurantById(Integer id);
-    Optional<Restaurant> getRestaurantByDistrict(String district);
+
+    RestaurantPage getRestaurantsByDistrict(String district, int page, int size);
 
     void deleteRestaurant(Restaurant restaurant);
 
@@ -18,4 +20,14 @@ public interface RestaurantDAO {
     List<Restaurant> findByName(String name);
 
     boolean existsById(Integer restaurantId);
+
+    List<RestaurantRatingTotals> getRatingTotals();
+
+    Optional<Long> getVersion(Integer id);
+
+    Optional<Long> getMenuVersion(Integer id);
+
+    CatalogVersion getCatalogVersion();
+
+    void incrementMenuVersions(Collection<Integer> restaurantIds);
 }
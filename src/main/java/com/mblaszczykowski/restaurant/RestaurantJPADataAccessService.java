@@ -1,10 +1,17 @@
 package com.mblaszczykowski.restaurant;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository("restaurant-jpa")
 public class RestaurantJPADataAccessService implements RestaurantDAO {
     private final RestaurantRepository restaurantRepository;
@@ -14,6 +21,7 @@ public class RestaurantJPADataAccessService implements RestaurantDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Restaurant> getAllRestaurants() {
         return restaurantRepository.findAll();
     }
@@ -24,13 +32,18 @@ public class RestaurantJPADataAccessService implements RestaurantDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Restaurant> getRestaurantById(Integer id) {
         return restaurantRepository.findById(id);
     }
 
     @Override
-    public Optional<Restaurant> getRestaurantByDistrict(String district) {
-        return restaurantRepository.findByDistrict(district);
+    @Transactional(readOnly = true)
+    public RestaurantPage getRestaurantsByDistrict(String district, int page, int size) {
+        // Kolejność zgodna z indeksem (district, name) - id rozstrzyga remisy między stronami
+        Slice<Restaurant> slice = restaurantRepository.findByDistrict(district,
+                PageRequest.of(page, size, Sort.by("name", "id")));
+        return new RestaurantPage(slice.getContent(), page, size, slice.hasNext());
     }
 
     @Override
@@ -40,16 +53,49 @@ public class RestaurantJPADataAccessService implements RestaurantDAO {
 
     @Override
     public void updateRestaurant(Restaurant restaurant) {
-        restaurantRepository.save(restaurant);
+        // Od razu, żeby konflikt wersji wyszedł w serwisie, a nie dopiero przy commicie
+        restaurantRepository.saveAndFlush(restaurant);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Restaurant> findByName(String name) {
         return restaurantRepository.findByName(name);
     }
 
     @Override
+    @Transactional
     public boolean existsById(Integer restaurantId) {
         return restaurantRepository.existsById(restaurantId);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RestaurantRatingTotals> getRatingTotals() {
+        return restaurantRepository.findRatingTotals();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getVersion(Integer id) {
+        return restaurantRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getMenuVersion(Integer id) {
+        return restaurantRepository.findMenuVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogVersion getCatalogVersion() {
+        return restaurantRepository.findCatalogVersion();
+    }
+
+    @Override
+    @Transactional
+    public void incrementMenuVersions(Collection<Integer> restaurantIds) {
+        restaurantRepository.incrementMenuVersions(restaurantIds);
+    }
 }
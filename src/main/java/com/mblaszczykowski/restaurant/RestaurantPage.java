@@ -0,0 +1,6 @@
+package com.mblaszczykowski.restaurant;
+
+import java.util.List;
+
+public record RestaurantPage(List<Restaurant> restaurants, int page, int size, boolean hasNext) {
+}
@@ -0,0 +1,77 @@
+package com.mblaszczykowski.restaurant;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of restaurants over R2DBC, mapped onto the same {@link Restaurant} class the JPA path uses.
+ */
+@Repository("restaurant-r2dbc")
+public class RestaurantR2dbcDataAccessService implements RestaurantReactiveDAO {
+    // Aliasy wspólne z zapytaniami o jedzenie, które dołączają restaurację
+    public static final String RESTAURANT_COLUMNS = """
+            r.id AS restaurant_id, r.name AS restaurant_name, r.description AS restaurant_description,
+            r.address AS restaurant_address, r.district AS restaurant_district, r.phone_number AS restaurant_phone_number""";
+
+    private static final String SELECT_RESTAURANTS = "SELECT " + RESTAURANT_COLUMNS + " FROM restaurant r ";
+
+    private final DatabaseClient databaseClient;
+
+    public RestaurantR2dbcDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Restaurant> getAllRestaurants() {
+        return databaseClient.sql(SELECT_RESTAURANTS + "ORDER BY r.id")
+                .map((row, metadata) -> mapRestaurant(row))
+                .all();
+    }
+
+    @Override
+    public Mono<Restaurant> getRestaurantById(Integer id) {
+        return databaseClient.sql(SELECT_RESTAURANTS + "WHERE r.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> mapRestaurant(row))
+                .one();
+    }
+
+    @Override
+    public Flux<Restaurant> findByName(String name) {
+        return databaseClient.sql(SELECT_RESTAURANTS + "WHERE r.name = :name ORDER BY r.id")
+                .bind("name", name)
+                .map((row, metadata) -> mapRestaurant(row))
+                .all();
+    }
+
+    @Override
+    public Mono<RestaurantPage> getRestaurantsByDistrict(String district, int page, int size) {
+        // Ta sama kolejność co w ścieżce JPA; jeden wiersz więcej mówi, czy jest następna strona
+        return databaseClient.sql(SELECT_RESTAURANTS + "WHERE r.district = :district ORDER BY r.name, r.id LIMIT :limit OFFSET :offset")
+                .bind("district", district)
+                .bind("limit", size + 1)
+                .bind("offset", (long) page * size)
+                .map((row, metadata) -> mapRestaurant(row))
+                .all()
+                .collectList()
+                .map(restaurants -> {
+                    boolean hasNext = restaurants.size() > size;
+                    return new RestaurantPage(hasNext ? restaurants.subList(0, size) : restaurants, page, size, hasNext);
+                });
+    }
+
+    public static Restaurant mapRestaurant(Readable row) {
+        Restaurant restaurant = new Restaurant(
+                row.get("restaurant_name", String.class),
+                row.get("restaurant_description", String.class),
+                row.get("restaurant_address", String.class),
+                row.get("restaurant_district", String.class),
+                row.get("restaurant_phone_number", String.class)
+        );
+        restaurant.setId(row.get("restaurant_id", Integer.class));
+        return restaurant;
+    }
+}
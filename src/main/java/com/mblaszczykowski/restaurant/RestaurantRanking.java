@@ -0,0 +1,243 @@
+package com.mblaszczykowski.restaurant;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps restaurants of every district sorted by a Bayesian average of their ratings, so the
+ * leaderboard is read without touching the reviews table.
+ * <p>
+ * The score is {@code (priorWeight * priorMean + ratingSum) / (priorWeight + reviewCount)}: a restaurant
+ * with a handful of reviews stays close to the global mean until it collects more of them. The global
+ * mean is taken when the ranking is rebuilt on startup and kept fixed until the next rebuild.
+ * <p>
+ * The ranking is built before the web server starts, so no review can commit between the snapshot
+ * and the first request and then be lost when the snapshot replaces the ranking.
+ * <p>
+ * Every instance keeps its own ranking. Reviews and restaurant changes committed on this instance move it
+ * right away; those committed on other instances show up when the ranking is rebuilt from
+ * {@code restaurant_rating_stats}, every {@code restaurants.ranking.refresh-interval}. The rebuild also
+ * corrects a local change that committed while the previous rebuild was reading the table and was counted
+ * twice or not at all.
+ */
+@Component
+public class RestaurantRanking implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantRanking.class);
+    private static final double DEFAULT_PRIOR_MEAN = 3.0;
+    private static final Comparator<Entry> BY_SCORE = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::reviewCount).reversed())
+            .thenComparing(Entry::restaurantId);
+
+    private final RestaurantDAO restaurantDAO;
+    private final double priorWeight;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "restaurant-ranking-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entriesById = new HashMap<>();
+    private final Map<String, NavigableSet<Entry>> entriesByDistrict = new HashMap<>();
+    private double priorMean = DEFAULT_PRIOR_MEAN;
+
+    public RestaurantRanking(@Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                             @Value("${restaurants.ranking.prior-weight:10}") double priorWeight,
+                             @Value("${restaurants.ranking.refresh-interval:1m}") Duration refreshInterval) {
+        this.restaurantDAO = restaurantDAO;
+        this.priorWeight = priorWeight;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not refresh restaurant ranking", e);
+        }
+    }
+
+    public void rebuild() {
+        List<RestaurantRatingTotals> totals = restaurantDAO.getRatingTotals();
+        long reviewCount = totals.stream().mapToLong(RestaurantRatingTotals::reviewCount).sum();
+        long ratingSum = totals.stream().mapToLong(RestaurantRatingTotals::ratingSum).sum();
+
+        lock.writeLock().lock();
+        try {
+            priorMean = reviewCount == 0 ? DEFAULT_PRIOR_MEAN : (double) ratingSum / reviewCount;
+            entriesById.clear();
+            entriesByDistrict.clear();
+            for (RestaurantRatingTotals total : totals) {
+                put(new Entry(total.restaurantId(), total.name(), total.district(),
+                        total.reviewCount(), total.ratingSum(), score(total.reviewCount(), total.ratingSum())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<RankedRestaurant> top(String district, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> entries = entriesByDistrict.get(district);
+            if (entries == null) {
+                return List.of();
+            }
+            return entries.stream()
+                    .limit(limit)
+                    .map(Entry::toRankedRestaurant)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void ratingAdded(Integer restaurantId, int rating) {
+        afterCommit(() -> adjust(restaurantId, rating, 1));
+    }
+
+    public void ratingRemoved(Integer restaurantId, int rating) {
+        afterCommit(() -> adjust(restaurantId, rating, -1));
+    }
+
+    public void restaurantChanged(Restaurant restaurant) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry entry = remove(restaurant.getId());
+                long reviewCount = entry == null ? 0 : entry.reviewCount();
+                long ratingSum = entry == null ? 0 : entry.ratingSum();
+                put(new Entry(restaurant.getId(), restaurant.getName(), restaurant.getDistrict(),
+                        reviewCount, ratingSum, score(reviewCount, ratingSum)));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void restaurantRemoved(Integer restaurantId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(restaurantId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void adjust(Integer restaurantId, int rating, int delta) {
+        // Restauracja dodana po starcie - pobieramy nazwę i dzielnicę raz, poza blokadą
+        Restaurant restaurant = null;
+        if (!contains(restaurantId)) {
+            restaurant = restaurantDAO.getRestaurantById(restaurantId).orElse(null);
+            if (restaurant == null) {
+                return;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            Entry entry = remove(restaurantId);
+            if (entry == null) {
+                entry = new Entry(restaurantId, restaurant.getName(), restaurant.getDistrict(), 0, 0, 0);
+            }
+            long reviewCount = entry.reviewCount() + delta;
+            long ratingSum = entry.ratingSum() + (long) rating * delta;
+            put(new Entry(restaurantId, entry.name(), entry.district(),
+                    reviewCount, ratingSum, score(reviewCount, ratingSum)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean contains(Integer restaurantId) {
+        lock.readLock().lock();
+        try {
+            return entriesById.containsKey(restaurantId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Entry entry) {
+        entriesById.put(entry.restaurantId(), entry);
+        entriesByDistrict.computeIfAbsent(entry.district(), district -> new TreeSet<>(BY_SCORE)).add(entry);
+    }
+
+    private Entry remove(Integer restaurantId) {
+        Entry entry = entriesById.remove(restaurantId);
+        if (entry != null) {
+            NavigableSet<Entry> entries = entriesByDistrict.get(entry.district());
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                entriesByDistrict.remove(entry.district());
+            }
+        }
+        return entry;
+    }
+
+    private double score(long reviewCount, long ratingSum) {
+        return (priorWeight * priorMean + ratingSum) / (priorWeight + reviewCount);
+    }
+
+    // Ranking zmieniamy dopiero po commicie, żeby wycofana recenzja go nie przesunęła
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Entry(Integer restaurantId, String name, String district,
+                         long reviewCount, long ratingSum, double score) {
+        RankedRestaurant toRankedRestaurant() {
+            BigDecimal average = reviewCount == 0 ? null :
+                    BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP);
+            return new RankedRestaurant(restaurantId, name, district, reviewCount, average,
+                    BigDecimal.valueOf(score).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.mblaszczykowski.restaurant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+
+public record RestaurantRating(Integer restaurantId, long reviewCount, BigDecimal average, Map<Integer, Long> histogram) {
+    public static RestaurantRating of(RestaurantRatingStats stats) {
+        BigDecimal average = stats.getReviewCount() == 0 ? null :
+                BigDecimal.valueOf(stats.getRatingSum())
+                        .divide(BigDecimal.valueOf(stats.getReviewCount()), 2, RoundingMode.HALF_UP);
+        Map<Integer, Long> histogram = new TreeMap<>(Map.of(
+                1, stats.getRating1Count(),
+                2, stats.getRating2Count(),
+                3, stats.getRating3Count(),
+                4, stats.getRating4Count(),
+                5, stats.getRating5Count()
+        ));
+        return new RestaurantRating(stats.getRestaurantId(), stats.getReviewCount(), average, histogram);
+    }
+}
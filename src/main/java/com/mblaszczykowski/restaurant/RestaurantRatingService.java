@@ -0,0 +1,49 @@
+package com.mblaszczykowski.restaurant;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class RestaurantRatingService {
+    private static final int DEFAULT_TOP_LIMIT = 10;
+    private static final int MAX_TOP_LIMIT = 50;
+
+    private final RestaurantRatingStatsDAO ratingStatsDAO;
+    private final RestaurantDAO restaurantDAO;
+    private final RestaurantRanking restaurantRanking;
+
+    public RestaurantRatingService(@Qualifier("rating-stats-jpa") RestaurantRatingStatsDAO ratingStatsDAO,
+                                   @Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                                   RestaurantRanking restaurantRanking) {
+        this.ratingStatsDAO = ratingStatsDAO;
+        this.restaurantDAO = restaurantDAO;
+        this.restaurantRanking = restaurantRanking;
+    }
+
+    public RestaurantRating getRating(Integer restaurantId) {
+        RestaurantRatingStats stats = ratingStatsDAO.getByRestaurantId(restaurantId)
+                .orElseGet(() -> {
+                    // Restauracja bez wiersza statystyk nie ma jeszcze żadnej recenzji
+                    if (!restaurantDAO.existsById(restaurantId)) {
+                        throw new ResourceNotFoundException("Restaurant with id [%s] not found".formatted(restaurantId));
+                    }
+                    return new RestaurantRatingStats(restaurantId);
+                });
+        return RestaurantRating.of(stats);
+    }
+
+    public List<RankedRestaurant> getTopRestaurants(String district, Integer limit) {
+        if (district == null || district.isBlank()) {
+            throw new NotValidResourceException("District is required");
+        }
+        int topLimit = limit == null ? DEFAULT_TOP_LIMIT : limit;
+        if (topLimit <= 0 || topLimit > MAX_TOP_LIMIT) {
+            throw new NotValidResourceException("Limit must be between 1 and %s".formatted(MAX_TOP_LIMIT));
+        }
+        return restaurantRanking.top(district, topLimit);
+    }
+}
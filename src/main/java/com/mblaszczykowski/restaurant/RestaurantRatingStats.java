@@ -0,0 +1,100 @@
+package com.mblaszczykowski.restaurant;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "restaurant_rating_stats")
+public class RestaurantRatingStats {
+    @Id
+    @Column(name = "restaurant_id", updatable = false)
+    private Integer restaurantId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1_count", nullable = false)
+    private long rating1Count;
+
+    @Column(name = "rating_2_count", nullable = false)
+    private long rating2Count;
+
+    @Column(name = "rating_3_count", nullable = false)
+    private long rating3Count;
+
+    @Column(name = "rating_4_count", nullable = false)
+    private long rating4Count;
+
+    @Column(name = "rating_5_count", nullable = false)
+    private long rating5Count;
+
+    public RestaurantRatingStats() {
+    }
+
+    public RestaurantRatingStats(Integer restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public Integer getRestaurantId() {
+        return restaurantId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public long getRating1Count() {
+        return rating1Count;
+    }
+
+    public long getRating2Count() {
+        return rating2Count;
+    }
+
+    public long getRating3Count() {
+        return rating3Count;
+    }
+
+    public long getRating4Count() {
+        return rating4Count;
+    }
+
+    public long getRating5Count() {
+        return rating5Count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RestaurantRatingStats)) return false;
+        RestaurantRatingStats that = (RestaurantRatingStats) o;
+        return reviewCount == that.reviewCount && ratingSum == that.ratingSum && rating1Count == that.rating1Count && rating2Count == that.rating2Count && rating3Count == that.rating3Count && rating4Count == that.rating4Count && rating5Count == that.rating5Count && Objects.equals(restaurantId, that.restaurantId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(restaurantId, reviewCount, ratingSum, rating1Count, rating2Count, rating3Count, rating4Count, rating5Count);
+    }
+
+    @Override
+    public String toString() {
+        return "RestaurantRatingStats{" +
+                "restaurantId=" + restaurantId +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
+                ", rating1Count=" + rating1Count +
+                ", rating2Count=" + rating2Count +
+                ", rating3Count=" + rating3Count +
+                ", rating4Count=" + rating4Count +
+                ", rating5Count=" + rating5Count +
+                '}';
+    }
+}
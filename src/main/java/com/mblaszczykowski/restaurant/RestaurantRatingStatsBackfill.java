@@ -0,0 +1,36 @@
+package com.mblaszczykowski.restaurant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates {@code restaurant_rating_stats} rows for restaurants reviewed before the stats table existed, and
+ * rebuilds the {@link RestaurantRanking} built from the table without them.
+ * Later changes are applied by {@code ReviewService} in the same transaction as the review itself.
+ */
+@Component
+public class RestaurantRatingStatsBackfill {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestaurantRatingStatsBackfill.class);
+
+    private final RestaurantRatingStatsDAO ratingStatsDAO;
+    private final RestaurantRanking restaurantRanking;
+
+    public RestaurantRatingStatsBackfill(@Qualifier("rating-stats-jpa") RestaurantRatingStatsDAO ratingStatsDAO,
+                                         RestaurantRanking restaurantRanking) {
+        this.ratingStatsDAO = ratingStatsDAO;
+        this.restaurantRanking = restaurantRanking;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int created = ratingStatsDAO.initializeMissing();
+        if (created > 0) {
+            LOGGER.info("Created rating stats for {} restaurants", created);
+            restaurantRanking.rebuild();
+        }
+    }
+}
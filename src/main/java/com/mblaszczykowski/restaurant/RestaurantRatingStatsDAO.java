@@ -0,0 +1,15 @@
+package com.mblaszczykowski.restaurant;
+
+import java.util.Optional;
+
+public interface RestaurantRatingStatsDAO {
+    Optional<RestaurantRatingStats> getByRestaurantId(Integer restaurantId);
+
+    int initializeMissing();
+
+    void initializeIfMissing(Integer restaurantId);
+
+    void addRating(Integer restaurantId, int rating);
+
+    void removeRating(Integer restaurantId, int rating);
+}
@@ -0,0 +1,58 @@
+package com.mblaszczykowski.restaurant;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Timed(value = "dao.calls", histogram = true)
+@Repository("rating-stats-jpa")
+public class RestaurantRatingStatsJPADataAccessService implements RestaurantRatingStatsDAO {
+    private final RestaurantRatingStatsRepository ratingStatsRepository;
+    private final boolean onConflictSupported;
+
+    public RestaurantRatingStatsJPADataAccessService(RestaurantRatingStatsRepository ratingStatsRepository,
+                                                     EntityManagerFactory entityManagerFactory) {
+        this.ratingStatsRepository = ratingStatsRepository;
+        this.onConflictSupported = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RestaurantRatingStats> getByRestaurantId(Integer restaurantId) {
+        return ratingStatsRepository.findById(restaurantId);
+    }
+
+    @Override
+    @Transactional
+    public int initializeMissing() {
+        return ratingStatsRepository.insertMissing();
+    }
+
+    @Override
+    @Transactional
+    public void initializeIfMissing(Integer restaurantId) {
+        if (onConflictSupported) {
+            ratingStatsRepository.insertIfMissing(restaurantId);
+        } else {
+            ratingStatsRepository.mergeIfMissing(restaurantId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void addRating(Integer restaurantId, int rating) {
+        ratingStatsRepository.adjust(restaurantId, rating, 1);
+    }
+
+    @Override
+    @Transactional
+    public void removeRating(Integer restaurantId, int rating) {
+        ratingStatsRepository.adjust(restaurantId, rating, -1);
+    }
+}
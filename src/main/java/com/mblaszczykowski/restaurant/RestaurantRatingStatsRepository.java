@@ -0,0 +1,62 @@
+package com.mblaszczykowski.restaurant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface RestaurantRatingStatsRepository extends JpaRepository<RestaurantRatingStats, Integer> {
+    String STATS_COLUMNS = """
+            restaurant_id, review_count, rating_sum,
+            rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count""";
+
+    String STATS_FROM_REVIEWS = """
+            SELECT r.id AS restaurant_id, COUNT(rv.id) AS review_count, COALESCE(SUM(rv.rating), 0) AS rating_sum,
+                    COUNT(CASE WHEN rv.rating = 1 THEN 1 END) AS rating_1_count,
+                    COUNT(CASE WHEN rv.rating = 2 THEN 1 END) AS rating_2_count,
+                    COUNT(CASE WHEN rv.rating = 3 THEN 1 END) AS rating_3_count,
+                    COUNT(CASE WHEN rv.rating = 4 THEN 1 END) AS rating_4_count,
+                    COUNT(CASE WHEN rv.rating = 5 THEN 1 END) AS rating_5_count
+            FROM restaurant r LEFT JOIN reviews rv ON rv.restaurant_id = r.id
+            """;
+
+    @Modifying
+    @Query(value = "INSERT INTO restaurant_rating_stats (" + STATS_COLUMNS + ") " + STATS_FROM_REVIEWS + """
+            WHERE NOT EXISTS (SELECT 1 FROM restaurant_rating_stats s WHERE s.restaurant_id = r.id)
+            GROUP BY r.id
+            """, nativeQuery = true)
+    int insertMissing();
+
+    // Równoległe pierwsze recenzje: druga czeka na commit pierwszej i nic nie wstawia zamiast łamać klucz
+    @Modifying
+    @Query(value = "INSERT INTO restaurant_rating_stats (" + STATS_COLUMNS + ") " + STATS_FROM_REVIEWS + """
+            WHERE r.id = :restaurantId GROUP BY r.id
+            ON CONFLICT (restaurant_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfMissing(@Param("restaurantId") Integer restaurantId);
+
+    // To samo dla baz bez ON CONFLICT (H2 w testach)
+    @Modifying
+    @Query(value = "MERGE INTO restaurant_rating_stats s USING (" + STATS_FROM_REVIEWS + """
+            WHERE r.id = :restaurantId GROUP BY r.id
+            ) src ON s.restaurant_id = src.restaurant_id
+            WHEN NOT MATCHED THEN INSERT (""" + STATS_COLUMNS + """
+            ) VALUES (src.restaurant_id, src.review_count, src.rating_sum,
+                    src.rating_1_count, src.rating_2_count, src.rating_3_count, src.rating_4_count, src.rating_5_count)
+            """, nativeQuery = true)
+    int mergeIfMissing(@Param("restaurantId") Integer restaurantId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE restaurant_rating_stats SET
+                review_count = review_count + :delta,
+                rating_sum = rating_sum + :rating * :delta,
+                rating_1_count = rating_1_count + CASE WHEN :rating = 1 THEN :delta ELSE 0 END,
+                rating_2_count = rating_2_count + CASE WHEN :rating = 2 THEN :delta ELSE 0 END,
+                rating_3_count = rating_3_count + CASE WHEN :rating = 3 THEN :delta ELSE 0 END,
+                rating_4_count = rating_4_count + CASE WHEN :rating = 4 THEN :delta ELSE 0 END,
+                rating_5_count = rating_5_count + CASE WHEN :rating = 5 THEN :delta ELSE 0 END
+            WHERE restaurant_id = :restaurantId
+            """, nativeQuery = true)
+    int adjust(@Param("restaurantId") Integer restaurantId, @Param("rating") int rating, @Param("delta") int delta);
+}
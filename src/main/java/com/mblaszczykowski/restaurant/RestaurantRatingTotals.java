@@ -0,0 +1,4 @@
+package com.mblaszczykowski.restaurant;
+
+public record RestaurantRatingTotals(Integer restaurantId, String name, String district, Long reviewCount, Long ratingSum) {
+}
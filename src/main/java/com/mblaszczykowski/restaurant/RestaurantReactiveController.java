@@ -0,0 +1,39 @@
+package com.mblaszczykowski.restaurant;
+
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("api/v1/reactive/restaurants")
+public class RestaurantReactiveController {
+    private final RestaurantReactiveService restaurantReactiveService;
+
+    public RestaurantReactiveController(RestaurantReactiveService restaurantReactiveService) {
+        this.restaurantReactiveService = restaurantReactiveService;
+    }
+
+    @GetMapping
+    public Flux<Restaurant> getRestaurants() {
+        return restaurantReactiveService.getAllRestaurants();
+    }
+
+    @GetMapping("{id}")
+    public Mono<Restaurant> getRestaurant(@PathVariable("id") Integer id) {
+        return restaurantReactiveService.getRestaurantById(id);
+    }
+
+    @GetMapping("name/{name}")
+    public Flux<Restaurant> getRestaurantsByName(@PathVariable("name") String name) {
+        return restaurantReactiveService.getRestaurantsByName(name);
+    }
+
+    @GetMapping("district/{district}")
+    public Mono<RestaurantPage> getRestaurantsByDistrict(
+            @PathVariable("district") String district,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return restaurantReactiveService.getRestaurantsByDistrict(district, page, size);
+    }
+}
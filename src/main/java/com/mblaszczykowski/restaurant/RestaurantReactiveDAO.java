@@ -0,0 +1,14 @@
+package com.mblaszczykowski.restaurant;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface RestaurantReactiveDAO {
+    Flux<Restaurant> getAllRestaurants();
+
+    Mono<Restaurant> getRestaurantById(Integer id);
+
+    Flux<Restaurant> findByName(String name);
+
+    Mono<RestaurantPage> getRestaurantsByDistrict(String district, int page, int size);
+}
@@ -0,0 +1,47 @@
+package com.mblaszczykowski.restaurant;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class RestaurantReactiveService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RestaurantReactiveDAO restaurantReactiveDAO;
+
+    public RestaurantReactiveService(@Qualifier("restaurant-r2dbc") RestaurantReactiveDAO restaurantReactiveDAO) {
+        this.restaurantReactiveDAO = restaurantReactiveDAO;
+    }
+
+    public Flux<Restaurant> getAllRestaurants() {
+        return restaurantReactiveDAO.getAllRestaurants();
+    }
+
+    public Mono<Restaurant> getRestaurantById(Integer id) {
+        return restaurantReactiveDAO.getRestaurantById(id)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("Restaurant with id [%s] not found".formatted(id))
+                ));
+    }
+
+    public Flux<Restaurant> getRestaurantsByName(String name) {
+        return restaurantReactiveDAO.findByName(name);
+    }
+
+    public Mono<RestaurantPage> getRestaurantsByDistrict(String district, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0) {
+            return Mono.error(new NotValidResourceException("Page must not be negative"));
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            return Mono.error(new NotValidResourceException("Page size must be between 1 and %s".formatted(MAX_PAGE_SIZE)));
+        }
+        return restaurantReactiveDAO.getRestaurantsByDistrict(district, pageNumber, pageSize);
+    }
+}
@@ -1,12 +1,19 @@
 package com.mblaszczykowski.restaurant;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RestaurantRepository extends JpaRepository<Restaurant, Integer> {
-    Optional<Restaurant> findByDistrict(String district);
+    Slice<Restaurant> findByDistrict(String district, Pageable pageable);
+
     List<Restaurant> findByName(String name);
 
     @Override
@@ -19,4 +26,29 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>
     void delete(Restaurant restaurant);
 
     boolean existsById(Integer restaurantId);
+
+    @Query("SELECT r.version FROM Restaurant r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    @Query("SELECT r.menuVersion FROM Restaurant r WHERE r.id = :id")
+    Optional<Long> findMenuVersionById(@Param("id") Integer id);
+
+    @Query("""
+            SELECT new com.mblaszczykowski.restaurant.CatalogVersion(COUNT(r), COALESCE(MAX(r.id), 0), COALESCE(SUM(r.menuVersion), 0L))
+            FROM Restaurant r
+            """)
+    CatalogVersion findCatalogVersion();
+
+    // Atomowo, bez czytania wiersza - równoległe zmiany menu nie gubią podbić
+    @Modifying
+    @Query("UPDATE Restaurant r SET r.menuVersion = r.menuVersion + 1 WHERE r.id IN :ids")
+    int incrementMenuVersions(@Param("ids") Collection<Integer> ids);
+
+    // Z liczników restaurant_rating_stats, nie z tabeli recenzji - ranking odświeża się okresowo
+    @Query("""
+            SELECT new com.mblaszczykowski.restaurant.RestaurantRatingTotals(
+                r.id, r.name, r.district, COALESCE(s.reviewCount, 0L), COALESCE(s.ratingSum, 0L))
+            FROM Restaurant r LEFT JOIN RestaurantRatingStats s ON s.restaurantId = r.id
+            """)
+    List<RestaurantRatingTotals> findRatingTotals();
 }
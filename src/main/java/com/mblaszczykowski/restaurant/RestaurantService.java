@@ -1,6 +1,12 @@
 package com.mblaszczykowski.restaurant;
 
+import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
+import com.mblaszczykowski.search.AutocompleteIndex;
+import com.mblaszczykowski.web.ETagged;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -9,16 +15,26 @@ import java.util.List;
 @Service
 @Transactional
 public class RestaurantService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RestaurantDAO restaurantDAO;
+    private final RestaurantRanking restaurantRanking;
+    private final AutocompleteIndex autocompleteIndex;
 
-    public RestaurantService(RestaurantDAO restaurantDAO) {
+    public RestaurantService(@Qualifier("restaurant-cache") RestaurantDAO restaurantDAO, RestaurantRanking restaurantRanking,
+                             AutocompleteIndex autocompleteIndex) {
         this.restaurantDAO = restaurantDAO;
+        this.restaurantRanking = restaurantRanking;
+        this.autocompleteIndex = autocompleteIndex;
     }
 
+    @Transactional(readOnly = true)
     public List<Restaurant> getAllRestaurants() {
         return restaurantDAO.getAllRestaurants();
     }
 
+    @Transactional(readOnly = true)
     public Restaurant getRestaurantById(Integer id) {
         return restaurantDAO.getRestaurantById(id)
                 .orElseThrow(() ->
@@ -26,15 +42,47 @@ public class RestaurantService {
                 );
     }
 
+    @Transactional(readOnly = true)
+    public String getRestaurantETag(Integer id) {
+        return restaurantDAO.getVersion(id)
+                .map(String::valueOf)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Restaurant with id [%s] not found".formatted(id))
+                );
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<Restaurant> getETaggedRestaurant(Integer id) {
+        Restaurant restaurant = getRestaurantById(id);
+        return new ETagged<>(String.valueOf(restaurant.getVersion()), restaurant);
+    }
+
+    @Transactional(readOnly = true)
+    public String getCatalogETag() {
+        return restaurantDAO.getCatalogVersion().eTag();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<List<Restaurant>> getETaggedRestaurants() {
+        return new ETagged<>(getCatalogETag(), getAllRestaurants());
+    }
+
+    @Transactional(readOnly = true)
     public List<Restaurant> getRestaurantsByName(String name) {
         return restaurantDAO.findByName(name);
     }
 
-    public Restaurant getRestaurantsByDistrict(String district) {
-        return restaurantDAO.getRestaurantByDistrict(district)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Restaurants from district [%s] not found".formatted(district))
-                );
+    @Transactional(readOnly = true)
+    public RestaurantPage getRestaurantsByDistrict(String district, Integer page, Integer size) {
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0) {
+            throw new NotValidResourceException("Page must not be negative");
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new NotValidResourceException("Page size must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+        return restaurantDAO.getRestaurantsByDistrict(district, pageNumber, pageSize);
     }
 
     public void addRestaurant(RestaurantRegistrationRequest restaurantRegistrationRequest) {
@@ -46,6 +94,8 @@ public class RestaurantService {
                 restaurantRegistrationRequest.phoneNumber()
         );
         restaurantDAO.addRestaurant(restaurant);
+        restaurantRanking.restaurantChanged(restaurant);
+        autocompleteIndex.restaurantChanged(restaurant);
     }
 
     public void deleteRestaurant(Integer id) {
@@ -55,6 +105,8 @@ public class RestaurantService {
                 );
 
         restaurantDAO.deleteRestaurant(restaurant);
+        restaurantRanking.restaurantRemoved(id);
+        autocompleteIndex.restaurantRemoved(id);
     }
 
     public void updateRestaurant(Integer id, RestaurantUpdateRequest restaurantUpdateRequest) {
@@ -83,6 +135,14 @@ public class RestaurantService {
             restaurant.setPhoneNumber(restaurantUpdateRequest.phoneNumber());
         }
 
-        restaurantDAO.updateRestaurant(restaurant);
+        try {
+            restaurantDAO.updateRestaurant(restaurant);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResourceConflictException("Restaurant with id [%s] was changed by another request".formatted(id));
+        }
+        // Restauracja jest w JSON-ie każdego swojego dania
+        restaurantDAO.incrementMenuVersions(List.of(id));
+        restaurantRanking.restaurantChanged(restaurant);
+        autocompleteIndex.restaurantChanged(restaurant);
     }
 }
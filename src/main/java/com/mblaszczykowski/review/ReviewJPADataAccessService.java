@@ -1,11 +1,14 @@
 package com.mblaszczykowski.review;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+@Timed(value = "dao.calls", histogram = true)
 @Repository("review-jpa")
 public class ReviewJPADataAccessService implements ReviewDAO {
     private final ReviewRepository reviewRepository;
@@ -15,21 +18,25 @@ public class ReviewJPADataAccessService implements ReviewDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Review> getAll() {
         return reviewRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Review> getReviewsByRestaurantId(Integer restaurantId) {
         return reviewRepository.findByRestaurantId(restaurantId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Review> getReviewsByDate(LocalDateTime date) {
         return reviewRepository.findByReviewTime(date);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Review> getReviewsByCustomerId(Integer customerId) {
         return reviewRepository.findByCustomerId(customerId);
     }
@@ -45,6 +52,7 @@ public class ReviewJPADataAccessService implements ReviewDAO {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Review> getById(Integer id) {
         return reviewRepository.findById(id);
     }
@@ -55,6 +63,7 @@ public class ReviewJPADataAccessService implements ReviewDAO {
     }
 
     @Override
+    @Transactional
     public boolean existsByOrderId(Integer orderId) {
         return reviewRepository.existsByOrderId(orderId);
     }
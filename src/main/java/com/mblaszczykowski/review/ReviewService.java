@@ -9,27 +9,39 @@ import com.mblaszczykowski.order.Order;
 import com.mblaszczykowski.order.OrderDAO;
 import com.mblaszczykowski.restaurant.Restaurant;
 import com.mblaszczykowski.restaurant.RestaurantDAO;
+import com.mblaszczykowski.restaurant.RestaurantRanking;
+import com.mblaszczykowski.restaurant.RestaurantRatingStatsDAO;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class ReviewService {
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
     private final ReviewDAO reviewDAO;
     private final CustomerDAO customerDAO;
     private final RestaurantDAO restaurantDAO;
     private final OrderDAO orderDAO;
+    private final RestaurantRatingStatsDAO ratingStatsDAO;
+    private final RestaurantRanking restaurantRanking;
 
     public ReviewService(@Qualifier("review-jpa") ReviewDAO reviewDAO,
                          CustomerDAO customerDAO,
-                         RestaurantDAO restaurantDAO,
-                         OrderDAO orderDAO) {
+                         @Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                         OrderDAO orderDAO,
+                         @Qualifier("rating-stats-jpa") RestaurantRatingStatsDAO ratingStatsDAO,
+                         RestaurantRanking restaurantRanking) {
         this.reviewDAO = reviewDAO;
         this.customerDAO = customerDAO;
         this.restaurantDAO = restaurantDAO;
         this.orderDAO = orderDAO;
+        this.ratingStatsDAO = ratingStatsDAO;
+        this.restaurantRanking = restaurantRanking;
     }
 
     public Review getById(Integer id) {
@@ -55,6 +67,7 @@ public class ReviewService {
         return reviewDAO.getReviewsByCustomerId(customerId);
     }
 
+    @Transactional
     public void add(ReviewRegistrationRequest reviewRegistrationRequest) {
         if (reviewRegistrationRequest.customer() == null ||
                 reviewRegistrationRequest.order() == null ||
@@ -71,6 +84,7 @@ public class ReviewService {
         String name = reviewRegistrationRequest.name();
         Integer rating = reviewRegistrationRequest.rating();
         String description = reviewRegistrationRequest.description();
+        validateRating(rating);
 
         // Sprawdź czy recenzja dla zamówienia już istnieje
         Integer orderId = order.getId();
@@ -96,21 +110,37 @@ public class ReviewService {
         }
 
         Review review = new Review(customer, restaurant, order, name, rating, description);
+        ratingStatsDAO.initializeIfMissing(restaurantId);
         reviewDAO.add(review);
+        ratingStatsDAO.addRating(restaurantId, rating);
+        restaurantRanking.ratingAdded(restaurantId, rating);
     }
 
+    @Transactional
     public void update(Integer id, ReviewUpdateRequest reviewUpdateRequest) {
         Review review = reviewDAO.getById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Review with id [%s] not found".formatted(id))
                 );
 
+        // Przenosimy recenzję w histogramie tylko gdy ocena faktycznie się zmienia
+        Integer previousRating = review.getRating();
+        Integer newRating = reviewUpdateRequest.rating();
+        boolean ratingChanged = newRating != null && !newRating.equals(previousRating);
+        if (ratingChanged) {
+            validateRating(newRating);
+        }
+        boolean updateStats = ratingChanged && previousRating != null && review.getRestaurant() != null;
+        if (updateStats) {
+            ratingStatsDAO.initializeIfMissing(review.getRestaurant().getId());
+        }
+
         if (reviewUpdateRequest.name() != null) {
             review.setName(reviewUpdateRequest.name());
         }
 
-        if (reviewUpdateRequest.rating() != null) {
-            review.setRating(reviewUpdateRequest.rating());
+        if (newRating != null) {
+            review.setRating(newRating);
         }
 
         if (reviewUpdateRequest.description() != null) {
@@ -118,12 +148,33 @@ public class ReviewService {
         }
 
         reviewDAO.update(review);
+
+        if (updateStats) {
+            Integer restaurantId = review.getRestaurant().getId();
+            ratingStatsDAO.removeRating(restaurantId, previousRating);
+            ratingStatsDAO.addRating(restaurantId, newRating);
+            restaurantRanking.ratingRemoved(restaurantId, previousRating);
+            restaurantRanking.ratingAdded(restaurantId, newRating);
+        }
     }
 
+    @Transactional
     public void deleteById(Integer id) {
-        reviewDAO.getById(id)
+        Review review = reviewDAO.getById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Review with id [%s] not found".formatted(id))
                 );
+
+        Integer restaurantId = review.getRestaurant().getId();
+        ratingStatsDAO.initializeIfMissing(restaurantId);
+        reviewDAO.deleteById(id);
+        ratingStatsDAO.removeRating(restaurantId, review.getRating());
+        restaurantRanking.ratingRemoved(restaurantId, review.getRating());
+    }
+
+    private void validateRating(Integer rating) {
+        if (rating < MIN_RATING || rating > MAX_RATING) {
+            throw new NotValidResourceException("Rating must be between %s and %s".formatted(MIN_RATING, MAX_RATING));
+        }
     }
 }
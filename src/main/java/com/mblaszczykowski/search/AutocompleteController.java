@@ -0,0 +1,28 @@
+package com.mblaszczykowski.search;
+
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/autocomplete")
+public class AutocompleteController {
+    private final SearchService searchService;
+
+    public AutocompleteController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public List<AutocompleteSuggestion> autocomplete(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        return searchService.autocomplete(prefix, limit);
+    }
+
+    @GetMapping("stats")
+    public AutocompleteStats getStats() {
+        return searchService.getAutocompleteStats();
+    }
+}
@@ -0,0 +1,499 @@
+package com.mblaszczykowski.search;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodDAO;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantDAO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process prefix trie over food names, food categories and restaurant names, used for type-ahead.
+ * <p>
+ * Every suggestion is indexed under its whole name and under each word of it, lowercased and without
+ * diacritics, so both "marg" and "pizza m" find "Pizza Margherita" and "zur" finds "Żurek". Children are
+ * kept in sorted arrays instead of maps, which keeps a node at a few dozen bytes; {@link #stats()} reports
+ * an estimate of that footprint per entry.
+ * <p>
+ * Every instance keeps its own index. Changes committed on this instance reach it right away; those
+ * committed on other instances show up when the index is rebuilt from the database, every
+ * {@code search.autocomplete.refresh-interval}. Changes that arrive while a rebuild reads the database are
+ * applied again on top of the new snapshot, so the snapshot cannot undo them.
+ */
+@Component
+public class AutocompleteIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutocompleteIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Szacunki dla 64-bitowej JVM ze skompresowanymi wskaźnikami
+    private static final int NODE_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int SUGGESTION_BYTES = 24;
+    private static final int STRING_BYTES = 24;
+
+    private final FoodDAO foodDAO;
+    private final RestaurantDAO restaurantDAO;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autocomplete-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, AutocompleteSuggestion> foods = new HashMap<>();
+    private final Map<Integer, String> foodCategories = new HashMap<>();
+    private final Map<Integer, AutocompleteSuggestion> restaurants = new HashMap<>();
+    private final Map<String, CategoryEntry> categories = new HashMap<>();
+    // Zmiany zastosowane w trakcie czytania snapshotu - powtarzamy je po jego podmianie
+    private final List<Runnable> changesDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private Node root = new Node();
+
+    public AutocompleteIndex(@Qualifier("food-jpa") FoodDAO foodDAO,
+                             @Qualifier("restaurant-jpa") RestaurantDAO restaurantDAO,
+                             @Value("${search.autocomplete.refresh-interval:5m}") Duration refreshInterval) {
+        this.foodDAO = foodDAO;
+        this.restaurantDAO = restaurantDAO;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Food> allFood;
+        List<Restaurant> allRestaurants;
+        try {
+            allFood = foodDAO.getAllFood();
+            allRestaurants = restaurantDAO.getAllRestaurants();
+        } catch (RuntimeException e) {
+            stopRecording();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            foods.clear();
+            foodCategories.clear();
+            restaurants.clear();
+            categories.clear();
+            allFood.forEach(this::putFood);
+            allRestaurants.forEach(this::putRestaurant);
+            // Zmiana mogła już być w snapshocie - ponowne zastosowanie jej niczego nie psuje
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<AutocompleteSuggestion> suggest(String prefix, int limit) {
+        String term = normalize(prefix);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < term.length() && node != null; i++) {
+                node = node.child(term.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            // Pre-order: krótsze (bliższe prefiksowi) terminy przed dłuższymi, dalej alfabetycznie
+            Set<AutocompleteSuggestion> suggestions = new LinkedHashSet<>();
+            collect(node, suggestions, limit);
+            return List.copyOf(suggestions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public AutocompleteStats stats() {
+        lock.readLock().lock();
+        try {
+            long[] counters = new long[3];
+            measure(root, counters);
+            long nodes = counters[0];
+            long terms = counters[1];
+            long bytes = counters[2];
+
+            int entries = foods.size() + restaurants.size() + categories.size();
+            for (AutocompleteSuggestion suggestion : foods.values()) {
+                bytes += suggestionBytes(suggestion);
+            }
+            for (AutocompleteSuggestion suggestion : restaurants.values()) {
+                bytes += suggestionBytes(suggestion);
+            }
+            for (CategoryEntry category : categories.values()) {
+                bytes += suggestionBytes(category.suggestion());
+            }
+            return new AutocompleteStats(entries, terms, nodes, bytes, entries == 0 ? 0 : bytes / entries);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void foodChanged(Food food) {
+        afterCommit(() -> apply(() -> {
+            removeFood(food.getId());
+            putFood(food);
+        }));
+    }
+
+    public void foodRemoved(Integer foodId) {
+        afterCommit(() -> apply(() -> removeFood(foodId)));
+    }
+
+    public void restaurantChanged(Restaurant restaurant) {
+        afterCommit(() -> apply(() -> {
+            removeRestaurant(restaurant.getId());
+            putRestaurant(restaurant);
+        }));
+    }
+
+    public void restaurantRemoved(Integer restaurantId) {
+        afterCommit(() -> apply(() -> removeRestaurant(restaurantId)));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        // "ł" nie rozkłada się w NFD na "l" + znak diakrytyczny
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .replace('ł', 'l')
+                .strip()
+                .replaceAll("\\s+", " ");
+    }
+
+    private void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not refresh autocomplete index", e);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (rebuilding) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopRecording() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putFood(Food food) {
+        if (food.getId() == null) {
+            return;
+        }
+        if (food.getName() != null) {
+            AutocompleteSuggestion suggestion = AutocompleteSuggestion.food(food.getId(), food.getName());
+            foods.put(food.getId(), suggestion);
+            index(suggestion);
+        }
+        if (food.getCategory() != null) {
+            foodCategories.put(food.getId(), food.getCategory());
+            CategoryEntry category = categories.computeIfAbsent(food.getCategory(),
+                    name -> new CategoryEntry(AutocompleteSuggestion.category(name)));
+            if (category.foodCount++ == 0) {
+                index(category.suggestion());
+            }
+        }
+    }
+
+    private void removeFood(Integer foodId) {
+        AutocompleteSuggestion suggestion = foods.remove(foodId);
+        if (suggestion != null) {
+            unindex(suggestion);
+        }
+        String categoryName = foodCategories.remove(foodId);
+        if (categoryName != null) {
+            CategoryEntry category = categories.get(categoryName);
+            // Kategoria znika z podpowiedzi razem z ostatnim daniem, które ją miało
+            if (--category.foodCount == 0) {
+                categories.remove(categoryName);
+                unindex(category.suggestion());
+            }
+        }
+    }
+
+    private void putRestaurant(Restaurant restaurant) {
+        if (restaurant.getId() == null || restaurant.getName() == null) {
+            return;
+        }
+        AutocompleteSuggestion suggestion = AutocompleteSuggestion.restaurant(restaurant.getId(), restaurant.getName());
+        restaurants.put(restaurant.getId(), suggestion);
+        index(suggestion);
+    }
+
+    private void removeRestaurant(Integer restaurantId) {
+        AutocompleteSuggestion suggestion = restaurants.remove(restaurantId);
+        if (suggestion != null) {
+            unindex(suggestion);
+        }
+    }
+
+    private void index(AutocompleteSuggestion suggestion) {
+        for (String term : terms(suggestion.text())) {
+            Node node = root;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.getOrAddChild(term.charAt(i));
+            }
+            node.addSuggestion(suggestion);
+        }
+    }
+
+    private void unindex(AutocompleteSuggestion suggestion) {
+        for (String term : terms(suggestion.text())) {
+            remove(root, term, 0, suggestion);
+        }
+    }
+
+    // Zwraca true, gdy węzeł jest pusty i rodzic może go usunąć
+    private static boolean remove(Node node, String term, int depth, AutocompleteSuggestion suggestion) {
+        if (depth == term.length()) {
+            node.removeSuggestion(suggestion);
+        } else {
+            char key = term.charAt(depth);
+            Node child = node.child(key);
+            if (child != null && remove(child, term, depth + 1, suggestion)) {
+                node.removeChild(key);
+            }
+        }
+        return node.isEmpty();
+    }
+
+    // Cała nazwa oraz każdy jej sufiks od początku słowa: "pizza margherita", "margherita"
+    private static Set<String> terms(String text) {
+        String normalized = normalize(text);
+        Set<String> terms = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        terms.add(normalized);
+        String[] words = WORD_SEPARATOR.split(normalized);
+        for (int i = 1; i < words.length; i++) {
+            String suffix = String.join(" ", Arrays.copyOfRange(words, i, words.length));
+            if (!suffix.isEmpty()) {
+                terms.add(suffix);
+            }
+        }
+        return terms;
+    }
+
+    private static boolean collect(Node node, Set<AutocompleteSuggestion> suggestions, int limit) {
+        for (AutocompleteSuggestion suggestion : node.suggestions) {
+            suggestions.add(suggestion);
+            if (suggestions.size() >= limit) {
+                return true;
+            }
+        }
+        for (Node child : node.children) {
+            if (collect(child, suggestions, limit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void measure(Node node, long[] counters) {
+        counters[0]++;
+        if (node.suggestions.length > 0) {
+            counters[1]++;
+        }
+        counters[2] += NODE_BYTES
+                + arrayBytes(node.keys.length, Character.BYTES)
+                + arrayBytes(node.children.length, REFERENCE_BYTES)
+                + arrayBytes(node.suggestions.length, REFERENCE_BYTES);
+        for (Node child : node.children) {
+            measure(child, counters);
+        }
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        // Puste tablice są współdzielone przez wszystkie węzły
+        return length == 0 ? 0 : align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    private static long suggestionBytes(AutocompleteSuggestion suggestion) {
+        return SUGGESTION_BYTES + STRING_BYTES + arrayBytes(suggestion.text().length(), Byte.BYTES);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // Indeks zmieniamy dopiero po commicie, żeby wycofana zmiana nie trafiła do podpowiedzi
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class CategoryEntry {
+        private final AutocompleteSuggestion suggestion;
+        private int foodCount;
+
+        CategoryEntry(AutocompleteSuggestion suggestion) {
+            this.suggestion = suggestion;
+        }
+
+        AutocompleteSuggestion suggestion() {
+            return suggestion;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final AutocompleteSuggestion[] NO_SUGGESTIONS = new AutocompleteSuggestion[0];
+
+        // keys posortowane rosnąco, children[i] odpowiada keys[i]
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private AutocompleteSuggestion[] suggestions = NO_SUGGESTIONS;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrAddChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            newKeys[insertAt] = key;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newChildren[insertAt] = child;
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void addSuggestion(AutocompleteSuggestion suggestion) {
+            for (AutocompleteSuggestion existing : suggestions) {
+                if (existing.equals(suggestion)) {
+                    return;
+                }
+            }
+            suggestions = Arrays.copyOf(suggestions, suggestions.length + 1);
+            suggestions[suggestions.length - 1] = suggestion;
+        }
+
+        void removeSuggestion(AutocompleteSuggestion suggestion) {
+            AutocompleteSuggestion[] remaining = Arrays.stream(suggestions)
+                    .filter(existing -> !existing.equals(suggestion))
+                    .toArray(AutocompleteSuggestion[]::new);
+            suggestions = remaining.length == 0 ? NO_SUGGESTIONS : remaining;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0 && suggestions.length == 0;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.mblaszczykowski.search;
+
+public record AutocompleteStats(
+        int entries, long terms, long nodes, long estimatedBytes, long estimatedBytesPerEntry
+) {
+}
@@ -0,0 +1,21 @@
+package com.mblaszczykowski.search;
+
+public record AutocompleteSuggestion(Type type, Integer id, String text) {
+    public enum Type {
+        RESTAURANT,
+        FOOD,
+        CATEGORY
+    }
+
+    static AutocompleteSuggestion food(Integer id, String name) {
+        return new AutocompleteSuggestion(Type.FOOD, id, name);
+    }
+
+    static AutocompleteSuggestion restaurant(Integer id, String name) {
+        return new AutocompleteSuggestion(Type.RESTAURANT, id, name);
+    }
+
+    static AutocompleteSuggestion category(String category) {
+        return new AutocompleteSuggestion(Type.CATEGORY, null, category);
+    }
+}
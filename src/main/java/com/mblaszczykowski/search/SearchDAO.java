@@ -0,0 +1,9 @@
+package com.mblaszczykowski.search;
+
+import java.util.List;
+
+public interface SearchDAO {
+    List<SearchHit> search(String query, int offset, int limit);
+
+    List<SearchHit> searchSimilar(String query, int offset, int limit);
+}
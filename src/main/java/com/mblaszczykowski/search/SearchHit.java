@@ -0,0 +1,8 @@
+package com.mblaszczykowski.search;
+
+public record SearchHit(Type type, Integer id, String name, String description, double rank) {
+    public enum Type {
+        RESTAURANT,
+        FOOD
+    }
+}
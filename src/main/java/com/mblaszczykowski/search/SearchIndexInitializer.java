@@ -0,0 +1,87 @@
+package com.mblaszczykowski.search;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the PostgreSQL search columns and indexes that Hibernate cannot describe: generated {@code tsvector}
+ * columns with GIN indexes on restaurant and food, and {@code pg_trgm} indexes on names for typo matching.
+ * Every statement is idempotent, so it runs on each startup. On other databases nothing is created and
+ * {@link SearchJPADataAccessService} falls back to plain LIKE matching.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SearchIndexInitializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexInitializer.class);
+
+    // 'simple' zamiast słownika językowego - nazwy dań są mieszanką polskiego, włoskiego i angielskiego
+    private static final String[] FULL_TEXT_DDL = {
+            """
+            ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+                setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+            ) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS restaurant_search_idx ON restaurant USING GIN (search_vector)",
+            """
+            ALTER TABLE food ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+                setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                setweight(to_tsvector('simple', coalesce(category, '')), 'B') ||
+                setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+            ) STORED
+            """,
+            "CREATE INDEX IF NOT EXISTS food_search_idx ON food USING GIN (search_vector)"
+    };
+
+    private static final String[] TRIGRAM_DDL = {
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS restaurant_name_trgm_idx ON restaurant USING GIN (name gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS food_name_trgm_idx ON food USING GIN (name gin_trgm_ops)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private boolean fullTextAvailable;
+    private boolean trigramAvailable;
+
+    public SearchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        for (String ddl : FULL_TEXT_DDL) {
+            jdbcTemplate.execute(ddl);
+        }
+        fullTextAvailable = true;
+
+        // pg_trgm wymaga uprawnień do CREATE EXTENSION - bez niego wyszukiwanie działa, tylko bez poprawiania literówek
+        try {
+            for (String ddl : TRIGRAM_DDL) {
+                jdbcTemplate.execute(ddl);
+            }
+            trigramAvailable = true;
+        } catch (DataAccessException e) {
+            LOGGER.warn("pg_trgm is not available, search will not correct typos: {}", e.getMessage());
+        }
+    }
+
+    public boolean isFullTextAvailable() {
+        return fullTextAvailable;
+    }
+
+    public boolean isTrigramAvailable() {
+        return trigramAvailable;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mblaszczykowski.search;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.restaurant.Restaurant;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@Timed(value = "dao.calls", histogram = true)
+@Repository("search-jpa")
+public class SearchJPADataAccessService implements SearchDAO {
+    private static final Comparator<SearchHit> BY_RANK = Comparator.comparingDouble(SearchHit::rank).reversed()
+            .thenComparing(SearchHit::type)
+            .thenComparing(SearchHit::id);
+
+    private static final String FULL_TEXT_QUERY = """
+            SELECT type, id, name, description, rank FROM (
+                SELECT 'RESTAURANT' AS type, r.id, r.name, r.description, ts_rank(r.search_vector, q.query) AS rank
+                FROM restaurant r, to_tsquery('simple', :query) AS q(query)
+                WHERE r.search_vector @@ q.query
+                UNION ALL
+                SELECT 'FOOD' AS type, f.id, f.name, f.description, ts_rank(f.search_vector, q.query) AS rank
+                FROM food f, to_tsquery('simple', :query) AS q(query)
+                WHERE f.search_vector @@ q.query
+            ) hits
+            ORDER BY rank DESC, type DESC, id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    // <% korzysta z indeksów gin_trgm_ops i dopasowuje zapytanie do najbliższego słowa w nazwie
+    private static final String TRIGRAM_QUERY = """
+            SELECT type, id, name, description, rank FROM (
+                SELECT 'RESTAURANT' AS type, r.id, r.name, r.description, word_similarity(:query, r.name) AS rank
+                FROM restaurant r
+                WHERE :query <% r.name
+                UNION ALL
+                SELECT 'FOOD' AS type, f.id, f.name, f.description, word_similarity(:query, f.name) AS rank
+                FROM food f
+                WHERE :query <% f.name
+            ) hits
+            ORDER BY rank DESC, type DESC, id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    private final EntityManager entityManager;
+    private final SearchIndexInitializer searchIndex;
+    private final double trigramThreshold;
+
+    public SearchJPADataAccessService(EntityManager entityManager, SearchIndexInitializer searchIndex,
+                                      @Value("${search.trigram-threshold:0.4}") double trigramThreshold) {
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.trigramThreshold = trigramThreshold;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(String query, int offset, int limit) {
+        if (!searchIndex.isFullTextAvailable()) {
+            return searchByLike(query, offset, limit);
+        }
+
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return List.of();
+        }
+        return runNative(FULL_TEXT_QUERY, tsQuery, offset, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHit> searchSimilar(String query, int offset, int limit) {
+        if (!searchIndex.isTrigramAvailable()) {
+            return List.of();
+        }
+        // Domyślny próg 0.6 odrzuca typowe literówki ("margarita" -> "Margherita" ma 0.5); ustawiamy go tylko dla tej transakcji
+        entityManager.createNativeQuery("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                .setParameter("threshold", String.valueOf(trigramThreshold))
+                .getSingleResult();
+        return runNative(TRIGRAM_QUERY, query, offset, limit);
+    }
+
+    // Każde słowo jako prefiks ("marg pizz" -> "marg:* & pizz:*"), żeby wyniki pojawiały się w trakcie pisania
+    static String toPrefixTsQuery(String query) {
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private List<SearchHit> runNative(String sql, String query, int offset, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("query", query)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new SearchHit(
+                        SearchHit.Type.valueOf((String) row[0]),
+                        ((Number) row[1]).intValue(),
+                        (String) row[2],
+                        (String) row[3],
+                        ((Number) row[4]).doubleValue()
+                ))
+                .toList();
+    }
+
+    // Bazy bez tsvector (np. H2 w testach) - dopasowanie w nazwie waży więcej niż w opisie
+    private List<SearchHit> searchByLike(String query, int offset, int limit) {
+        String pattern = "%" + query.toLowerCase(Locale.ROOT) + "%";
+        List<SearchHit> hits = new ArrayList<>();
+
+        entityManager.createQuery("""
+                        SELECT r FROM Restaurant r
+                        WHERE lower(r.name) LIKE :pattern OR lower(r.description) LIKE :pattern
+                        ORDER BY r.id
+                        """, Restaurant.class)
+                .setParameter("pattern", pattern)
+                .setMaxResults(offset + limit)
+                .getResultList()
+                .forEach(restaurant -> hits.add(new SearchHit(SearchHit.Type.RESTAURANT, restaurant.getId(),
+                        restaurant.getName(), restaurant.getDescription(), likeRank(restaurant.getName(), query))));
+
+        entityManager.createQuery("""
+                        SELECT f FROM Food f
+                        WHERE lower(f.name) LIKE :pattern OR lower(f.category) LIKE :pattern
+                            OR lower(f.description) LIKE :pattern
+                        ORDER BY f.id
+                        """, Food.class)
+                .setParameter("pattern", pattern)
+                .setMaxResults(offset + limit)
+                .getResultList()
+                .forEach(food -> hits.add(new SearchHit(SearchHit.Type.FOOD, food.getId(),
+                        food.getName(), food.getDescription(), likeRank(food.getName(), query))));
+
+        return hits.stream()
+                .sorted(BY_RANK)
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    private static double likeRank(String name, String query) {
+        return name != null && name.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT)) ? 1.0 : 0.5;
+    }
+}
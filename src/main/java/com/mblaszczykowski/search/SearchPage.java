@@ -0,0 +1,6 @@
+package com.mblaszczykowski.search;
+
+import java.util.List;
+
+public record SearchPage(List<SearchHit> hits, int page, int size, boolean hasNext, boolean fuzzy) {
+}
@@ -0,0 +1,73 @@
+package com.mblaszczykowski.search;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SearchService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    private static final int MAX_SUGGESTION_LIMIT = 50;
+
+    private final SearchDAO searchDAO;
+    private final AutocompleteIndex autocompleteIndex;
+
+    public SearchService(@Qualifier("search-jpa") SearchDAO searchDAO, AutocompleteIndex autocompleteIndex) {
+        this.searchDAO = searchDAO;
+        this.autocompleteIndex = autocompleteIndex;
+    }
+
+    public SearchPage search(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new NotValidResourceException("Query must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new NotValidResourceException("Query must be at most %s characters long".formatted(MAX_QUERY_LENGTH));
+        }
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0) {
+            throw new NotValidResourceException("Page must not be negative");
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new NotValidResourceException("Page size must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+
+        String trimmedQuery = query.trim();
+        int offset = pageNumber * pageSize;
+        // Pobieramy jeden wynik więcej, żeby wiedzieć czy jest następna strona
+        List<SearchHit> hits = searchDAO.search(trimmedQuery, offset, pageSize + 1);
+        boolean fuzzy = false;
+        // Literówki: pełnotekstowe nic nie znalazło, więc szukamy po podobieństwie trigramów
+        if (hits.isEmpty() && (pageNumber == 0 || searchDAO.search(trimmedQuery, 0, 1).isEmpty())) {
+            hits = searchDAO.searchSimilar(trimmedQuery, offset, pageSize + 1);
+            fuzzy = !hits.isEmpty();
+        }
+
+        boolean hasNext = hits.size() > pageSize;
+        return new SearchPage(hasNext ? hits.subList(0, pageSize) : hits, pageNumber, pageSize, hasNext, fuzzy);
+    }
+
+    public List<AutocompleteSuggestion> autocomplete(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new NotValidResourceException("Prefix must not be blank");
+        }
+        if (prefix.length() > MAX_QUERY_LENGTH) {
+            throw new NotValidResourceException("Prefix must be at most %s characters long".formatted(MAX_QUERY_LENGTH));
+        }
+        int suggestionLimit = limit == null ? DEFAULT_SUGGESTION_LIMIT : limit;
+        if (suggestionLimit <= 0 || suggestionLimit > MAX_SUGGESTION_LIMIT) {
+            throw new NotValidResourceException("Limit must be between 1 and %s".formatted(MAX_SUGGESTION_LIMIT));
+        }
+        return autocompleteIndex.suggest(prefix, suggestionLimit);
+    }
+
+    public AutocompleteStats getAutocompleteStats() {
+        return autocompleteIndex.stats();
+    }
+}
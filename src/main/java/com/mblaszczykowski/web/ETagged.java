@@ -0,0 +1,8 @@
+package com.mblaszczykowski.web;
+
+/**
+ * A response body together with the strong ETag of the version it was read at; {@code eTag} is {@code null}
+ * when the resource has no version to tag it with.
+ */
+public record ETagged<T>(String eTag, T body) {
+}
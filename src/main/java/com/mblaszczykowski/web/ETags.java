@@ -0,0 +1,50 @@
+package com.mblaszczykowski.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional {@code GET} with strong ETags read from version columns.
+ * <p>
+ * When the request has {@code If-None-Match}, only the current version is read and a match is answered with
+ * {@code 304} without loading the resource. Otherwise the resource is loaded and sent with the ETag of the version
+ * it was loaded at - for a listing served from the menu cache, the version it was cached at - so the tag always
+ * describes the body sent with it.
+ * <p>
+ * To a client that accepts gzip the same tag is sent as weak: the server may compress the body, and Tomcat does not
+ * compress responses with a strong ETag. {@code If-None-Match} compares tags weakly, so both forms match.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static <T> ResponseEntity<T> get(HttpServletRequest request, Supplier<String> currentETag,
+                                            Supplier<ETagged<T>> loader) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            String eTag = currentETag.get();
+            // Bez odpowiedzi w ServletWebRequest samo porównanie - nagłówki ustawia zwracany ResponseEntity
+            if (eTag != null && new ServletWebRequest(request).checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(representationETag(request, eTag))
+                        .varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        ETagged<T> tagged = loader.get();
+        // Ta sama wersja jest JSON-em albo CBOR/Smile zależnie od Accept - cache musi trzymać je osobno
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (tagged.eTag() != null) {
+            response.eTag(representationETag(request, tagged.eTag()));
+        }
+        return response.body(tagged.body());
+    }
+
+    private static String representationETag(HttpServletRequest request, String eTag) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip") ? "W/\"" + eTag + "\"" : eTag;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mblaszczykowski.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabasePoolSizingTest {
+
+    @Test
+    void poolSizeFollowsCoresAndTomcatThreads() {
+        assertEquals(17, DatabasePoolSizing.poolSize(false, 8, 200, 0));
+        // Platformowe wątki - nie więcej połączeń niż wątków Tomcata
+        assertEquals(10, DatabasePoolSizing.poolSize(false, 8, 10, 0));
+        assertEquals(17, DatabasePoolSizing.poolSize(true, 8, 10, 0));
+        assertEquals(30, DatabasePoolSizing.poolSize(true, 8, 10, 30));
+        // Mała maszyna - strumienie i dyspozytor outboxa nie mogą zająć całej puli
+        assertEquals(10, DatabasePoolSizing.poolSize(true, 1, 200, 0));
+        assertEquals(3, DatabasePoolSizing.poolSize(true, 1, 200, 3));
+    }
+
+    @Test
+    void platformModeKeepsHikariTimeout() {
+        DatabasePoolSizing sizing = DatabasePoolSizing.from(new MockEnvironment()
+                .withProperty("threading.db-pool.size", "12"));
+
+        assertEquals(12, sizing.getMaximumPoolSize());
+        assertNull(sizing.getConnectionTimeout());
+    }
+
+    @Test
+    void platformModeWithoutConfiguredSizeKeepsHikariDefault() {
+        DatabasePoolSizing sizing = DatabasePoolSizing.from(new MockEnvironment());
+
+        assertNull(sizing.getMaximumPoolSize());
+        assertNull(sizing.getConnectionTimeout());
+    }
+
+    @Test
+    void virtualModeSizesPoolByCores() {
+        DatabasePoolSizing sizing = DatabasePoolSizing.from(new MockEnvironment()
+                .withProperty("threading.mode", "virtual"));
+
+        assertEquals(Math.max(10, 2 * Runtime.getRuntime().availableProcessors() + 1), sizing.getMaximumPoolSize());
+    }
+
+    @Test
+    void virtualModeShortensConnectionWait() {
+        DatabasePoolSizing sizing = DatabasePoolSizing.from(new MockEnvironment()
+                .withProperty("threading.mode", "VIRTUAL")
+                .withProperty("threading.db-pool.size", "12")
+                .withProperty("threading.db-pool.acquire-timeout", "2s"));
+
+        assertEquals(12, sizing.getMaximumPoolSize());
+        assertEquals(Duration.ofSeconds(2), sizing.getConnectionTimeout());
+    }
+
+    @Test
+    void explicitHikariSettingsWin() {
+        DatabasePoolSizing sizing = DatabasePoolSizing.from(new MockEnvironment()
+                .withProperty("threading.mode", "virtual")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "40")
+                .withProperty("spring.datasource.hikari.connection-timeout", "30000"));
+
+        assertNull(sizing.getMaximumPoolSize());
+        assertNull(sizing.getConnectionTimeout());
+    }
+
+    @Test
+    void unknownModeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DatabasePoolSizing.from(new MockEnvironment().withProperty("threading.mode", "reactive")));
+    }
+
+    @Test
+    void appliesSizingToHikariDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        try {
+            new DatabasePoolSizing(7, Duration.ofMillis(1500)).postProcessAfterInitialization(dataSource, "dataSource");
+
+            assertEquals(7, dataSource.getMaximumPoolSize());
+            assertEquals(1500, dataSource.getConnectionTimeout());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void virtualExecutorRequiresJava21() {
+        if (!ThreadingConfig.isVirtualThreadSupported()) {
+            assertThrows(IllegalStateException.class, ThreadingConfig::newVirtualThreadPerTaskExecutor);
+            return;
+        }
+        ExecutorService executor = ThreadingConfig.newVirtualThreadPerTaskExecutor();
+        executor.shutdown();
+    }
+}
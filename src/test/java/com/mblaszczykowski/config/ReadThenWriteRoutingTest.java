@@ -0,0 +1,152 @@
+package com.mblaszczykowski.config;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.customer.CustomerJPADataAccessService;
+import com.mblaszczykowski.customer.CustomerService;
+import com.mblaszczykowski.customer.CustomerUpdateRequest;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderJPADataAccessService;
+import com.mblaszczykowski.outbox.OutboxService;
+import com.mblaszczykowski.payment.Payment;
+import com.mblaszczykowski.payment.PaymentJPADataAccessService;
+import com.mblaszczykowski.payment.PaymentService;
+import com.mblaszczykowski.payment.PaymentUpdateRequest;
+import com.mblaszczykowski.restaurant.Restaurant;
+import jakarta.persistence.EntityManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Services that look an entity up and then write it must read it on the primary - a lagging replica would hand
+ * them a stale row (and a stale version) to overwrite.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadThenWriteRoutingTest.RoutingConfig.class, CustomerService.class, CustomerJPADataAccessService.class,
+        PaymentService.class, PaymentJPADataAccessService.class, OrderJPADataAccessService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadThenWriteRoutingTest {
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ReplicaRoute replica;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    private Customer customer;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            customer = persist(new Customer("Jan", "Kowalski", "jan-%s@example.com".formatted(UUID.randomUUID()),
+                    "Address", "123"));
+            Restaurant restaurant = persist(new Restaurant("Amo La Pasta", "Italian", "Address", "Mokotów", "111"));
+            Food pizza = persist(new Food("Pizza", "Pizza", "Italian", BigDecimal.TEN, true, restaurant));
+            Order order = persist(new Order(customer, new ArrayList<>(List.of(pizza)), "Address",
+                    Order.DeliveryType.PICKUP));
+            payment = persist(new Payment(order, Payment.PaymentMethod.BLIK));
+        });
+    }
+
+    @Test
+    void plainReadsGoToReplica() {
+        long before = replica.getConnections();
+
+        customerService.getCustomerById(customer.getId());
+        paymentService.getById(payment.getId());
+
+        assertEquals(before + 2, replica.getConnections());
+    }
+
+    @Test
+    void updateCustomerLooksCustomerUpOnPrimary() {
+        long before = replica.getConnections();
+
+        customerService.updateCustomer(customer.getId(), new CustomerUpdateRequest("Janek", null, null, null, null));
+
+        assertEquals(before, replica.getConnections());
+        assertEquals("Janek", customerService.getCustomerById(customer.getId()).getFirstname());
+    }
+
+    @Test
+    void updatePaymentLooksPaymentUpOnPrimary() {
+        long before = replica.getConnections();
+
+        paymentService.updatePayment(payment.getId(), new PaymentUpdateRequest(Payment.PaymentStatus.CANCELLED));
+
+        assertEquals(before, replica.getConnections());
+        assertEquals(Payment.PaymentStatus.CANCELLED, paymentService.getById(payment.getId()).getPaymentStatus());
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    // Replika to drugi DataSource na tę samą bazę H2 - liczy się tylko, przez który poszło połączenie
+    @TestConfiguration
+    static class RoutingConfig {
+        private static final String URL = "jdbc:h2:mem:routing-%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID());
+
+        @Bean
+        ReplicaRoute replica() {
+            return new ReplicaRoute("replica-1", database());
+        }
+
+        @Bean(destroyMethod = "close")
+        ReplicaRoutingDataSource routingDataSource(ReplicaRoute replica) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(database(), List.of(replica),
+                    Duration.ofSeconds(5), "SELECT 0");
+            routing.checkHealth();
+            return routing;
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+
+        private static DataSource database() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(URL);
+            return dataSource;
+        }
+    }
+}
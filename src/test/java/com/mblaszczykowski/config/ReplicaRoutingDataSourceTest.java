@@ -0,0 +1,174 @@
+package com.mblaszczykowski.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+    private JdbcDataSource primary;
+    private JdbcDataSource firstReplica;
+    private JdbcDataSource secondReplica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    // Osobne bazy H2 w pamięci zamiast primary i replik PostgreSQL - każda zwraca swoją nazwę
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        firstReplica = database("replica-1");
+        secondReplica = database("replica-2");
+        routingDataSource = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoute("replica-1", firstReplica), new ReplicaRoute("replica-2", secondReplica)),
+                Duration.ofSeconds(5), "SELECT seconds FROM replica_lag");
+        routingDataSource.checkHealth();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        routingDataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasInTurn() {
+        assertEquals("replica-1", readInTransaction());
+        assertEquals("replica-2", readInTransaction());
+        assertEquals("replica-1", readInTransaction());
+        assertEquals("primary", writes.execute(status -> name()));
+        // Bez transakcji (np. inicjalizacja schematu) zawsze primary
+        assertEquals("primary", name());
+    }
+
+    @Test
+    void readsAfterWriteInSameRequestStayOnPrimary() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("replica-1", readInTransaction());
+
+        writes.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET name = name"));
+
+        assertEquals("primary", readInTransaction());
+        assertEquals("primary", readInTransaction());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("replica-2", readInTransaction());
+    }
+
+    @Test
+    void laggingReplicaLeavesRotationUntilItCatchesUp() {
+        new JdbcTemplate(firstReplica).update("UPDATE replica_lag SET seconds = 12.5");
+        routingDataSource.checkHealth();
+
+        ReplicaRoute lagging = routingDataSource.getReplicas().get(0);
+        assertEquals(ReplicaRoute.State.LAGGING, lagging.getState());
+        assertEquals(12.5, lagging.getLagSeconds());
+        assertEquals("replica-2", readInTransaction());
+        assertEquals("replica-2", readInTransaction());
+
+        new JdbcTemplate(firstReplica).update("UPDATE replica_lag SET seconds = 0.2");
+        routingDataSource.checkHealth();
+
+        assertEquals(ReplicaRoute.State.UP, lagging.getState());
+        assertEquals(List.of("replica-1", "replica-2"), List.of(readInTransaction(), readInTransaction()));
+    }
+
+    @Test
+    void unavailableReplicasFallBackToPrimary() throws SQLException {
+        shutdown(firstReplica);
+        assertEquals("replica-2", readInTransaction());
+        assertEquals(ReplicaRoute.State.DOWN, routingDataSource.getReplicas().get(0).getState());
+
+        shutdown(secondReplica);
+        assertEquals("primary", readInTransaction());
+        assertEquals(1, routingDataSource.getPrimaryFallbacks());
+
+        routingDataSource.checkHealth();
+        assertFalse(routingDataSource.getReplicas().get(1).isUp());
+        assertEquals("primary", readInTransaction());
+    }
+
+    @Test
+    void withoutReplicasEverythingUsesPrimary() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(), Duration.ofSeconds(5),
+                ReplicaRoutingDataSource.DEFAULT_LAG_QUERY);
+        routingDataSource.start(Duration.ofSeconds(1));
+        reads.setTransactionManager(new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routingDataSource)));
+        jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+
+        assertEquals("primary", readInTransaction());
+        assertEquals(0, routingDataSource.getPrimaryFallbacks());
+    }
+
+    @Test
+    void explicitCredentialsFollowTheSameRoute() {
+        assertEquals("replica-1", reads.execute(status -> nameWithCredentials()));
+        assertEquals("primary", writes.execute(status -> nameWithCredentials()));
+    }
+
+    private String nameWithCredentials() {
+        try (Connection connection = routingDataSource.getConnection("", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM marker")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String readInTransaction() {
+        return reads.execute(status -> name());
+    }
+
+    private String name() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static JdbcDataSource database(String name) {
+        String url = "jdbc:h2:mem:%s-%s;DB_CLOSE_DELAY=-1".formatted(name, UUID.randomUUID());
+        JdbcDataSource setup = new JdbcDataSource();
+        setup.setURL(url);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(setup);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO marker VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+        jdbcTemplate.update("INSERT INTO replica_lag VALUES (0)");
+
+        // Po SHUTDOWN nowe połączenie nie założy pustej bazy, tylko się nie uda
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url + ";IFEXISTS=TRUE");
+        return dataSource;
+    }
+
+    private static void shutdown(JdbcDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+}
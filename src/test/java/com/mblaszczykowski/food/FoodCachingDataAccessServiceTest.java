@@ -0,0 +1,167 @@
+package com.mblaszczykowski.food;
+
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.web.ETagged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FoodCachingDataAccessServiceTest {
+    @Mock
+    private FoodDAO foodDAO;
+
+    private MenuCache menuCache;
+    private FoodCachingDataAccessService cachingDAO;
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        menuCache = new MenuCache(Duration.ofMinutes(5), 100);
+        cachingDAO = new FoodCachingDataAccessService(foodDAO, menuCache);
+        restaurant = new Restaurant();
+        restaurant.setId(1);
+    }
+
+    @Test
+    void testGetFoodByRestaurantID_SecondReadIsServedFromCache() {
+        List<Food> menu = List.of(food(1, "Italian"));
+        when(foodDAO.getFoodByRestaurantID(1)).thenReturn(menu);
+
+        assertEquals(menu, cachingDAO.getFoodByRestaurantID(1));
+        assertEquals(menu, cachingDAO.getFoodByRestaurantID(1));
+
+        verify(foodDAO, times(1)).getFoodByRestaurantID(1);
+        MenuCacheStats stats = menuCache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void testGetETaggedFoodByRestaurantID_HitKeepsTagWithoutReadingVersion() {
+        List<Food> menu = List.of(food(1, "Italian"));
+        when(foodDAO.getETaggedFoodByRestaurantID(eq(1), any())).thenReturn(new ETagged<>("3", menu));
+
+        assertEquals(new ETagged<>("3", menu), cachingDAO.getETaggedFoodByRestaurantID(1, () -> "3"));
+        // Wersja w bazie poszła dalej, ale lista w cache jest ta sama - klient dostaje tag, przy którym ją wczytano
+        assertEquals(new ETagged<>("3", menu), cachingDAO.getETaggedFoodByRestaurantID(1, () -> "4"));
+
+        verify(foodDAO, times(1)).getETaggedFoodByRestaurantID(eq(1), any());
+    }
+
+    @Test
+    void testGetETaggedFoodByRestaurantID_ListingCachedWithoutTag_IsReloadedWithTag() {
+        List<Food> menu = List.of(food(1, "Italian"));
+        when(foodDAO.getFoodByRestaurantID(1)).thenReturn(menu);
+        when(foodDAO.getETaggedFoodByRestaurantID(eq(1), any())).thenReturn(new ETagged<>("3", menu));
+        cachingDAO.getFoodByRestaurantID(1);
+
+        assertEquals("3", cachingDAO.getETaggedFoodByRestaurantID(1, () -> "3").eTag());
+        assertEquals("3", cachingDAO.getETaggedFoodByRestaurantID(1, () -> "3").eTag());
+        assertEquals(menu, cachingDAO.getFoodByRestaurantID(1));
+
+        verify(foodDAO, times(1)).getFoodByRestaurantID(1);
+        verify(foodDAO, times(1)).getETaggedFoodByRestaurantID(eq(1), any());
+    }
+
+    @Test
+    void testAddFood_InvalidatesRestaurantCategoryAndAllListings() {
+        when(foodDAO.getAllFood()).thenReturn(List.of());
+        when(foodDAO.getFoodByRestaurantID(1)).thenReturn(List.of());
+        when(foodDAO.getFoodByCategory("Italian")).thenReturn(List.of());
+        cachingDAO.getAllFood();
+        cachingDAO.getFoodByRestaurantID(1);
+        cachingDAO.getFoodByCategory("Italian");
+
+        cachingDAO.addFood(food(2, "Italian"));
+        cachingDAO.getAllFood();
+        cachingDAO.getFoodByRestaurantID(1);
+        cachingDAO.getFoodByCategory("Italian");
+
+        verify(foodDAO, times(2)).getAllFood();
+        verify(foodDAO, times(2)).getFoodByRestaurantID(1);
+        verify(foodDAO, times(2)).getFoodByCategory("Italian");
+    }
+
+    @Test
+    void testUpdateFood_InvalidatesPreviousCategory() {
+        Food pizza = food(1, "Italian");
+        when(foodDAO.getFoodByCategory("Italian")).thenReturn(List.of(pizza));
+        when(foodDAO.getFoodByCategory("American")).thenReturn(List.of());
+        cachingDAO.getFoodByCategory("Italian");
+        cachingDAO.getFoodByCategory("American");
+
+        Food moved = food(1, "American");
+        cachingDAO.updateFood(moved);
+        cachingDAO.getFoodByCategory("Italian");
+        cachingDAO.getFoodByCategory("American");
+
+        verify(foodDAO, times(2)).getFoodByCategory("Italian");
+        verify(foodDAO, times(2)).getFoodByCategory("American");
+        verify(foodDAO, times(1)).updateFood(moved);
+    }
+
+    @Test
+    void testDeleteFood_KeepsUnrelatedListings() {
+        when(foodDAO.getFoodByCategory("American")).thenReturn(List.of(food(5, "American")));
+        cachingDAO.getFoodByCategory("American");
+
+        Restaurant other = new Restaurant();
+        other.setId(2);
+        Food pizza = food(1, "Italian");
+        pizza.setRestaurant(other);
+        cachingDAO.deleteFood(pizza);
+        cachingDAO.getFoodByCategory("American");
+
+        verify(foodDAO, times(1)).getFoodByCategory("American");
+    }
+
+    @Test
+    void testUpdateFood_InTransaction_InvalidatesAfterCommit() {
+        Food pizza = food(1, "Italian");
+        when(foodDAO.getFoodByRestaurantID(1)).thenReturn(List.of(pizza));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cachingDAO.updateFood(pizza);
+            // Równoległy odczyt przed commitem widzi jeszcze stare menu
+            cachingDAO.getFoodByRestaurantID(1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cachingDAO.getFoodByRestaurantID(1);
+
+        verify(foodDAO, times(2)).getFoodByRestaurantID(1);
+    }
+
+    @Test
+    void testMaximumSize_EvictsEntries() {
+        menuCache = new MenuCache(Duration.ofMinutes(5), 1);
+        cachingDAO = new FoodCachingDataAccessService(foodDAO, menuCache);
+        when(foodDAO.getFoodByRestaurantID(anyInt())).thenReturn(List.of());
+
+        for (int i = 0; i < 10; i++) {
+            cachingDAO.getFoodByRestaurantID(i);
+        }
+        cachingDAO.getFoodByRestaurantID(0);
+
+        assertTrue(menuCache.stats().evictions() > 0);
+    }
+
+    private Food food(int id, String category) {
+        Food food = new Food("Food " + id, "Description", category, BigDecimal.TEN, true, restaurant);
+        food.setId(id);
+        return food;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mblaszczykowski.food;
+
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodR2dbcDataAccessServiceTest {
+    private CloseableConnectionFactory connectionFactory;
+    private FoodR2dbcDataAccessService foodR2dbcDataAccessService;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = H2ConnectionFactory.inMemory("food-r2dbc-" + UUID.randomUUID());
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        List.of(
+                """
+                CREATE TABLE restaurant (id INT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255),
+                    address VARCHAR(255), district VARCHAR(255), phone_number VARCHAR(255))
+                """,
+                """
+                CREATE TABLE food (id INT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255), category VARCHAR(255),
+                    price NUMERIC(38, 2), is_vegetarian BOOLEAN, restaurant_id INT REFERENCES restaurant (id))
+                """,
+                "INSERT INTO restaurant VALUES (1, 'Amo La Pasta', 'Italian', 'ul. Mokotowska 15', 'Mokotów', '+48 222 333 444')",
+                "INSERT INTO restaurant VALUES (2, 'Bar Mleczny', 'Polish', 'ul. Nowa 5', 'Wola', '+48 111 222 333')",
+                "INSERT INTO food VALUES (1, 'Margherita', 'Tomato and mozzarella', 'Pizza', 25.00, TRUE, 1)",
+                "INSERT INTO food VALUES (2, 'Pepperoni', 'Spicy salami', 'Pizza', 32.00, FALSE, 1)",
+                "INSERT INTO food VALUES (3, 'Pierogi ruskie', 'Potato and cheese', 'Polish', 18.00, TRUE, 2)"
+        ).forEach(sql -> databaseClient.sql(sql).then().block());
+        foodR2dbcDataAccessService = new FoodR2dbcDataAccessService(databaseClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.close();
+    }
+
+    @Test
+    void getFoodByIdMapsFoodWithRestaurant() {
+        Food food = foodR2dbcDataAccessService.getFoodById(3).block();
+
+        assertNotNull(food);
+        assertEquals("Pierogi ruskie", food.getName());
+        assertEquals(0, new BigDecimal("18.00").compareTo(food.getPrice()));
+        assertTrue(food.isVegetarian());
+        assertEquals(2, food.getRestaurant().getId());
+        assertEquals("Bar Mleczny", food.getRestaurant().getName());
+        assertEquals("+48 111 222 333", food.getRestaurant().getPhoneNumber());
+        assertNull(foodR2dbcDataAccessService.getFoodById(99).block());
+    }
+
+    @Test
+    void filtersMatchJpaQueries() {
+        assertEquals(List.of(1, 2, 3), ids(foodR2dbcDataAccessService.getAllFood().collectList().block()));
+        assertEquals(List.of(1, 2), ids(foodR2dbcDataAccessService.getFoodByRestaurantID(1).collectList().block()));
+        assertEquals(List.of(1, 2), ids(foodR2dbcDataAccessService.getFoodByCategory("Pizza").collectList().block()));
+        assertEquals(List.of(2), ids(foodR2dbcDataAccessService.getFoodByName("Pepperoni").collectList().block()));
+        assertEquals(List.of(1, 3), ids(foodR2dbcDataAccessService
+                .getFoodByPriceRange(new BigDecimal("10"), new BigDecimal("30")).collectList().block()));
+    }
+
+    @Test
+    void getVegetarianFoodAppliesOptionalFilters() {
+        assertEquals(List.of(1, 3), ids(foodR2dbcDataAccessService.getVegetarianFood(null, null, null).collectList().block()));
+        assertEquals(List.of(1), ids(foodR2dbcDataAccessService.getVegetarianFood("Pizza", null, null).collectList().block()));
+        assertEquals(List.of(3), ids(foodR2dbcDataAccessService
+                .getVegetarianFood(null, new BigDecimal("10"), new BigDecimal("20")).collectList().block()));
+        assertTrue(foodR2dbcDataAccessService
+                .getVegetarianFood("Pizza", new BigDecimal("10"), new BigDecimal("20")).collectList().block().isEmpty());
+    }
+
+    private static List<Integer> ids(List<Food> foods) {
+        return foods.stream().map(Food::getId).toList();
+    }
+}
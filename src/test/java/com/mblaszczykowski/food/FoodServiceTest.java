@@ -1,12 +1,16 @@
 import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.food.*;
 import com.mblaszczykowski.restaurant.Restaurant;
 import com.mblaszczykowski.restaurant.RestaurantDAO;
+import com.mblaszczykowski.search.AutocompleteIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -23,12 +27,15 @@ class FoodServiceTest {
     @Mock
     private RestaurantDAO restaurantDAO;
 
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
     private FoodService foodService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        foodService = new FoodService(foodDAO, restaurantDAO);
+        foodService = new FoodService(foodDAO, restaurantDAO, autocompleteIndex);
     }
 
     @Test
@@ -124,6 +131,82 @@ class FoodServiceTest {
         assertEquals("Salad", result.get(1).getName());
     }
 
+    @Test
+    void testGetVegetarianFood_WithFilters_DelegatesToDao() {
+        BigDecimal minPrice = BigDecimal.valueOf(5.0);
+        BigDecimal maxPrice = BigDecimal.valueOf(15.0);
+        List<Food> foodList = List.of(new Food("Pizza", "Delicious pizza", "Italian", BigDecimal.valueOf(12.99), true, new Restaurant()));
+        when(foodDAO.getVegetarianFood("Italian", minPrice, maxPrice)).thenReturn(foodList);
+
+        List<Food> result = foodService.getVegetarianFood("Italian", minPrice, maxPrice);
+
+        assertEquals(foodList, result);
+    }
+
+    @Test
+    void testGetVegetarianFood_WithoutFilters_ReturnsAllVegetarianFood() {
+        List<Food> foodList = List.of(new Food("Salad", "Fresh salad", "Healthy", BigDecimal.valueOf(8.99), true, new Restaurant()));
+        when(foodDAO.getVegetarianFood()).thenReturn(foodList);
+
+        List<Food> result = foodService.getVegetarianFood(null, null, null);
+
+        assertEquals(foodList, result);
+    }
+
+    @Test
+    void testGetVegetarianFood_InvalidPriceRange_ThrowsNotValidResourceException() {
+        assertThrows(NotValidResourceException.class,
+                () -> foodService.getVegetarianFood(null, BigDecimal.TEN, null));
+        assertThrows(NotValidResourceException.class,
+                () -> foodService.getVegetarianFood(null, BigDecimal.TEN, BigDecimal.ONE));
+        verify(foodDAO, never()).getVegetarianFood(any(), any(), any());
+    }
+
+    @Test
+    void testSearchFood_FullPage_ReturnsCursorOfLastRow() {
+        Food first = new Food("Pizza", "Delicious pizza", "Italian", BigDecimal.valueOf(12.99), true, new Restaurant());
+        first.setId(4);
+        Food second = new Food("Pasta", "Tasty pasta", "Italian", BigDecimal.valueOf(14.50), true, new Restaurant());
+        second.setId(2);
+        FoodSearchRequest request = new FoodSearchRequest(
+                null, "Italian", 1, null, null, null, FoodSearchRequest.SortBy.PRICE, Sort.Direction.ASC, null, 2
+        );
+        when(foodDAO.searchFood(request, null, 2)).thenReturn(List.of(first, second));
+
+        FoodPage result = foodService.searchFood(request);
+
+        assertEquals(List.of(first, second), result.foods());
+        assertEquals(new FoodSearchCursor("14.5", 2), FoodSearchCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void testSearchFood_WithCursor_PassesDecodedCursorToDao() {
+        String cursor = new FoodSearchCursor("Pasta", 2).encode();
+        FoodSearchRequest request = new FoodSearchRequest(
+                null, null, null, null, null, true, FoodSearchRequest.SortBy.NAME, Sort.Direction.DESC, cursor, null
+        );
+        when(foodDAO.searchFood(request, new FoodSearchCursor("Pasta", 2), 20)).thenReturn(List.of());
+
+        FoodPage result = foodService.searchFood(request);
+
+        assertTrue(result.foods().isEmpty());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void testSearchFood_InvalidRequest_ThrowsNotValidResourceException() {
+        FoodSearchRequest tooLarge = new FoodSearchRequest(
+                null, null, null, null, null, null, FoodSearchRequest.SortBy.ID, Sort.Direction.ASC, null, 500
+        );
+        FoodSearchRequest badCursor = new FoodSearchRequest(
+                null, null, null, null, null, null, FoodSearchRequest.SortBy.ID, Sort.Direction.ASC, "not a cursor", null
+        );
+
+        assertThrows(NotValidResourceException.class, () -> foodService.searchFood(tooLarge));
+        assertThrows(NotValidResourceException.class, () -> foodService.searchFood(badCursor));
+        verify(foodDAO, never()).searchFood(any(), any(), anyInt());
+    }
+
     @Test
     void testAddFood_InvalidRestaurant_ThrowsResourceNotFoundException() {
         FoodRegistrationRequest request = new FoodRegistrationRequest(new Restaurant(), "Pizza", "Delicious pizza", "Italian", 12.99, true);
@@ -143,6 +226,7 @@ class FoodServiceTest {
         foodService.deleteFood(foodId);
 
         verify(foodDAO, times(1)).deleteFood(existingFood);
+        verify(autocompleteIndex).foodRemoved(foodId);
     }
 
     @Test
@@ -152,6 +236,43 @@ class FoodServiceTest {
 
         assertThrows(ResourceNotFoundException.class, () -> foodService.deleteFood(foodId));
         verify(foodDAO, never()).deleteFood(any(Food.class));
+        verifyNoInteractions(autocompleteIndex);
     }
 
+    @Test
+    void testUpdateFood_MovedToAnotherRestaurant_IncrementsBothMenuVersions() {
+        Restaurant previous = new Restaurant();
+        previous.setId(1);
+        Restaurant next = new Restaurant();
+        next.setId(2);
+        Food existingFood = new Food("Pizza", "Delicious pizza", "Italian", BigDecimal.valueOf(12.99), true, previous);
+        when(foodDAO.getFoodById(1)).thenReturn(Optional.of(existingFood));
+
+        foodService.updateFood(1, new FoodUpdateRequest(null, null, null, 0, true, next));
+
+        verify(foodDAO).updateFood(existingFood);
+        verify(restaurantDAO).incrementMenuVersions(List.of(1, 2));
+    }
+
+    @Test
+    void testUpdateFood_ChangedConcurrently_ThrowsResourceConflictException() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(1);
+        Food existingFood = new Food("Pizza", "Delicious pizza", "Italian", BigDecimal.valueOf(12.99), true, restaurant);
+        when(foodDAO.getFoodById(1)).thenReturn(Optional.of(existingFood));
+        doThrow(new OptimisticLockingFailureException("version")).when(foodDAO).updateFood(existingFood);
+
+        assertThrows(ResourceConflictException.class,
+                () -> foodService.updateFood(1, new FoodUpdateRequest("Margherita", null, null, 0, true, null)));
+        verify(restaurantDAO, never()).incrementMenuVersions(any());
+        verifyNoInteractions(autocompleteIndex);
+    }
+
+    @Test
+    void testGetFoodETag_NonExistingId_ThrowsWithoutLoadingFood() {
+        when(foodDAO.getVersion(1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> foodService.getFoodETag(1));
+        verify(foodDAO, never()).getFoodById(anyInt());
+    }
 }
@@ -0,0 +1,166 @@
+package com.mblaszczykowski.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mblaszczykowski.outbox.InProcessOutboxSink;
+import com.mblaszczykowski.outbox.OutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventStreamTest {
+    private InProcessOutboxSink outboxSink;
+    private OrderEventStream orderEventStream;
+
+    @BeforeEach
+    void setUp() {
+        outboxSink = new InProcessOutboxSink();
+        orderEventStream = new OrderEventStream(outboxSink, new ObjectMapper(), 2, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), OrderEventStream.newSenders(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        orderEventStream.close();
+    }
+
+    @Test
+    void streamsOrderEventsOfSubscribedRestaurant() throws Exception {
+        RecordingEmitter first = new RecordingEmitter(null);
+        RecordingEmitter second = new RecordingEmitter(null);
+        orderEventStream.subscribe(1, first);
+        orderEventStream.subscribe(2, second);
+
+        outboxSink.publish(List.of(
+                message(1L, "OrderCreated", "[1]"),
+                message(2L, "OrderStatusChanged", "[1, 2]"),
+                message(3L, "PaymentRecorded", "[1]"),
+                message(4L, "OrderCreated", "[3]")
+        ));
+
+        assertEquals(List.of("1", "2"), first.awaitIds(2));
+        assertEquals(List.of("2"), second.awaitIds(1));
+        assertEquals(2, orderEventStream.getSubscribers());
+    }
+
+    @Test
+    void slowSubscriberDropsOldestEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        orderEventStream.subscribe(1, slow);
+
+        outboxSink.publish(List.of(message(1L, "OrderCreated", "[1]")));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        outboxSink.publish(List.of(
+                message(2L, "OrderCreated", "[1]"),
+                message(3L, "OrderCreated", "[1]"),
+                message(4L, "OrderCreated", "[1]"),
+                message(5L, "OrderCreated", "[1]")
+        ));
+        release.countDown();
+
+        // Pierwsze było już w drodze, z bufora na dwa zostają dwa najnowsze
+        assertEquals(List.of("1", "4", "5"), slow.awaitIds(3));
+        assertEquals(2, orderEventStream.getDropped());
+    }
+
+    @Test
+    void stalledSubscriberIsEvictedWithoutHoldingUpOthers() throws Exception {
+        orderEventStream.close();
+        orderEventStream = new OrderEventStream(outboxSink, new ObjectMapper(), 2, Duration.ofMinutes(1),
+                Duration.ofMillis(200), OrderEventStream.newSenders(1));
+        CountDownLatch never = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(never);
+        RecordingEmitter reading = new RecordingEmitter(null);
+        orderEventStream.subscribe(1, stalled);
+        orderEventStream.subscribe(1, reading);
+
+        outboxSink.publish(List.of(message(1L, "OrderCreated", "[1]")));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1"), reading.awaitIds(1));
+        outboxSink.publish(List.of(message(2L, "OrderCreated", "[1]"), message(3L, "OrderCreated", "[1]")));
+
+        // Jedyny bezczynny nadawca utknął na pierwszym kliencie - drugi i tak dostaje wszystko
+        assertEquals(List.of("2", "3"), reading.awaitIds(2));
+        awaitSubscribers(1);
+        assertEquals(1, orderEventStream.getEvicted());
+
+        outboxSink.publish(List.of(message(4L, "OrderCreated", "[1]")));
+        assertEquals(List.of("4"), reading.awaitIds(1));
+        never.countDown();
+        assertEquals(List.of("1"), stalled.awaitIds(1));
+        assertNull(stalled.ids.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void failedSendClosesSubscriber() throws Exception {
+        RecordingEmitter broken = new RecordingEmitter(null) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        orderEventStream.subscribe(1, broken);
+
+        outboxSink.publish(List.of(message(1L, "OrderCreated", "[1]")));
+
+        awaitSubscribers(0);
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (orderEventStream.getSubscribers() != count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, orderEventStream.getSubscribers());
+    }
+
+    private static OutboxMessage message(Long id, String type, String restaurantIds) {
+        return new OutboxMessage(id, type, 7, LocalDateTime.now(),
+                "{\"orderId\":7,\"restaurantIds\":" + restaurantIds + "}");
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> ids = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String event = builder.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining());
+            ids.add(event.substring("id:".length(), event.indexOf('\n')));
+        }
+
+        private List<String> awaitIds(int count) throws InterruptedException {
+            List<String> result = new ArrayList<>();
+            while (result.size() < count) {
+                String id = ids.poll(5, TimeUnit.SECONDS);
+                assertNotNull(id, "received only " + result);
+                result.add(id);
+            }
+            return result;
+        }
+    }
+}
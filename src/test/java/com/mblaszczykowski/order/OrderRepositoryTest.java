@@ -0,0 +1,157 @@
+package com.mblaszczykowski.order;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.restaurant.Restaurant;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryTest {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer firstCustomer;
+    private Restaurant firstRestaurant;
+    private Food pizza;
+
+    @BeforeEach
+    void setUp() {
+        firstCustomer = persist(new Customer("Jan", "Kowalski", "jan@example.com", "Address", "123"));
+        Customer secondCustomer = persist(new Customer("Anna", "Nowak", "anna@example.com", "Address", "456"));
+
+        firstRestaurant = persist(new Restaurant("Amo La Pasta", "Italian", "Address", "Mokotów", "111"));
+        Restaurant secondRestaurant = persist(new Restaurant("Burger Bar", "American", "Address", "Wola", "222"));
+
+        pizza = persist(new Food("Pizza", "Pizza", "Italian", BigDecimal.TEN, true, firstRestaurant));
+        Food pasta = persist(new Food("Pasta", "Pasta", "Italian", BigDecimal.ONE, true, firstRestaurant));
+        Food burger = persist(new Food("Burger", "Burger", "American", BigDecimal.TEN, false, secondRestaurant));
+
+        for (int i = 0; i < 5; i++) {
+            persist(new Order(firstCustomer, new ArrayList<>(List.of(pizza, burger)), "Address", Order.DeliveryType.PICKUP));
+            persist(new Order(secondCustomer, new ArrayList<>(List.of(pasta)), "Address", Order.DeliveryType.SHIPPING));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void orderListProjectionsRunTwoStatementsAndDeduplicateFood() {
+        OrderList orders = OrderList.of(orderRepository.findOrderRowsByCustomerId(firstCustomer.getId()),
+                orderRepository.findOrderLineRowsByCustomerId(firstCustomer.getId()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(5, orders.orders().size());
+        assertEquals(firstCustomer.getId(), orders.orders().get(0).customerId());
+        assertEquals(Order.OrderStatus.PENDING, orders.orders().get(0).status());
+        assertEquals(2, orders.orders().get(0).foodIds().size());
+        // Pięć zamówień z tymi samymi dwoma daniami - każde danie i restauracja raz
+        assertEquals(2, orders.foods().size());
+        assertEquals(2, orders.restaurants().size());
+        assertTrue(orders.restaurants().contains(new OrderList.RestaurantEntry(firstRestaurant.getId(), "Amo La Pasta")));
+    }
+
+    @Test
+    void orderListByRestaurantKeepsFoodFromOtherRestaurants() {
+        OrderList orders = OrderList.of(orderRepository.findOrderRowsByRestaurantId(firstRestaurant.getId()),
+                orderRepository.findOrderLineRowsByRestaurantId(firstRestaurant.getId()));
+
+        assertEquals(10, orders.orders().size());
+        assertEquals(3, orders.foods().size());
+        assertEquals(15, orders.orders().stream().mapToInt(order -> order.foodIds().size()).sum());
+        assertEquals(orders.orders().size(), orderRepository.findOrderRows().size());
+    }
+
+    @Test
+    void saveAllBatchesOrderAndOrderFoodInserts() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(new Order(firstCustomer, new ArrayList<>(List.of(pizza)), "Address", Order.DeliveryType.PICKUP));
+        }
+        statistics.clear();
+
+        orderRepository.saveAll(orders);
+        entityManager.flush();
+
+        assertTrue(orders.stream().allMatch(order -> order.getId() != null));
+        // Jeden INSERT do orders, jeden do order_food i pojedyncze pobrania z sekwencji
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Expected batched inserts, got %s statements".formatted(statistics.getPrepareStatementCount()));
+    }
+
+    @Test
+    void updateStatusOnlyMatchesExpectedStatus() {
+        Order order = persist(new Order(firstCustomer, new ArrayList<>(List.of(pizza)), "Address", Order.DeliveryType.PICKUP));
+        entityManager.flush();
+
+        assertEquals(0, orderRepository.updateStatus(order.getId(), Order.OrderStatus.PROCESSING, Order.OrderStatus.CANCELLED));
+        assertEquals(1, orderRepository.updateStatus(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING));
+        assertEquals(Optional.of(Order.OrderStatus.PROCESSING), orderRepository.findStatusById(order.getId()));
+        assertEquals(List.of(firstRestaurant.getId()), orderRepository.findRestaurantIdsById(order.getId()));
+    }
+
+    @Test
+    void savingStaleOrderKeepsStatusChangedMeanwhile() {
+        Order order = persist(new Order(firstCustomer, new ArrayList<>(List.of(pizza)), "Address", Order.DeliveryType.PICKUP));
+        entityManager.flush();
+
+        orderRepository.updateStatus(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        order.setAddress("New Address");
+        orderRepository.save(order);
+        entityManager.flush();
+        entityManager.clear();
+
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals("New Address", reloaded.getAddress());
+        assertEquals(Order.OrderStatus.PROCESSING, reloaded.getStatus());
+    }
+
+    @Test
+    void statusAndPaymentUpdatesBumpOrderVersion() {
+        Order order = persist(new Order(firstCustomer, new ArrayList<>(List.of(pizza)), "Address", Order.DeliveryType.PICKUP));
+        entityManager.flush();
+        OrderVersion created = orderRepository.findVersionById(order.getId()).orElseThrow();
+
+        orderRepository.updateStatus(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING);
+        orderRepository.markPaid(order.getId());
+        entityManager.clear();
+
+        Order reloaded = orderRepository.findById(order.getId()).orElseThrow();
+        assertTrue(reloaded.isPaid());
+        assertEquals(created.order() + 2, reloaded.getVersion());
+        assertEquals(Optional.of(OrderVersion.of(reloaded)), orderRepository.findVersionById(order.getId()));
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+}
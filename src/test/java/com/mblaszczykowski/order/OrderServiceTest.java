@@ -1,18 +1,24 @@
 import com.mblaszczykowski.customer.Customer;
 import com.mblaszczykowski.customer.CustomerDAO;
 import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceConflictException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.food.Food;
 import com.mblaszczykowski.food.FoodDAO;
 import com.mblaszczykowski.order.*;
+import com.mblaszczykowski.outbox.OutboxService;
+import com.mblaszczykowski.restaurant.Restaurant;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -30,10 +36,13 @@ class OrderServiceTest {
     @Mock
     private CustomerDAO customerDAO;
 
+    @Mock
+    private OutboxService outboxService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        orderService = new OrderService(orderDAO, foodDAO, customerDAO);
+        orderService = new OrderService(orderDAO, foodDAO, customerDAO, outboxService);
     }
 
     @Test
@@ -58,39 +67,70 @@ class OrderServiceTest {
     }
 
     @Test
-    void testGetAll() {
-        List<Order> orders = List.of(new Order(), new Order());
-        when(orderDAO.getAll()).thenReturn(orders);
+    void testGetOrderList() {
+        OrderList orders = OrderList.of(List.of(), List.of());
+        when(orderDAO.getOrderList()).thenReturn(orders);
 
-        List<Order> result = orderService.getAll();
+        OrderList result = orderService.getOrderList();
 
-        assertNotNull(result);
         assertEquals(orders, result);
-        verify(orderDAO, times(1)).getAll();
+        verify(orderDAO, times(1)).getOrderList();
     }
 
     @Test
-    void testGetOrdersByCustomerId() {
-        List<Order> orders = List.of(new Order(), new Order());
-        when(orderDAO.getOrdersByCustomerId(anyInt())).thenReturn(orders);
+    void testGetOrdersPageReturnsNextCursorWhenPageIsFull() {
+        Order first = new Order();
+        first.setId(3);
+        Order second = new Order();
+        second.setId(7);
+        when(orderDAO.getOrdersAfter(0, 2)).thenReturn(List.of(first, second));
 
-        List<Order> result = orderService.getOrdersByCustomerId(1);
+        OrderPage result = orderService.getOrdersPage(null, 2);
+
+        assertEquals(List.of(first, second), result.orders());
+        assertEquals(7, result.nextCursor());
+    }
+
+    @Test
+    void testGetOrdersPageLastPageHasNoCursor() {
+        Order order = new Order();
+        order.setId(8);
+        when(orderDAO.getOrdersAfter(7, 2)).thenReturn(List.of(order));
+
+        OrderPage result = orderService.getOrdersPage(7, 2);
+
+        assertEquals(1, result.orders().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void testGetOrdersPageInvalidSize() {
+        assertThrows(NotValidResourceException.class, () -> orderService.getOrdersPage(null, 0));
+        assertThrows(NotValidResourceException.class, () -> orderService.getOrdersPage(null, 1000));
+
+        verify(orderDAO, never()).getOrdersAfter(any(), anyInt());
+    }
+
+    @Test
+    void testGetOrderListByCustomerId() {
+        OrderList orders = OrderList.of(List.of(), List.of());
+        when(orderDAO.getOrderListByCustomerId(anyInt())).thenReturn(orders);
+
+        OrderList result = orderService.getOrderListByCustomerId(1);
 
-        assertNotNull(result);
         assertEquals(orders, result);
-        verify(orderDAO, times(1)).getOrdersByCustomerId(eq(1));
+        verify(orderDAO, times(1)).getOrderListByCustomerId(eq(1));
     }
 
     @Test
-    void testGetOrdersByRestaurantId() {
-        List<Order> orders = List.of(new Order(), new Order());
-        when(orderDAO.getOrdersByRestaurantId(anyInt())).thenReturn(orders);
+    void testGetOrderListByRestaurantId() {
+        OrderList orders = OrderList.of(List.of(), List.of());
+        when(orderDAO.getOrderListByRestaurantId(anyInt())).thenReturn(orders);
 
-        List<Order> result = orderService.getOrdersByRestaurantId(1);
+        OrderList result = orderService.getOrderListByRestaurantId(1);
 
-        assertNotNull(result);
         assertEquals(orders, result);
-        verify(orderDAO, times(1)).getOrdersByRestaurantId(eq(1));
+        verify(orderDAO, times(1)).getOrderListByRestaurantId(eq(1));
     }
 
 
@@ -104,24 +144,176 @@ class OrderServiceTest {
         assertThrows(NotValidResourceException.class, () -> orderService.add(registrationRequest));
 
         verify(customerDAO, never()).getById(anyInt());
+        verify(foodDAO, never()).getByIds(any());
+        verify(orderDAO, never()).add(any(Order.class));
+    }
+
+
+    @Test
+    void testAddStoresTotalAmount() {
+        Customer customer = new Customer();
+        Food pizza = new Food("Pizza", "Delicious pizza", "Italian", new BigDecimal("12.99"), true, new Restaurant());
+        pizza.setId(1);
+        Food pasta = new Food("Pasta", "Tasty pasta", "Italian", new BigDecimal("10.50"), true, new Restaurant());
+        pasta.setId(2);
+        OrderRegistrationRequest registrationRequest = new OrderRegistrationRequest(
+                customer, List.of(pizza, pasta), "Address", Order.DeliveryType.PICKUP
+        );
+
+        when(customerDAO.getById(any())).thenReturn(Optional.of(customer));
+        when(foodDAO.getByIds(Set.of(1, 2))).thenReturn(List.of(pasta, pizza));
+
+        orderService.add(registrationRequest);
+
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        verify(orderDAO, times(1)).add(orderCaptor.capture());
+        assertEquals(List.of(pizza, pasta), orderCaptor.getValue().getFoods());
+        assertEquals(new BigDecimal("23.49"), orderCaptor.getValue().getTotalAmount());
         verify(foodDAO, never()).getById(anyInt());
+        verify(outboxService, times(1)).record(any(OrderCreated.class));
+    }
+
+    @Test
+    void testAddKeepsRepeatedFoods() {
+        Customer customer = new Customer();
+        Food pizza = new Food("Pizza", "Delicious pizza", "Italian", new BigDecimal("12.99"), true, new Restaurant());
+        pizza.setId(1);
+        OrderRegistrationRequest registrationRequest = new OrderRegistrationRequest(
+                customer, List.of(pizza, pizza), "Address", Order.DeliveryType.PICKUP
+        );
+
+        when(customerDAO.getById(any())).thenReturn(Optional.of(customer));
+        when(foodDAO.getByIds(Set.of(1))).thenReturn(List.of(pizza));
+
+        orderService.add(registrationRequest);
+
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        verify(orderDAO, times(1)).add(orderCaptor.capture());
+        assertEquals(2, orderCaptor.getValue().getFoods().size());
+        assertEquals(new BigDecimal("25.98"), orderCaptor.getValue().getTotalAmount());
+    }
+
+    @Test
+    void testAddReportsAllMissingFoods() {
+        Customer customer = new Customer();
+        Food pizza = new Food();
+        pizza.setId(1);
+        Food missing = new Food();
+        missing.setId(2);
+        Food otherMissing = new Food();
+        otherMissing.setId(3);
+        OrderRegistrationRequest registrationRequest = new OrderRegistrationRequest(
+                customer, List.of(pizza, missing, otherMissing), "Address", Order.DeliveryType.PICKUP
+        );
+
+        when(customerDAO.getById(any())).thenReturn(Optional.of(customer));
+        when(foodDAO.getByIds(Set.of(1, 2, 3))).thenReturn(List.of(pizza));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> orderService.add(registrationRequest));
+
+        assertEquals("Food with id [2, 3] not found", exception.getMessage());
         verify(orderDAO, never()).add(any(Order.class));
     }
 
+    @Test
+    void testAddBatchReportsEachItem() {
+        Customer customer = new Customer();
+        customer.setId(1);
+        Customer unknownCustomer = new Customer();
+        unknownCustomer.setId(2);
+        Food pizza = new Food("Pizza", "Delicious pizza", "Italian", new BigDecimal("12.99"), true, new Restaurant());
+        pizza.setId(1);
+        Food missing = new Food();
+        missing.setId(3);
+        List<OrderRegistrationRequest> requests = List.of(
+                new OrderRegistrationRequest(customer, List.of(pizza), "Address", Order.DeliveryType.PICKUP),
+                new OrderRegistrationRequest(unknownCustomer, List.of(pizza), "Address", Order.DeliveryType.PICKUP),
+                new OrderRegistrationRequest(customer, List.of(pizza, missing), "Address", Order.DeliveryType.PICKUP),
+                new OrderRegistrationRequest(customer, null, "Address", Order.DeliveryType.PICKUP),
+                new OrderRegistrationRequest(customer, List.of(pizza, pizza), "Address", Order.DeliveryType.SHIPPING)
+        );
+
+        when(customerDAO.getByIds(Set.of(1, 2))).thenReturn(List.of(customer));
+        when(foodDAO.getByIds(Set.of(1, 3))).thenReturn(List.of(pizza));
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId(100 + i);
+            }
+            return null;
+        }).when(orderDAO).addAll(anyList());
+
+        OrderBatchResponse response = orderService.addBatch(requests);
+
+        assertEquals(2, response.created());
+        assertEquals(3, response.rejected());
+        assertEquals(OrderBatchItemResult.created(0, 100), response.results().get(0));
+        assertEquals(OrderBatchItemResult.rejected(1, "Customer with id [2] not found"), response.results().get(1));
+        assertEquals(OrderBatchItemResult.rejected(2, "Food with id [3] not found"), response.results().get(2));
+        assertEquals(OrderBatchItemResult.rejected(3, "Missing data"), response.results().get(3));
+        assertEquals(OrderBatchItemResult.created(4, 101), response.results().get(4));
+
+        ArgumentCaptor<List<Order>> ordersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(orderDAO, times(1)).addAll(ordersCaptor.capture());
+        assertEquals(new BigDecimal("25.98"), ordersCaptor.getValue().get(1).getTotalAmount());
+        verify(customerDAO, times(1)).getByIds(any());
+        verify(foodDAO, times(1)).getByIds(any());
+        verify(customerDAO, never()).getById(any());
+        verify(outboxService, times(2)).record(any(OrderCreated.class));
+    }
+
+    @Test
+    void testAddBatchInvalidSize() {
+        assertThrows(NotValidResourceException.class, () -> orderService.addBatch(List.of()));
+
+        verify(orderDAO, never()).addAll(anyList());
+    }
 
     @Test
     void testUpdateOrder() {
         Order order = new Order();
+        order.setStatus(Order.OrderStatus.PENDING);
+        Food food = new Food("Pizza", "Delicious pizza", "Italian", new BigDecimal("12.99"), true, new Restaurant());
+        food.setId(1);
         OrderUpdateRequest updateRequest = new OrderUpdateRequest(
-                List.of(new Food()), "New Address", Order.DeliveryType.SHIPPING, Order.OrderStatus.PROCESSING
+                List.of(food), "New Address", Order.DeliveryType.SHIPPING, Order.OrderStatus.PROCESSING
         );
 
         when(orderDAO.getById(anyInt())).thenReturn(Optional.of(order));
+        when(foodDAO.getByIds(Set.of(1))).thenReturn(List.of(food));
+        when(orderDAO.updateStatus(1, Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING)).thenReturn(true);
 
         orderService.updateOrder(1, updateRequest);
 
+        assertEquals(List.of(food), order.getFoods());
+        assertEquals(new BigDecimal("12.99"), order.getTotalAmount());
         verify(orderDAO, times(1)).getById(eq(1));
         verify(orderDAO, times(1)).update(any(Order.class));
+
+        ArgumentCaptor<OrderStatusChanged> eventCaptor = ArgumentCaptor.forClass(OrderStatusChanged.class);
+        verify(outboxService, times(1)).record(eventCaptor.capture());
+        assertEquals(Order.OrderStatus.PROCESSING, eventCaptor.getValue().status());
+        assertEquals(Order.OrderStatus.PENDING, eventCaptor.getValue().previousStatus());
+    }
+
+    @Test
+    void testUpdateOrderWithoutStatusChangeRecordsNoEvent() {
+        Order order = new Order();
+        order.setStatus(Order.OrderStatus.PROCESSING);
+        Food food = new Food("Pizza", "Delicious pizza", "Italian", new BigDecimal("12.99"), true, new Restaurant());
+        food.setId(1);
+        OrderUpdateRequest updateRequest = new OrderUpdateRequest(
+                List.of(food), "New Address", Order.DeliveryType.SHIPPING, Order.OrderStatus.PROCESSING
+        );
+
+        when(orderDAO.getById(anyInt())).thenReturn(Optional.of(order));
+        when(foodDAO.getByIds(Set.of(1))).thenReturn(List.of(food));
+
+        orderService.updateOrder(1, updateRequest);
+
+        verify(orderDAO, times(1)).update(any(Order.class));
+        verify(outboxService, never()).record(any());
     }
 
     @Test
@@ -137,4 +329,73 @@ class OrderServiceTest {
         verify(orderDAO, times(1)).getById(eq(1));
         verify(orderDAO, never()).update(any(Order.class));
     }
+
+    @Test
+    void testUpdateStatusWithExpectedStatus() {
+        when(orderDAO.updateStatus(1, Order.OrderStatus.PROCESSING, Order.OrderStatus.READY_FOR_SHIPPING)).thenReturn(true);
+        when(orderDAO.getRestaurantIds(1)).thenReturn(List.of(3));
+
+        orderService.updateStatus(1, new OrderStatusUpdateRequest(
+                Order.OrderStatus.PROCESSING, Order.OrderStatus.READY_FOR_SHIPPING));
+
+        ArgumentCaptor<OrderStatusChanged> eventCaptor = ArgumentCaptor.forClass(OrderStatusChanged.class);
+        verify(outboxService, times(1)).record(eventCaptor.capture());
+        assertEquals(List.of(3), eventCaptor.getValue().restaurantIds());
+        verify(orderDAO, never()).getStatusById(any());
+        verify(orderDAO, never()).getById(any());
+        assertEquals(1, orderService.getStatusChanges());
+    }
+
+    @Test
+    void testUpdateStatusStaleExpectedStatus() {
+        when(orderDAO.updateStatus(1, Order.OrderStatus.PROCESSING, Order.OrderStatus.CANCELLED)).thenReturn(false);
+        when(orderDAO.getStatusById(1)).thenReturn(Optional.of(Order.OrderStatus.AWAITING_PICKUP));
+
+        ResourceConflictException exception = assertThrows(ResourceConflictException.class,
+                () -> orderService.updateStatus(1, new OrderStatusUpdateRequest(
+                        Order.OrderStatus.PROCESSING, Order.OrderStatus.CANCELLED)));
+
+        assertEquals("Order with id [1] is in status [AWAITING_PICKUP], not [PROCESSING]", exception.getMessage());
+        verify(orderDAO, times(1)).updateStatus(any(), any(), any());
+        verify(outboxService, never()).record(any());
+        assertEquals(1, orderService.getStatusConflicts());
+    }
+
+    @Test
+    void testUpdateStatusRetriesFromCurrentStatus() {
+        when(orderDAO.getStatusById(1))
+                .thenReturn(Optional.of(Order.OrderStatus.PENDING))
+                .thenReturn(Optional.of(Order.OrderStatus.PROCESSING));
+        when(orderDAO.updateStatus(1, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED)).thenReturn(false);
+        when(orderDAO.updateStatus(1, Order.OrderStatus.PROCESSING, Order.OrderStatus.CANCELLED)).thenReturn(true);
+
+        orderService.updateStatus(1, new OrderStatusUpdateRequest(null, Order.OrderStatus.CANCELLED));
+
+        ArgumentCaptor<OrderStatusChanged> eventCaptor = ArgumentCaptor.forClass(OrderStatusChanged.class);
+        verify(outboxService, times(1)).record(eventCaptor.capture());
+        assertEquals(Order.OrderStatus.PROCESSING, eventCaptor.getValue().previousStatus());
+        assertEquals(1, orderService.getStatusConflicts());
+    }
+
+    @Test
+    void testUpdateStatusRejectsIllegalTransition() {
+        when(orderDAO.getStatusById(1)).thenReturn(Optional.of(Order.OrderStatus.COMPLETED));
+
+        assertThrows(NotValidResourceException.class,
+                () -> orderService.updateStatus(1, new OrderStatusUpdateRequest(null, Order.OrderStatus.PROCESSING)));
+        assertThrows(NotValidResourceException.class,
+                () -> orderService.updateStatus(1, new OrderStatusUpdateRequest(
+                        Order.OrderStatus.PENDING, Order.OrderStatus.DELIVERED)));
+
+        verify(orderDAO, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void testUpdateStatusNotFound() {
+        when(orderDAO.getStatusById(1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> orderService.updateStatus(1, new OrderStatusUpdateRequest(null, Order.OrderStatus.PROCESSING)));
+        verify(orderDAO, never()).updateStatus(any(), any(), any());
+    }
 }
@@ -0,0 +1,179 @@
+package com.mblaszczykowski.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+    @Mock
+    private OutboxDAO outboxDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxSink failingSink;
+
+    private InProcessOutboxSink inProcessSink;
+    private List<OutboxMessage> received;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(failingSink.name()).thenReturn("http");
+        inProcessSink = new InProcessOutboxSink();
+        received = new ArrayList<>();
+        inProcessSink.subscribe(received::add);
+    }
+
+    @Test
+    void publishesBatchInOrderAndDeletesIt() {
+        OutboxEvent first = event(1L, "OrderCreated");
+        OutboxEvent second = event(2L, "PaymentRecorded");
+        List<OutboxDelivery> deliveries = List.of(delivery("in-process", first), delivery("in-process", second));
+        when(outboxDAO.lockPending("in-process", 100)).thenReturn(deliveries);
+        when(outboxDAO.getEvents(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        OutboxDispatcher dispatcher = dispatcher(List.of(inProcessSink));
+
+        assertEquals(2, dispatcher.publishBatch());
+        assertEquals(List.of(1L, 2L), received.stream().map(OutboxMessage::id).toList());
+        assertEquals("PaymentRecorded", received.get(1).eventType());
+        assertNotNull(deliveries.get(0).getLeaseId());
+        assertEquals(deliveries.get(0).getLeaseId(), deliveries.get(1).getLeaseId());
+        verify(outboxDAO).delivered("in-process", List.of(1L, 2L));
+        assertEquals(2, dispatcher.getPublished());
+    }
+
+    @Test
+    void sinkGetsBatchOutsideTransaction() throws Exception {
+        OutboxEvent event = event(1L, "OrderCreated");
+        when(outboxDAO.lockPending(eq("http"), anyInt())).thenReturn(List.of(delivery("http", event)));
+        when(outboxDAO.getEvents(List.of(1L))).thenReturn(List.of(event));
+
+        dispatcher(List.of(failingSink)).publishBatch();
+
+        // Dzierżawa zatwierdzona przed wysyłką, wynik zapisany w osobnej transakcji
+        InOrder inOrder = inOrder(transactionManager, failingSink, outboxDAO);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(failingSink).publish(anyList());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxDAO).delivered("http", List.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void failedSinkOnlyRetriesItsOwnDeliveries() throws Exception {
+        OutboxEvent event = event(1L, "OrderCreated");
+        OutboxDelivery httpDelivery = delivery("http", event);
+        when(outboxDAO.lockPending(eq("in-process"), anyInt())).thenReturn(List.of(delivery("in-process", event)));
+        when(outboxDAO.lockPending(eq("http"), anyInt())).thenReturn(List.of(httpDelivery));
+        when(outboxDAO.getEvents(List.of(1L))).thenReturn(List.of(event));
+        doThrow(new IOException("connection refused")).when(failingSink).publish(anyList());
+
+        OutboxDispatcher dispatcher = dispatcher(List.of(inProcessSink, failingSink));
+        LocalDateTime before = LocalDateTime.now();
+
+        assertEquals(1, dispatcher.publishBatch());
+        assertEquals(1, received.size());
+        verify(outboxDAO).delivered("in-process", List.of(1L));
+        verify(outboxDAO, never()).delivered(eq("http"), anyCollection());
+        verify(outboxDAO).failed(eq("http"), eq(List.of(1L)), eq(httpDelivery.getLeaseId()), eq("connection refused"),
+                argThat(nextAttemptAt -> !nextAttemptAt.isBefore(before.plusSeconds(5))));
+        assertEquals(1, dispatcher.getFailedBatches());
+        assertEquals(1, dispatcher.getPublished());
+    }
+
+    @Test
+    void laterEventsWaitBehindRetriedOne() {
+        OutboxDelivery retried = delivery("in-process", event(1L, "OrderCreated"));
+        retried.setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+        when(outboxDAO.lockPending(eq("in-process"), anyInt()))
+                .thenReturn(List.of(retried, delivery("in-process", event(2L, "OrderCreated"))));
+
+        assertEquals(0, dispatcher(List.of(inProcessSink)).publishBatch());
+        assertTrue(received.isEmpty());
+        verify(outboxDAO, never()).getEvents(anyCollection());
+    }
+
+    @Test
+    void leasedBatchIsNotTakenAgain() {
+        OutboxDelivery leased = delivery("in-process", event(1L, "OrderCreated"));
+        leased.lease("other-instance", LocalDateTime.now().plusMinutes(1));
+        when(outboxDAO.lockPending(eq("in-process"), anyInt())).thenReturn(List.of(leased));
+
+        assertEquals(0, dispatcher(List.of(inProcessSink)).publishBatch());
+        assertEquals("other-instance", leased.getLeaseId());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void emptyOutboxPublishesNothing() {
+        when(outboxDAO.lockPending(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, dispatcher(List.of(inProcessSink)).publishBatch());
+        assertTrue(received.isEmpty());
+        verify(outboxDAO, never()).delivered(any(), anyCollection());
+    }
+
+    @Test
+    void sinkNamesMustBeUnique() {
+        when(failingSink.name()).thenReturn("in-process");
+
+        assertThrows(IllegalStateException.class, () -> dispatcher(List.of(inProcessSink, failingSink)));
+    }
+
+    @Test
+    void retryBackoffDoublesUpToLimit() {
+        OutboxDispatcher dispatcher = dispatcher(List.of());
+
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(20), dispatcher.backoff(3));
+        assertEquals(Duration.ofMinutes(10), dispatcher.backoff(12));
+        assertEquals(Duration.ofMinutes(10), dispatcher.backoff(100));
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopOthers() {
+        List<OutboxMessage> others = new ArrayList<>();
+        inProcessSink.subscribe(message -> {
+            throw new IllegalStateException("boom");
+        });
+        inProcessSink.subscribe(others::add);
+
+        inProcessSink.publish(List.of(event(1L, "OrderCreated").toMessage()));
+
+        assertEquals(1, received.size());
+        assertEquals(1, others.size());
+    }
+
+    private OutboxDispatcher dispatcher(List<OutboxSink> sinks) {
+        return new OutboxDispatcher(outboxDAO, sinks, transactionManager, 100, Duration.ofSeconds(1),
+                Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    private static OutboxEvent event(Long id, String type) {
+        OutboxEvent event = new OutboxEvent(type, 7, "{\"orderId\":7}");
+        event.setId(id);
+        return event;
+    }
+
+    private static OutboxDelivery delivery(String sink, OutboxEvent event) {
+        return new OutboxDelivery(sink, event);
+    }
+}
@@ -0,0 +1,92 @@
+package com.mblaszczykowski.outbox;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(OutboxJPADataAccessService.class)
+class OutboxRepositoryTest {
+    private static final List<String> SINKS = List.of("in-process", "http");
+
+    @Autowired
+    private OutboxJPADataAccessService outboxDAO;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxDeliveryRepository deliveryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OutboxEvent first;
+    private OutboxEvent second;
+
+    @BeforeEach
+    void setUp() {
+        first = new OutboxEvent("OrderCreated", 1, "{\"orderId\":1}");
+        outboxDAO.add(first, SINKS);
+        second = new OutboxEvent("OrderStatusChanged", 1, "{\"orderId\":1}");
+        outboxDAO.add(second, SINKS);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void lockPendingReturnsSinkDeliveriesInRecordOrder() {
+        List<OutboxDelivery> pending = outboxDAO.lockPending("http", 10);
+
+        assertEquals(List.of(first.getId(), second.getId()), pending.stream().map(OutboxDelivery::getEventId).toList());
+        assertTrue(pending.stream().allMatch(delivery -> delivery.getSink().equals("http")));
+        assertEquals(List.of(first.getId()),
+                outboxDAO.lockPending("http", 1).stream().map(OutboxDelivery::getEventId).toList());
+        assertEquals("{\"orderId\":1}", outboxDAO.getEvents(List.of(second.getId())).get(0).toMessage().payload());
+    }
+
+    @Test
+    void eventIsDeletedOnceEverySinkDeliveredIt() {
+        outboxDAO.delivered("in-process", List.of(first.getId(), second.getId()));
+
+        assertEquals(2, outboxDAO.countPending());
+        assertTrue(outboxDAO.lockPending("in-process", 10).isEmpty());
+
+        outboxDAO.delivered("http", List.of(first.getId()));
+
+        assertEquals(List.of(second.getId()), outboxRepository.findAll().stream().map(OutboxEvent::getId).toList());
+        assertEquals(List.of(second.getId()),
+                outboxDAO.lockPending("http", 10).stream().map(OutboxDelivery::getEventId).toList());
+    }
+
+    @Test
+    void failureOnlyUpdatesDeliveriesUnderItsLease() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxDelivery> pending = outboxDAO.lockPending("http", 10);
+        pending.get(0).lease("lease-1", now.plusMinutes(1));
+        pending.get(1).lease("lease-2", now.plusMinutes(1));
+        entityManager.flush();
+
+        outboxDAO.failed("http", List.of(first.getId(), second.getId()), "lease-1", "connection refused",
+                now.plusSeconds(5));
+        entityManager.clear();
+
+        List<OutboxDelivery> deliveries = outboxDAO.lockPending("http", 10);
+        assertEquals(1, deliveries.get(0).getAttempts());
+        assertEquals("connection refused", deliveries.get(0).getLastError());
+        assertNull(deliveries.get(0).getLeaseId());
+        assertEquals(0, deliveries.get(1).getAttempts());
+        assertEquals("lease-2", deliveries.get(1).getLeaseId());
+        assertEquals(0, outboxDAO.lockPending("in-process", 10).get(0).getAttempts());
+        assertEquals(4, deliveryRepository.count());
+    }
+}
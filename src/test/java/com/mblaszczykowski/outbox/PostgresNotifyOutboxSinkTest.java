@@ -0,0 +1,171 @@
+package com.mblaszczykowski.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PostgresNotifyOutboxSinkTest {
+    private static final String EVENT_TYPE = "NotifyTest";
+
+    @Autowired
+    private PostgresNotifyOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxFeed outboxFeed;
+
+    private PostgresNotifyOutboxSink otherInstance;
+    private final BlockingQueue<OutboxMessage> received = new LinkedBlockingQueue<>();
+    private final BlockingQueue<OutboxMessage> receivedByOtherInstance = new LinkedBlockingQueue<>();
+    private final List<AutoCloseable> subscriptions = new ArrayList<>();
+
+    // Druga instancja aplikacji - osobne połączenie nasłuchujące na tej samej bazie
+    @BeforeEach
+    void setUp() throws Exception {
+        otherInstance = new PostgresNotifyOutboxSink(jdbcTemplate,
+                dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build(),
+                objectMapper, Duration.ofSeconds(1));
+        otherInstance.start();
+        subscriptions.add(sink.subscribe(message -> record(received, message)));
+        subscriptions.add(otherInstance.subscribe(message -> record(receivedByOtherInstance, message)));
+        awaitListening(sink);
+        awaitListening(otherInstance);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable subscription : subscriptions) {
+            subscription.close();
+        }
+        otherInstance.stop();
+    }
+
+    @Test
+    void applicationIsFedFromNotifications() {
+        // Strumienie zamówień subskrybują OutboxFeed - w procesie widziałyby tylko zdarzenia tej instancji
+        assertSame(sink, outboxFeed);
+    }
+
+    @Test
+    void committedBatchReachesEveryInstanceInOrder() throws Exception {
+        OutboxMessage first = message(1L, "{\"restaurantIds\":[1]}");
+        OutboxMessage second = message(2L, "{\"restaurantIds\":[1,2]}");
+
+        publish(List.of(first, second), false);
+
+        assertEquals(List.of(first, second), take(received, 2));
+        assertEquals(List.of(first, second), take(receivedByOtherInstance, 2));
+    }
+
+    @Test
+    void rolledBackBatchIsNotDelivered() throws Exception {
+        publish(List.of(message(1L, "{}")), true);
+        publish(List.of(message(2L, "{}")), false);
+
+        assertEquals(List.of(2L), take(receivedByOtherInstance, 1).stream().map(OutboxMessage::id).toList());
+    }
+
+    @Test
+    void eventTooLongForNotificationIsSkippedWithoutFailingBatch() throws Exception {
+        OutboxMessage large = message(1L, "{\"text\":\"%s\"}".formatted("x".repeat(8000)));
+        OutboxMessage small = message(2L, "{}");
+
+        publish(List.of(large, small), false);
+
+        assertEquals(List.of(small), take(receivedByOtherInstance, 1));
+    }
+
+    @Test
+    void otherDatabaseDeliversToOwnSubscribersOnly() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:notify-%s".formatted(UUID.randomUUID()));
+        PostgresNotifyOutboxSink h2Sink = new PostgresNotifyOutboxSink(new JdbcTemplate(h2), h2, objectMapper,
+                Duration.ofSeconds(1));
+        BlockingQueue<OutboxMessage> receivedOnH2 = new LinkedBlockingQueue<>();
+        subscriptions.add(h2Sink.subscribe(message -> record(receivedOnH2, message)));
+
+        h2Sink.afterSingletonsInstantiated();
+        OutboxMessage message = message(1L, "{}");
+        h2Sink.publish(List.of(message));
+
+        assertFalse(h2Sink.isListening());
+        assertEquals(List.of(message), take(receivedOnH2, 1));
+        assertNull(receivedByOtherInstance.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private void publish(List<OutboxMessage> messages, boolean rollback) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                sink.publish(messages);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    // Zdarzenia zapisane przez resztę aplikacji idą tym samym kanałem - bierzemy tylko testowe
+    private static void record(BlockingQueue<OutboxMessage> queue, OutboxMessage message) {
+        if (EVENT_TYPE.equals(message.eventType())) {
+            queue.add(message);
+        }
+    }
+
+    private static List<OutboxMessage> take(BlockingQueue<OutboxMessage> queue, int count) throws InterruptedException {
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OutboxMessage message = queue.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "Expected %s notifications, got %s".formatted(count, messages.size()));
+            messages.add(message);
+        }
+        assertNull(queue.poll(200, TimeUnit.MILLISECONDS));
+        return messages;
+    }
+
+    private static void awaitListening(PostgresNotifyOutboxSink sink) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!sink.isListening()) {
+            assertTrue(System.nanoTime() < deadline, "Listener did not connect");
+            Thread.sleep(10);
+        }
+    }
+
+    private static OutboxMessage message(Long id, String payload) {
+        return new OutboxMessage(id, EVENT_TYPE, 7, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), payload);
+    }
+}
@@ -0,0 +1,170 @@
+package com.mblaszczykowski.payment;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.order.OrderJPADataAccessService;
+import com.mblaszczykowski.order.OrderRepository;
+import com.mblaszczykowski.outbox.OutboxService;
+import com.mblaszczykowski.restaurant.Restaurant;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Bez transakcji testu - równoległe żądania muszą widzieć nawzajem swoje zatwierdzone zapisy
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({PaymentIdempotencyService.class, PaymentService.class, PaymentJPADataAccessService.class,
+        OrderJPADataAccessService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentIdempotencyServiceTest {
+    private static final int ORDERS = 20;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private PaymentIdempotencyService paymentIdempotencyService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    private ExecutorService executor;
+    private List<Integer> orderIds;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        orderIds = new TransactionTemplate(transactionManager).execute(status -> {
+            Customer customer = new Customer("Jan", "Kowalski", UUID.randomUUID() + "@example.com", "Address", "123");
+            entityManager.persist(customer);
+            Restaurant restaurant = new Restaurant("Amo La Pasta", "Italian", "Address", "Mokotów", "111");
+            entityManager.persist(restaurant);
+            Food pizza = new Food("Pizza", "Pizza", "Italian", BigDecimal.TEN, true, restaurant);
+            entityManager.persist(pizza);
+
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order(customer, new ArrayList<>(List.of(pizza)), "Address", Order.DeliveryType.PICKUP);
+                entityManager.persist(order);
+                ids.add(order.getId());
+            }
+            return ids;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsCreateExactlyOnePaymentPerOrder() throws Exception {
+        for (Integer orderId : orderIds) {
+            String key = "callback-" + orderId;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<PaymentResponse>> keyed = new ArrayList<>();
+            List<Future<PaymentResponse>> unkeyed = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String requestKey = i % 2 == 0 ? key : null;
+                Future<PaymentResponse> future = executor.submit(() -> {
+                    start.await();
+                    return paymentIdempotencyService.add(request(orderId), requestKey);
+                });
+                (requestKey != null ? keyed : unkeyed).add(future);
+            }
+            start.countDown();
+
+            List<PaymentResponse> keyedResults = results(keyed);
+            List<PaymentResponse> unkeyedResults = results(unkeyed);
+            List<PaymentResponse> created = new ArrayList<>(keyedResults);
+            created.addAll(unkeyedResults);
+
+            assertEquals(1, created.stream().map(PaymentResponse::paymentId).collect(Collectors.toSet()).size(),
+                    "order " + orderId + " got payments " + created);
+            // Albo wygrało żądanie z kluczem i wszystkie z tym kluczem dostały jego wynik, albo jedno bez klucza
+            assertTrue(keyedResults.size() == THREADS / 2 && unkeyedResults.isEmpty()
+                            || keyedResults.isEmpty() && unkeyedResults.size() == 1,
+                    "order " + orderId + ": keyed " + keyedResults.size() + ", unkeyed " + unkeyedResults.size());
+            assertEquals(created.get(0).paymentId(), paymentRepository.findByOrderId(orderId).orElseThrow().getId());
+            assertTrue(orderRepository.findById(orderId).orElseThrow().isPaid());
+        }
+        assertEquals(ORDERS, paymentRepository.findAll().stream()
+                .filter(payment -> orderIds.contains(payment.getOrder().getId())).count());
+    }
+
+    @Test
+    void retryAfterMemoryExpiryReturnsStoredPayment() {
+        Integer orderId = orderIds.get(0);
+        String key = "retry-" + orderId;
+        PaymentResponse first = paymentIdempotencyService.add(request(orderId), key);
+
+        PaymentIdempotencyService restarted = new PaymentIdempotencyService(paymentService, Duration.ofHours(1), 100);
+        PaymentResponse retried = restarted.add(request(orderId), key);
+
+        assertEquals(first, retried);
+        assertEquals(1, restarted.getDatabaseReplays());
+        assertThrows(PaymentAlreadyExistsException.class, () -> restarted.add(request(orderId), key + "-other"));
+    }
+
+    @Test
+    void keyReusedForAnotherOrderIsRejected() {
+        String key = "reuse-" + orderIds.get(0);
+        paymentIdempotencyService.add(request(orderIds.get(0)), key);
+
+        assertThrows(NotValidResourceException.class,
+                () -> paymentIdempotencyService.add(request(orderIds.get(1)), key));
+        assertTrue(paymentRepository.findByOrderId(orderIds.get(1)).isEmpty());
+    }
+
+    private static PaymentRegistrationRequest request(Integer orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        return new PaymentRegistrationRequest(order, Payment.PaymentMethod.BLIK);
+    }
+
+    // Odrzucone żądania muszą skończyć się konfliktem płatności, nie innym błędem
+    private static List<PaymentResponse> results(List<Future<PaymentResponse>> futures) throws Exception {
+        List<PaymentResponse> results = new ArrayList<>();
+        for (Future<PaymentResponse> future : futures) {
+            try {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                assertInstanceOf(PaymentAlreadyExistsException.class, e.getCause());
+            }
+        }
+        return results;
+    }
+}
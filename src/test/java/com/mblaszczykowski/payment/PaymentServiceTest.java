@@ -4,11 +4,13 @@ import com.mblaszczykowski.exception.NotValidResourceException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
 import com.mblaszczykowski.order.Order;
 import com.mblaszczykowski.order.OrderDAO;
+import com.mblaszczykowski.outbox.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,10 +29,13 @@ class PaymentServiceTest {
     @Mock
     private OrderDAO orderDAO;
 
+    @Mock
+    private OutboxService outboxService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        paymentService = new PaymentService(orderDAO, paymentDAO);
+        paymentService = new PaymentService(orderDAO, paymentDAO, outboxService);
     }
 
     @Test
@@ -92,7 +97,8 @@ class PaymentServiceTest {
         verify(orderDAO, times(1)).getById(order.getId());
         verify(paymentDAO, times(1)).existsByOrderId(order.getId());
         verify(paymentDAO, times(1)).add(any(Payment.class));
-        assertTrue(order.isPaid());
+        verify(orderDAO, times(1)).markPaid(order.getId());
+        verify(outboxService, times(1)).record(any(PaymentRecorded.class));
     }
 
     @Test
@@ -124,6 +130,25 @@ class PaymentServiceTest {
         verify(paymentDAO, never()).add(any(Payment.class));
     }
 
+    @Test
+    void testAdd_ConcurrentPaymentWinsInsert_ThrowsPaymentAlreadyExistsException() {
+        // Arrange
+        Integer orderId = 1;
+        Order order = new Order();
+        order.setId(orderId);
+        PaymentRegistrationRequest registrationRequest = new PaymentRegistrationRequest(order, Payment.PaymentMethod.BLIK);
+        when(orderDAO.getById(orderId)).thenReturn(Optional.of(order));
+        when(paymentDAO.existsByOrderId(orderId)).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("payment_order_id_unique")).when(paymentDAO).add(any(Payment.class));
+
+        // Act & Assert
+        assertThrows(PaymentAlreadyExistsException.class, () -> paymentService.add(registrationRequest, "key"));
+        verify(orderDAO, never()).update(any(Order.class));
+        verify(orderDAO, never()).markPaid(anyInt());
+        verify(outboxService, never()).record(any());
+        assertFalse(order.isPaid());
+    }
+
     @Test
     void testUpdatePayment_ValidPaymentUpdateRequest_UpdatesPayment() {
         // Arrange
@@ -0,0 +1,86 @@
+package com.mblaszczykowski.restaurant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RestaurantCachingDataAccessServiceTest {
+    @Mock
+    private RestaurantDAO restaurantDAO;
+
+    private RestaurantCachingDataAccessService cachingDAO;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cachingDAO = new RestaurantCachingDataAccessService(restaurantDAO, new DistrictCache(Duration.ofMinutes(5), 100));
+    }
+
+    @Test
+    void testGetRestaurantsByDistrict_SecondReadIsServedFromCache() {
+        RestaurantPage page = new RestaurantPage(List.of(new Restaurant()), 0, 20, false);
+        when(restaurantDAO.getRestaurantsByDistrict("Wola", 0, 20)).thenReturn(page);
+
+        assertEquals(page, cachingDAO.getRestaurantsByDistrict("Wola", 0, 20));
+        assertEquals(page, cachingDAO.getRestaurantsByDistrict("Wola", 0, 20));
+
+        verify(restaurantDAO, times(1)).getRestaurantsByDistrict("Wola", 0, 20);
+    }
+
+    @Test
+    void testGetRestaurantsByDistrict_PagesAreCachedSeparately() {
+        when(restaurantDAO.getRestaurantsByDistrict(eq("Wola"), anyInt(), eq(20)))
+                .thenReturn(new RestaurantPage(List.of(), 0, 20, false));
+
+        cachingDAO.getRestaurantsByDistrict("Wola", 0, 20);
+        cachingDAO.getRestaurantsByDistrict("Wola", 1, 20);
+
+        verify(restaurantDAO, times(1)).getRestaurantsByDistrict("Wola", 0, 20);
+        verify(restaurantDAO, times(1)).getRestaurantsByDistrict("Wola", 1, 20);
+    }
+
+    @Test
+    void testUpdateRestaurant_InvalidatesDistrictPages() {
+        Restaurant restaurant = new Restaurant("Amo La Pasta", "Italian", "Address", "Mokotów", "111");
+        when(restaurantDAO.getRestaurantsByDistrict("Wola", 0, 20))
+                .thenReturn(new RestaurantPage(List.of(), 0, 20, false));
+
+        cachingDAO.getRestaurantsByDistrict("Wola", 0, 20);
+        // Restauracja przeniesiona do Woli - cache nie zna jej poprzedniej dzielnicy
+        restaurant.setDistrict("Wola");
+        cachingDAO.updateRestaurant(restaurant);
+        cachingDAO.getRestaurantsByDistrict("Wola", 0, 20);
+
+        verify(restaurantDAO, times(1)).updateRestaurant(restaurant);
+        verify(restaurantDAO, times(2)).getRestaurantsByDistrict("Wola", 0, 20);
+    }
+
+    @Test
+    void testUpdateRestaurant_InTransaction_InvalidatesAfterCommit() {
+        Restaurant restaurant = new Restaurant("Amo La Pasta", "Italian", "Address", "Wola", "111");
+        when(restaurantDAO.getRestaurantsByDistrict("Wola", 0, 20))
+                .thenReturn(new RestaurantPage(List.of(), 0, 20, false));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cachingDAO.updateRestaurant(restaurant);
+            // Równoległy odczyt przed commitem widzi jeszcze stare dane
+            cachingDAO.getRestaurantsByDistrict("Wola", 0, 20);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cachingDAO.getRestaurantsByDistrict("Wola", 0, 20);
+
+        verify(restaurantDAO, times(2)).getRestaurantsByDistrict("Wola", 0, 20);
+    }
+}
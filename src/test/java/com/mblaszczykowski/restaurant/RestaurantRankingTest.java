@@ -0,0 +1,129 @@
+package com.mblaszczykowski.restaurant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RestaurantRankingTest {
+    private RestaurantRanking restaurantRanking;
+
+    @Mock
+    private RestaurantDAO restaurantDAO;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        restaurantRanking = new RestaurantRanking(restaurantDAO, 2, Duration.ZERO);
+        // Średnia globalna: 24 / 6 = 4
+        when(restaurantDAO.getRatingTotals()).thenReturn(List.of(
+                new RestaurantRatingTotals(1, "Single Five", "Mokotów", 1L, 5L),
+                new RestaurantRatingTotals(2, "Steady", "Mokotów", 4L, 18L),
+                new RestaurantRatingTotals(3, "New", "Mokotów", 0L, 0L),
+                new RestaurantRatingTotals(4, "Poor", "Wola", 1L, 1L)
+        ));
+        restaurantRanking.rebuild();
+    }
+
+    @Test
+    void rebuildSortsByBayesianAverage() {
+        List<RankedRestaurant> top = restaurantRanking.top("Mokotów", 10);
+
+        // (2*4 + 5) / 3 = 4.33, (2*4 + 18) / 6 = 4.33 z większą liczbą recenzji, (2*4) / 2 = 4
+        assertEquals(List.of(2, 1, 3), top.stream().map(RankedRestaurant::restaurantId).toList());
+        assertEquals(new BigDecimal("4.33"), top.get(0).score());
+        assertEquals(new BigDecimal("4.50"), top.get(0).average());
+        assertNull(top.get(2).average());
+        assertEquals(1, restaurantRanking.top("Wola", 10).size());
+        assertTrue(restaurantRanking.top("Ursus", 10).isEmpty());
+    }
+
+    @Test
+    void rankingIsBuiltWhenSingletonsAreReady() {
+        RestaurantRanking fresh = new RestaurantRanking(restaurantDAO, 2, Duration.ZERO);
+        assertTrue(fresh.top("Mokotów", 10).isEmpty());
+
+        // Przed startem serwera WWW - żadna recenzja nie zdąży trafić między snapshot a pierwsze żądanie
+        fresh.afterSingletonsInstantiated();
+
+        assertEquals(3, fresh.top("Mokotów", 10).size());
+    }
+
+    @Test
+    void refreshPicksUpReviewsFromOtherInstances() throws InterruptedException {
+        RestaurantRanking refreshed = new RestaurantRanking(restaurantDAO, 2, Duration.ofMillis(20));
+        refreshed.afterSingletonsInstantiated();
+        try {
+            // Inna instancja dodała recenzje - widać je tylko w restaurant_rating_stats
+            when(restaurantDAO.getRatingTotals()).thenReturn(List.of(
+                    new RestaurantRatingTotals(2, "Steady", "Mokotów", 4L, 18L),
+                    new RestaurantRatingTotals(3, "New", "Mokotów", 3L, 15L)
+            ));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (refreshed.top("Mokotów", 10).size() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(List.of(3, 2), refreshed.top("Mokotów", 10).stream()
+                    .map(RankedRestaurant::restaurantId).toList());
+        } finally {
+            refreshed.close();
+        }
+    }
+
+    @Test
+    void topHonoursLimit() {
+        assertEquals(2, restaurantRanking.top("Mokotów", 2).size());
+    }
+
+    @Test
+    void ratingChangesReorderDistrict() {
+        restaurantRanking.ratingAdded(3, 5);
+        restaurantRanking.ratingAdded(3, 5);
+        restaurantRanking.ratingRemoved(2, 4);
+        restaurantRanking.ratingAdded(2, 1);
+
+        assertEquals(List.of(3, 1, 2), restaurantRanking.top("Mokotów", 10).stream()
+                .map(RankedRestaurant::restaurantId).toList());
+        verify(restaurantDAO, never()).getRestaurantById(any());
+    }
+
+    @Test
+    void ratingForUnknownRestaurantLoadsItOnce() {
+        Restaurant restaurant = new Restaurant("Late", "Description", "Address", "Wola", "333");
+        restaurant.setId(5);
+        when(restaurantDAO.getRestaurantById(5)).thenReturn(Optional.of(restaurant));
+
+        restaurantRanking.ratingAdded(5, 5);
+        restaurantRanking.ratingAdded(5, 5);
+
+        List<RankedRestaurant> top = restaurantRanking.top("Wola", 10);
+        assertEquals(5, top.get(0).restaurantId());
+        assertEquals(2, top.get(0).reviewCount());
+        verify(restaurantDAO, times(1)).getRestaurantById(5);
+    }
+
+    @Test
+    void restaurantChangesMoveItBetweenDistricts() {
+        Restaurant moved = new Restaurant("Steady", "Description", "Address", "Wola", "222");
+        moved.setId(2);
+
+        restaurantRanking.restaurantChanged(moved);
+        restaurantRanking.restaurantRemoved(4);
+
+        assertEquals(List.of(1, 3), restaurantRanking.top("Mokotów", 10).stream()
+                .map(RankedRestaurant::restaurantId).toList());
+        List<RankedRestaurant> wola = restaurantRanking.top("Wola", 10);
+        assertEquals(1, wola.size());
+        assertEquals(4, wola.get(0).reviewCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.mblaszczykowski.restaurant;
+
+import com.mblaszczykowski.customer.Customer;
+import com.mblaszczykowski.order.Order;
+import com.mblaszczykowski.review.Review;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class RestaurantRatingStatsRepositoryTest {
+    @Autowired
+    private RestaurantRatingStatsRepository ratingStatsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Restaurant reviewedRestaurant;
+    private Restaurant otherRestaurant;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = persist(new Customer("Jan", "Kowalski", "jan@example.com", "Address", "123"));
+        reviewedRestaurant = persist(new Restaurant("Amo La Pasta", "Italian", "Address", "Mokotów", "111"));
+        otherRestaurant = persist(new Restaurant("Burger Bar", "American", "Address", "Wola", "222"));
+
+        for (int rating : new int[]{5, 5, 4, 1}) {
+            Order order = persist(new Order(customer, new ArrayList<>(), "Address", Order.DeliveryType.PICKUP));
+            persist(new Review(customer, reviewedRestaurant, order, "Review", rating, "Description"));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void insertMissingAggregatesExistingReviews() {
+        assertEquals(2, ratingStatsRepository.insertMissing());
+        assertEquals(0, ratingStatsRepository.insertMissing());
+
+        RestaurantRating rating = RestaurantRating.of(ratingStatsRepository.findById(reviewedRestaurant.getId()).orElseThrow());
+        assertEquals(4, rating.reviewCount());
+        assertEquals(new BigDecimal("3.75"), rating.average());
+        assertEquals(Map.of(1, 1L, 2, 0L, 3, 0L, 4, 1L, 5, 2L), rating.histogram());
+
+        RestaurantRating empty = RestaurantRating.of(ratingStatsRepository.findById(otherRestaurant.getId()).orElseThrow());
+        assertEquals(0, empty.reviewCount());
+        assertNull(empty.average());
+    }
+
+    @Test
+    void adjustMovesCountsWithoutReadingReviews() {
+        assertEquals(1, ratingStatsRepository.mergeIfMissing(otherRestaurant.getId()));
+        assertEquals(0, ratingStatsRepository.mergeIfMissing(otherRestaurant.getId()));
+
+        ratingStatsRepository.adjust(otherRestaurant.getId(), 3, 1);
+        ratingStatsRepository.adjust(otherRestaurant.getId(), 5, 1);
+        ratingStatsRepository.adjust(otherRestaurant.getId(), 3, -1);
+        entityManager.clear();
+
+        RestaurantRatingStats stats = ratingStatsRepository.findById(otherRestaurant.getId()).orElseThrow();
+        assertEquals(1, stats.getReviewCount());
+        assertEquals(5, stats.getRatingSum());
+        assertEquals(0, stats.getRating3Count());
+        assertEquals(1, stats.getRating5Count());
+        assertTrue(ratingStatsRepository.findById(reviewedRestaurant.getId()).isEmpty());
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mblaszczykowski.restaurant;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+import com.mblaszczykowski.exception.ResourceNotFoundException;
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantReactiveServiceTest {
+    private CloseableConnectionFactory connectionFactory;
+    private RestaurantReactiveService restaurantReactiveService;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = H2ConnectionFactory.inMemory("restaurant-r2dbc-" + UUID.randomUUID());
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("""
+                CREATE TABLE restaurant (id INT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255),
+                    address VARCHAR(255), district VARCHAR(255), phone_number VARCHAR(255))
+                """).then().block();
+        List<String> names = List.of("C", "A", "B", "A");
+        for (int i = 0; i < names.size(); i++) {
+            databaseClient.sql("INSERT INTO restaurant VALUES (:id, :name, 'd', 'a', 'Mokotów', '1')")
+                    .bind("id", i + 1)
+                    .bind("name", names.get(i))
+                    .then().block();
+        }
+        restaurantReactiveService = new RestaurantReactiveService(new RestaurantR2dbcDataAccessService(databaseClient));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.close();
+    }
+
+    @Test
+    void districtPagesAreSortedByNameThenId() {
+        RestaurantPage first = restaurantReactiveService.getRestaurantsByDistrict("Mokotów", 0, 3).block();
+        RestaurantPage second = restaurantReactiveService.getRestaurantsByDistrict("Mokotów", 1, 3).block();
+
+        assertEquals(List.of(2, 4, 3), first.restaurants().stream().map(Restaurant::getId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(1), second.restaurants().stream().map(Restaurant::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void getRestaurantByIdFailsForMissingRestaurant() {
+        assertEquals("B", restaurantReactiveService.getRestaurantById(3).block().getName());
+        assertThrows(ResourceNotFoundException.class, () -> restaurantReactiveService.getRestaurantById(99).block());
+    }
+
+    @Test
+    void invalidPageIsRejected() {
+        assertThrows(NotValidResourceException.class,
+                () -> restaurantReactiveService.getRestaurantsByDistrict("Mokotów", -1, null).block());
+        assertThrows(NotValidResourceException.class,
+                () -> restaurantReactiveService.getRestaurantsByDistrict("Mokotów", 0, 101).block());
+        assertEquals(2, restaurantReactiveService.getRestaurantsByName("A").collectList().block().size());
+    }
+}
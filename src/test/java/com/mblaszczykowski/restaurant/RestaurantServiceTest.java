@@ -1,6 +1,8 @@
 package com.mblaszczykowski.restaurant;
 
+import com.mblaszczykowski.exception.NotValidResourceException;
 import com.mblaszczykowski.exception.ResourceNotFoundException;
+import com.mblaszczykowski.search.AutocompleteIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -12,6 +14,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -21,10 +24,16 @@ class RestaurantServiceTest {
     @Mock
     private RestaurantDAO restaurantDAO;
 
+    @Mock
+    private RestaurantRanking restaurantRanking;
+
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        restaurantService = new RestaurantService(restaurantDAO);
+        restaurantService = new RestaurantService(restaurantDAO, restaurantRanking, autocompleteIndex);
     }
 
     @Test
@@ -87,29 +96,42 @@ class RestaurantServiceTest {
     }
 
     @Test
-    void testGetRestaurantsByDistrict_ExistingRestaurant_ReturnsRestaurant() {
+    void testGetRestaurantsByDistrict_ExistingRestaurants_ReturnsPage() {
         // Arrange
         String district = "District";
-        Restaurant restaurant = new Restaurant();
-        when(restaurantDAO.getRestaurantByDistrict(district)).thenReturn(Optional.of(restaurant));
+        RestaurantPage page = new RestaurantPage(List.of(new Restaurant(), new Restaurant()), 0, 20, true);
+        when(restaurantDAO.getRestaurantsByDistrict(district, 0, 20)).thenReturn(page);
 
         // Act
-        Restaurant result = restaurantService.getRestaurantsByDistrict(district);
+        RestaurantPage result = restaurantService.getRestaurantsByDistrict(district, null, null);
 
         // Assert
-        assertNotNull(result);
-        verify(restaurantDAO, times(1)).getRestaurantByDistrict(district);
+        assertEquals(2, result.restaurants().size());
+        assertTrue(result.hasNext());
+        verify(restaurantDAO, times(1)).getRestaurantsByDistrict(district, 0, 20);
     }
 
     @Test
-    void testGetRestaurantsByDistrict_NonExistingRestaurant_ThrowsResourceNotFoundException() {
+    void testGetRestaurantsByDistrict_NonExistingDistrict_ReturnsEmptyPage() {
         // Arrange
         String district = "District";
-        when(restaurantDAO.getRestaurantByDistrict(district)).thenReturn(Optional.empty());
+        when(restaurantDAO.getRestaurantsByDistrict(district, 1, 5)).thenReturn(new RestaurantPage(List.of(), 1, 5, false));
 
+        // Act
+        RestaurantPage result = restaurantService.getRestaurantsByDistrict(district, 1, 5);
+
+        // Assert
+        assertTrue(result.restaurants().isEmpty());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void testGetRestaurantsByDistrict_InvalidPage_ThrowsNotValidResourceException() {
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> restaurantService.getRestaurantsByDistrict(district));
-        verify(restaurantDAO, times(1)).getRestaurantByDistrict(district);
+        assertThrows(NotValidResourceException.class, () -> restaurantService.getRestaurantsByDistrict("District", -1, 5));
+        assertThrows(NotValidResourceException.class, () -> restaurantService.getRestaurantsByDistrict("District", 0, 0));
+        assertThrows(NotValidResourceException.class, () -> restaurantService.getRestaurantsByDistrict("District", 0, 1000));
+        verify(restaurantDAO, never()).getRestaurantsByDistrict(any(), anyInt(), anyInt());
     }
 
     @Test
@@ -179,6 +201,7 @@ class RestaurantServiceTest {
         // Assert
         verify(restaurantDAO, times(1)).getRestaurantById(restaurantId);
         verify(restaurantDAO, times(1)).updateRestaurant(existingRestaurant);
+        verify(restaurantDAO, times(1)).incrementMenuVersions(List.of(restaurantId));
         assertEquals(updateRequest.name(), existingRestaurant.getName());
         assertEquals(updateRequest.description(), existingRestaurant.getDescription());
         assertEquals(updateRequest.address(), existingRestaurant.getAddress());
@@ -8,6 +8,8 @@ import com.mblaszczykowski.order.Order;
 import com.mblaszczykowski.order.OrderDAO;
 import com.mblaszczykowski.restaurant.Restaurant;
 import com.mblaszczykowski.restaurant.RestaurantDAO;
+import com.mblaszczykowski.restaurant.RestaurantRanking;
+import com.mblaszczykowski.restaurant.RestaurantRatingStatsDAO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -38,10 +40,16 @@ class ReviewServiceTest {
     @Mock
     private OrderDAO orderDAO;
 
+    @Mock
+    private RestaurantRatingStatsDAO ratingStatsDAO;
+
+    @Mock
+    private RestaurantRanking restaurantRanking;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        reviewService = new ReviewService(reviewDAO, customerDAO, restaurantDAO, orderDAO);
+        reviewService = new ReviewService(reviewDAO, customerDAO, restaurantDAO, orderDAO, ratingStatsDAO, restaurantRanking);
     }
 
     @Test
@@ -160,6 +168,29 @@ class ReviewServiceTest {
 
         // Assert
         verify(reviewDAO, times(1)).add(any(Review.class));
+        verify(ratingStatsDAO, times(1)).initializeIfMissing(1);
+        verify(ratingStatsDAO, times(1)).addRating(1, 5);
+        verify(restaurantRanking, times(1)).ratingAdded(1, 5);
+    }
+
+    @Test
+    void testAdd_RatingOutOfRange_ThrowsNotValidResourceException() {
+        // Arrange
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(1);
+        ReviewRegistrationRequest registrationRequest = new ReviewRegistrationRequest(
+                new Customer(),
+                restaurant,
+                new Order(),
+                "Review Name",
+                6,
+                "Review Description"
+        );
+
+        // Act & Assert
+        assertThrows(NotValidResourceException.class, () -> reviewService.add(registrationRequest));
+        verify(reviewDAO, never()).add(any(Review.class));
+        verify(ratingStatsDAO, never()).addRating(anyInt(), anyInt());
     }
 
     @Test
@@ -301,6 +332,45 @@ class ReviewServiceTest {
         verify(reviewDAO, times(1)).update(any(Review.class));
     }
 
+    @Test
+    void testUpdate_ChangedRating_MovesRatingInStats() {
+        // Arrange
+        Integer reviewId = 1;
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(2);
+        Review review = new Review(new Customer(), restaurant, new Order(), "Review Name", 5, "Review Description");
+        review.setId(reviewId);
+        ReviewUpdateRequest updateRequest = new ReviewUpdateRequest(null, 3, null);
+        when(reviewDAO.getById(reviewId)).thenReturn(Optional.of(review));
+
+        // Act
+        reviewService.update(reviewId, updateRequest);
+
+        // Assert
+        assertEquals(3, review.getRating());
+        verify(ratingStatsDAO, times(1)).removeRating(2, 5);
+        verify(ratingStatsDAO, times(1)).addRating(2, 3);
+        verify(restaurantRanking, times(1)).ratingRemoved(2, 5);
+        verify(restaurantRanking, times(1)).ratingAdded(2, 3);
+    }
+
+    @Test
+    void testUpdate_SameRating_LeavesStatsUntouched() {
+        // Arrange
+        Integer reviewId = 1;
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(2);
+        Review review = new Review(new Customer(), restaurant, new Order(), "Review Name", 4, "Review Description");
+        when(reviewDAO.getById(reviewId)).thenReturn(Optional.of(review));
+
+        // Act
+        reviewService.update(reviewId, new ReviewUpdateRequest("New Review Name", 4, null));
+
+        // Assert
+        verify(reviewDAO, times(1)).update(review);
+        verifyNoInteractions(ratingStatsDAO);
+    }
+
     @Test
     void testUpdate_NonExistingReview_ThrowsResourceNotFoundException() {
         // Arrange
@@ -318,6 +388,25 @@ class ReviewServiceTest {
     }
 
 
+    @Test
+    void testDeleteById_ExistingReview_DeletesReviewAndRating() {
+        // Arrange
+        Integer reviewId = 1;
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(2);
+        Review review = new Review(new Customer(), restaurant, new Order(), "Review Name", 4, "Review Description");
+        review.setId(reviewId);
+        when(reviewDAO.getById(reviewId)).thenReturn(Optional.of(review));
+
+        // Act
+        reviewService.deleteById(reviewId);
+
+        // Assert
+        verify(reviewDAO, times(1)).deleteById(reviewId);
+        verify(ratingStatsDAO, times(1)).removeRating(2, 4);
+        verify(restaurantRanking, times(1)).ratingRemoved(2, 4);
+    }
+
     @Test
     void testDeleteById_NonExistingReview_ThrowsResourceNotFoundException() {
         // Arrange
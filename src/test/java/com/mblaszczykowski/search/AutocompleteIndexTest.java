@@ -0,0 +1,155 @@
+package com.mblaszczykowski.search;
+
+import com.mblaszczykowski.food.Food;
+import com.mblaszczykowski.food.FoodDAO;
+import com.mblaszczykowski.restaurant.Restaurant;
+import com.mblaszczykowski.restaurant.RestaurantDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutocompleteIndexTest {
+    private AutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private FoodDAO foodDAO;
+
+    @Mock
+    private RestaurantDAO restaurantDAO;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        autocompleteIndex = new AutocompleteIndex(foodDAO, restaurantDAO, Duration.ZERO);
+        when(foodDAO.getAllFood()).thenReturn(List.of(
+                food(1, "Pizza Margherita", "Pizza"),
+                food(2, "Pizza Pepperoni", "Pizza"),
+                food(3, "Żurek", "Zupy")
+        ));
+        when(restaurantDAO.getAllRestaurants()).thenReturn(List.of(restaurant(1, "Pizzeria Roma")));
+        autocompleteIndex.rebuild();
+    }
+
+    @Test
+    void suggestMatchesNamePrefixesShorterTermsFirst() {
+        List<AutocompleteSuggestion> suggestions = autocompleteIndex.suggest("piz", 10);
+
+        assertEquals(List.of(
+                AutocompleteSuggestion.category("Pizza"),
+                AutocompleteSuggestion.food(1, "Pizza Margherita"),
+                AutocompleteSuggestion.food(2, "Pizza Pepperoni"),
+                AutocompleteSuggestion.restaurant(1, "Pizzeria Roma")
+        ), suggestions);
+        assertEquals(2, autocompleteIndex.suggest("piz", 2).size());
+    }
+
+    @Test
+    void suggestMatchesLaterWordsAndIgnoresCaseAndDiacritics() {
+        assertEquals(List.of(AutocompleteSuggestion.food(1, "Pizza Margherita")), autocompleteIndex.suggest("MARG", 10));
+        assertEquals(List.of(AutocompleteSuggestion.food(2, "Pizza Pepperoni")), autocompleteIndex.suggest("pizza  pe", 10));
+        assertEquals(List.of(AutocompleteSuggestion.food(3, "Żurek")), autocompleteIndex.suggest("zur", 10));
+        assertTrue(autocompleteIndex.suggest("sushi", 10).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceOldTermsAndPruneEmptyNodes() {
+        long nodesBefore = autocompleteIndex.stats().nodes();
+
+        Food renamed = food(1, "Calzone", "Pizza");
+        autocompleteIndex.foodChanged(renamed);
+        autocompleteIndex.foodChanged(renamed);
+        autocompleteIndex.restaurantChanged(restaurant(2, "Bar Mleczny"));
+
+        assertTrue(autocompleteIndex.suggest("marg", 10).isEmpty());
+        assertEquals(List.of(AutocompleteSuggestion.food(1, "Calzone")), autocompleteIndex.suggest("calz", 10));
+        assertEquals(List.of(AutocompleteSuggestion.restaurant(2, "Bar Mleczny")), autocompleteIndex.suggest("mlecz", 10));
+
+        autocompleteIndex.foodChanged(food(1, "Pizza Margherita", "Pizza"));
+        autocompleteIndex.restaurantRemoved(2);
+
+        assertEquals(nodesBefore, autocompleteIndex.stats().nodes());
+    }
+
+    @Test
+    void changesDuringRebuildSurviveStaleSnapshot() {
+        // Zmiany zatwierdzone po odczycie dań, zanim snapshot zastąpi indeks
+        when(restaurantDAO.getAllRestaurants()).thenAnswer(invocation -> {
+            autocompleteIndex.foodChanged(food(1, "Calzone", "Pizza"));
+            autocompleteIndex.restaurantRemoved(1);
+            return List.of(restaurant(1, "Pizzeria Roma"));
+        });
+
+        autocompleteIndex.rebuild();
+
+        assertTrue(autocompleteIndex.suggest("marg", 10).isEmpty());
+        assertEquals(List.of(AutocompleteSuggestion.food(1, "Calzone")), autocompleteIndex.suggest("calz", 10));
+        assertTrue(autocompleteIndex.suggest("roma", 10).isEmpty());
+
+        // Kolejna przebudowa nie powtarza już tych zmian
+        when(restaurantDAO.getAllRestaurants()).thenReturn(List.of(restaurant(1, "Pizzeria Roma")));
+        autocompleteIndex.rebuild();
+
+        assertEquals(List.of(AutocompleteSuggestion.food(1, "Pizza Margherita")), autocompleteIndex.suggest("marg", 10));
+        assertEquals(List.of(AutocompleteSuggestion.restaurant(1, "Pizzeria Roma")), autocompleteIndex.suggest("roma", 10));
+    }
+
+    @Test
+    void refreshPicksUpChangesFromOtherInstances() throws InterruptedException {
+        AutocompleteIndex refreshed = new AutocompleteIndex(foodDAO, restaurantDAO, Duration.ofMillis(20));
+        refreshed.start();
+        try {
+            when(restaurantDAO.getAllRestaurants()).thenReturn(List.of(restaurant(2, "Bar Mleczny")));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (refreshed.suggest("mlecz", 10).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(List.of(AutocompleteSuggestion.restaurant(2, "Bar Mleczny")), refreshed.suggest("mlecz", 10));
+            assertTrue(refreshed.suggest("roma", 10).isEmpty());
+        } finally {
+            refreshed.close();
+        }
+    }
+
+    @Test
+    void categoryDisappearsWithItsLastFood() {
+        autocompleteIndex.foodRemoved(1);
+        assertTrue(autocompleteIndex.suggest("pizza", 10).contains(AutocompleteSuggestion.category("Pizza")));
+
+        autocompleteIndex.foodRemoved(2);
+        assertFalse(autocompleteIndex.suggest("pizza", 10).contains(AutocompleteSuggestion.category("Pizza")));
+        assertEquals(List.of(AutocompleteSuggestion.restaurant(1, "Pizzeria Roma")), autocompleteIndex.suggest("pizz", 10));
+    }
+
+    @Test
+    void statsReportFootprintPerEntry() {
+        AutocompleteStats stats = autocompleteIndex.stats();
+
+        // 3 dania, 1 restauracja, 2 kategorie
+        assertEquals(6, stats.entries());
+        assertTrue(stats.nodes() > stats.terms());
+        assertTrue(stats.estimatedBytes() > 0);
+        assertEquals(stats.estimatedBytes() / 6, stats.estimatedBytesPerEntry());
+    }
+
+    private static Food food(Integer id, String name, String category) {
+        Food food = new Food(name, "description", category, BigDecimal.TEN, false, null);
+        food.setId(id);
+        return food;
+    }
+
+    private static Restaurant restaurant(Integer id, String name) {
+        Restaurant restaurant = new Restaurant(name, "description", "address", "Mokotów", "123456789");
+        restaurant.setId(id);
+        return restaurant;
+    }
+}
@@ -0,0 +1,105 @@
+package com.mblaszczykowski.search;
+
+import com.mblaszczykowski.exception.NotValidResourceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SearchServiceTest {
+    private SearchService searchService;
+
+    @Mock
+    private SearchDAO searchDAO;
+
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new SearchService(searchDAO, autocompleteIndex);
+    }
+
+    @Test
+    void testSearchReturnsFullTextHitsWithNextPage() {
+        List<SearchHit> hits = List.of(hit(1, 0.9), hit(2, 0.5), hit(3, 0.1));
+        when(searchDAO.search("pizza", 0, 3)).thenReturn(hits);
+
+        SearchPage result = searchService.search(" pizza ", null, 2);
+
+        assertEquals(hits.subList(0, 2), result.hits());
+        assertTrue(result.hasNext());
+        assertFalse(result.fuzzy());
+        verify(searchDAO, never()).searchSimilar(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchFallsBackToTrigramsWhenNothingMatches() {
+        List<SearchHit> similar = List.of(hit(4, 0.7));
+        when(searchDAO.search("margarita", 0, 21)).thenReturn(List.of());
+        when(searchDAO.searchSimilar("margarita", 0, 21)).thenReturn(similar);
+
+        SearchPage result = searchService.search("margarita", null, null);
+
+        assertEquals(similar, result.hits());
+        assertFalse(result.hasNext());
+        assertTrue(result.fuzzy());
+    }
+
+    @Test
+    void testSearchPastLastFullTextPageDoesNotMixInTrigramHits() {
+        when(searchDAO.search("pizza", 40, 21)).thenReturn(List.of());
+        when(searchDAO.search("pizza", 0, 1)).thenReturn(List.of(hit(1, 0.9)));
+
+        SearchPage result = searchService.search("pizza", 2, 20);
+
+        assertTrue(result.hits().isEmpty());
+        assertFalse(result.fuzzy());
+        verify(searchDAO, never()).searchSimilar(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchInvalidParameters() {
+        assertThrows(NotValidResourceException.class, () -> searchService.search(" ", null, null));
+        assertThrows(NotValidResourceException.class, () -> searchService.search("a".repeat(101), null, null));
+        assertThrows(NotValidResourceException.class, () -> searchService.search("pizza", -1, null));
+        assertThrows(NotValidResourceException.class, () -> searchService.search("pizza", 0, 51));
+
+        verifyNoInteractions(searchDAO);
+    }
+
+    @Test
+    void testAutocompleteUsesDefaultLimit() {
+        List<AutocompleteSuggestion> suggestions = List.of(AutocompleteSuggestion.food(1, "Pizza"));
+        when(autocompleteIndex.suggest("piz", 10)).thenReturn(suggestions);
+
+        assertEquals(suggestions, searchService.autocomplete("piz", null));
+    }
+
+    @Test
+    void testAutocompleteInvalidParameters() {
+        assertThrows(NotValidResourceException.class, () -> searchService.autocomplete(" ", null));
+        assertThrows(NotValidResourceException.class, () -> searchService.autocomplete("a".repeat(101), null));
+        assertThrows(NotValidResourceException.class, () -> searchService.autocomplete("piz", 0));
+        assertThrows(NotValidResourceException.class, () -> searchService.autocomplete("piz", 51));
+
+        verifyNoInteractions(autocompleteIndex);
+    }
+
+    @Test
+    void testToPrefixTsQueryKeepsOnlyWordCharacters() {
+        assertEquals("żurek:* & pizz:*", SearchJPADataAccessService.toPrefixTsQuery("Żurek, pizz!"));
+        assertEquals("", SearchJPADataAccessService.toPrefixTsQuery("'&|:*"));
+    }
+
+    private static SearchHit hit(int id, double rank) {
+        return new SearchHit(SearchHit.Type.FOOD, id, "Food " + id, "Description", rank);
+    }
+}